@@ -2,9 +2,11 @@ package com.sulaksono.fileingestorservice.config;
 
 import jakarta.annotation.PreDestroy;
 import org.springframework.boot.autoconfigure.task.TaskExecutionProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -12,33 +14,57 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
  * Configures a dedicated {@link AsyncTaskExecutor} for methods annotated with {@code @Async}.
  * Spring Boot 3.5 deprecates {@code TaskExecutorBuilder},
  * {@link ThreadPoolTaskExecutor} initialized manually using the externalised TaskExecutionProperties.
+ *
+ * With {@code ingestion.concurrency.executor-mode=virtual} every task runs on its own
+ * virtual thread instead; embedding calls and DB writes are then bounded by
+ * {@code ConcurrencyLimiter} rather than by the pool size.
  */
 @Configuration
 @EnableAsync
+@EnableConfigurationProperties(IngestionConcurrencyProperties.class)
 public class AsyncConfig {
 
-    private ThreadPoolTaskExecutor executor;
+    private AsyncTaskExecutor executor;
 
     @Bean("asyncExecutor")
-    public AsyncTaskExecutor asyncExecutor(TaskExecutionProperties props) {
-        executor = new ThreadPoolTaskExecutor();
+    public AsyncTaskExecutor asyncExecutor(TaskExecutionProperties props,
+                                           IngestionConcurrencyProperties concurrency) {
+        executor = concurrency.getExecutorMode() == IngestionConcurrencyProperties.ExecutorMode.VIRTUAL
+                ? virtualThreadExecutor(props)
+                : platformThreadExecutor(props);
+        return executor;
+    }
+
+    private static ThreadPoolTaskExecutor platformThreadExecutor(TaskExecutionProperties props) {
+        ThreadPoolTaskExecutor pooled = new ThreadPoolTaskExecutor();
 
         // Apply pool sizing coming from spring.task.execution.* (see application.yaml)
         var pool = props.getPool();
-        executor.setCorePoolSize(pool.getCoreSize());
-        executor.setMaxPoolSize(pool.getMaxSize());
-        executor.setQueueCapacity(pool.getQueueCapacity());
-        executor.setThreadNamePrefix(props.getThreadNamePrefix());
-        executor.setTaskDecorator(new MDCTaskDecorator());
+        pooled.setCorePoolSize(pool.getCoreSize());
+        pooled.setMaxPoolSize(pool.getMaxSize());
+        pooled.setQueueCapacity(pool.getQueueCapacity());
+        pooled.setThreadNamePrefix(props.getThreadNamePrefix());
+        pooled.setTaskDecorator(new MDCTaskDecorator());
 
-        executor.initialize();
-        return executor;
+        pooled.initialize();
+        return pooled;
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(TaskExecutionProperties props) {
+        SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor(props.getThreadNamePrefix());
+
+        virtual.setVirtualThreads(true);
+        virtual.setTaskDecorator(new MDCTaskDecorator());
+
+        return virtual;
     }
 
     @PreDestroy
     void gracefulShutdown() {
-        if (executor != null) {
-            executor.shutdown();
+        if (executor instanceof ThreadPoolTaskExecutor pooled) {
+            pooled.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.sulaksono.fileingestorservice.config;
 
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.Setter;
@@ -24,6 +25,19 @@ public class AzureOpenAIProperties {
     @NotBlank
     private String embeddingModelDeployment;
 
+    /**
+     * Max number of inputs packed into one embeddings request.
+     */
+    @Min(1)
+    private int embeddingBatchMaxInputs = 16;
+
+    /**
+     * Max sum of input tokens (cl100k_base) packed into one embeddings request.
+     * A single input larger than the budget is still sent, alone.
+     */
+    @Min(1)
+    private int embeddingBatchMaxTokens = 100_000;
+
     // -- getters / setters ---------------------------------------------------
 
 }
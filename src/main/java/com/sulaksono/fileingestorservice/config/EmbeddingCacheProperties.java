@@ -0,0 +1,34 @@
+package com.sulaksono.fileingestorservice.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe mapping for embedding.cache.* properties.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "embedding.cache")
+public class EmbeddingCacheProperties {
+
+    /**
+     * Master switch; when off every input goes straight to Azure OpenAI.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Vectors kept in the in-memory tier, least recently used evicted first.
+     * 0 disables the in-memory tier.
+     */
+    @Min(0)
+    private int memoryMaxEntries = 5_000;
+
+    /**
+     * Whether the embedding_cache table is used as second tier.
+     */
+    private boolean persistent = true;
+}
@@ -0,0 +1,42 @@
+package com.sulaksono.fileingestorservice.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Type-safe mapping for ingestion.concurrency.* properties.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "ingestion.concurrency")
+public class IngestionConcurrencyProperties {
+
+    /**
+     * Threads behind the {@code asyncExecutor} bean.
+     */
+    private ExecutorMode executorMode = ExecutorMode.PLATFORM;
+
+    /**
+     * Max concurrent requests to the Azure OpenAI embedding endpoint.
+     */
+    @Min(1)
+    private int maxEmbeddingCalls = 8;
+
+    /**
+     * Max concurrent write transactions of the ingestion pipeline.
+     * Keep below the Hikari maximum-pool-size.
+     */
+    @Min(1)
+    private int maxDbWrites = 8;
+
+    public enum ExecutorMode {
+        /** {@code ThreadPoolTaskExecutor} sized by spring.task.execution.pool.*. */
+        PLATFORM,
+        /** One virtual thread per task; concurrency is bounded by the permits above. */
+        VIRTUAL
+    }
+}
@@ -0,0 +1,41 @@
+package com.sulaksono.fileingestorservice.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe mapping for ingestion.progress.* properties (job status API).
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "ingestion.progress")
+public class IngestionProgressProperties {
+
+    /**
+     * Uploads whose progress this node keeps in memory; the least recently
+     * updated one is dropped first.
+     */
+    @Min(1)
+    private int maxUploads = 1000;
+
+    /**
+     * Files listed with their own progress per upload; counts and totals
+     * still cover every file.
+     */
+    @Min(0)
+    private int maxFilesPerUpload = 2000;
+
+    /**
+     * Minimum delay between two reads of an unfinished upload's job counts
+     * from the database, however often it is polled.
+     */
+    @NotNull
+    private Duration refreshInterval = Duration.ofSeconds(5);
+}
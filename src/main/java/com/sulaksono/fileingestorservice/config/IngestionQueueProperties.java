@@ -0,0 +1,75 @@
+package com.sulaksono.fileingestorservice.config;
+
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Type-safe mapping for ingestion.queue.* properties (durable job queue).
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "ingestion.queue")
+public class IngestionQueueProperties {
+
+    /**
+     * Whether this node runs a worker loop; upload-only nodes can turn it off.
+     */
+    private boolean workerEnabled = true;
+
+    /**
+     * Delay between two polls of the worker loop.
+     */
+    @NotNull
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * Max jobs claimed per poll.
+     */
+    @Min(1)
+    private int claimBatchSize = 8;
+
+    /**
+     * Max jobs running on this node at the same time.
+     */
+    @Min(1)
+    private int maxInFlight = 16;
+
+    /**
+     * How long a claim stays valid without a heartbeat; afterwards the job is
+     * handed to another worker.
+     */
+    @NotNull
+    private Duration visibilityTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Attempts before a job is marked FAILED.
+     */
+    @Min(1)
+    private int maxAttempts = 5;
+
+    /**
+     * Delay before the first retry; doubled for every further attempt.
+     */
+    @NotNull
+    private Duration retryBackoff = Duration.ofSeconds(30);
+
+    /**
+     * Share of the claims each lane gets while several lanes have work; a lane
+     * without work leaves its share to the others. Weights below 1 count as 1.
+     */
+    @NotNull
+    private Map<IngestionJob.Lane, Integer> laneWeights = new EnumMap<>(Map.of(
+            IngestionJob.Lane.INTERACTIVE, 6,
+            IngestionJob.Lane.BULK, 3,
+            IngestionJob.Lane.REEMBED, 1));
+}
@@ -0,0 +1,66 @@
+package com.sulaksono.fileingestorservice.config;
+
+import com.pgvector.PGvector;
+import org.jetbrains.annotations.NotNull;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Registers the pgvector type on every connection handed out by the pool.
+ *
+ * With the type registered, pgjdbc returns {@link PGvector} from
+ * {@code getObject} instead of a bare {@code PGobject} (see
+ * {@link com.sulaksono.fileingestorservice.model.converter.PgVectorType}). The
+ * wire format stays pgjdbc's default, text, as binary transfer is not enabled
+ * for the vector type's OID.
+ * Non-PostgreSQL connections (H2 in tests) are passed through unchanged.
+ */
+@Configuration
+public class PgVectorDataSourceConfig {
+
+    @Bean
+    static BeanPostProcessor pgVectorDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(@NotNull Object bean, @NotNull String beanName) {
+                if (bean instanceof DataSource ds && !(bean instanceof PgVectorDataSource)) {
+                    return new PgVectorDataSource(ds);
+                }
+                return bean;
+            }
+        };
+    }
+
+    static final class PgVectorDataSource extends DelegatingDataSource {
+
+        PgVectorDataSource(DataSource target) {
+            super(target);
+        }
+
+        @NotNull
+        @Override
+        public Connection getConnection() throws SQLException {
+            return register(super.getConnection());
+        }
+
+        @NotNull
+        @Override
+        public Connection getConnection(@NotNull String username, @NotNull String password) throws SQLException {
+            return register(super.getConnection(username, password));
+        }
+
+        private static Connection register(Connection con) throws SQLException {
+            if (con.isWrapperFor(PGConnection.class)) {
+                PGvector.addVectorType(con);
+            }
+            return con;
+        }
+    }
+}
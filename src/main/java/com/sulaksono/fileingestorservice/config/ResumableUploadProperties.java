@@ -0,0 +1,45 @@
+package com.sulaksono.fileingestorservice.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe mapping for ingestion.resumable.* properties (resumable uploads).
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "ingestion.resumable")
+public class ResumableUploadProperties {
+
+    /**
+     * Directory holding the sessions' received byte ranges; defaults to
+     * {@code .resumable} under {@code storage.location}. Nodes that share it
+     * can serve any request of a session.
+     */
+    private String location;
+
+    /**
+     * Largest upload a session may announce.
+     */
+    @NotNull
+    private DataSize maxSize = DataSize.ofGigabytes(2);
+
+    /**
+     * Sessions without a write for this long are deleted by the sweeper.
+     */
+    @NotNull
+    private Duration expiry = Duration.ofHours(24);
+
+    /**
+     * Delay between two sweeps for expired sessions.
+     */
+    @NotNull
+    private Duration sweepInterval = Duration.ofMinutes(15);
+}
@@ -0,0 +1,13 @@
+package com.sulaksono.fileingestorservice.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} methods (ingestion job polling), run on the
+ * spring.task.scheduling.* pool.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -7,7 +7,7 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
 /**
- * storage.location property mapping.
+ * storage.* property mapping.
  */
 @Setter
 @Getter
@@ -18,4 +18,11 @@ public class StorageProperties {
     @NotBlank
     private String location;
 
+    /**
+     * Where multipart uploads are spooled while a request is read
+     * ({@code spring.servlet.multipart.location} points here). On the same
+     * file system as {@link #location}, storing an upload is a rename.
+     */
+    private String tempLocation;
+
 }
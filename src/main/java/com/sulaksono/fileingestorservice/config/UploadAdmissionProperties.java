@@ -0,0 +1,52 @@
+package com.sulaksono.fileingestorservice.config;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Type-safe mapping for ingestion.admission.* properties (upload backpressure).
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "ingestion.admission")
+public class UploadAdmissionProperties {
+
+    /**
+     * Whether uploads are turned away with {@code 429} while the pipeline is saturated.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Unfinished (PENDING or RUNNING) jobs of all nodes above which no new
+     * upload is enqueued.
+     */
+    @Min(1)
+    private long maxQueuedJobs = 20_000;
+
+    /**
+     * Request bodies this node receives at the same time; a request of
+     * unknown length counts as {@code spring.servlet.multipart.max-request-size}.
+     */
+    @NotNull
+    private DataSize maxInFlightBytes = DataSize.ofGigabytes(1);
+
+    /**
+     * How long the queued job count read from the database is reused.
+     */
+    @NotNull
+    private Duration queueCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * {@code Retry-After} sent with a {@code 429}.
+     */
+    @NotNull
+    private Duration retryAfter = Duration.ofSeconds(30);
+}
@@ -24,4 +24,24 @@ public class VectorProperties {
 
     @Min(0)
     private int maxChunksPerFile = 0;
+
+    /**
+     * How file_embeddings rows are written.
+     */
+    private WriteMode writeMode = WriteMode.JPA;
+
+    /**
+     * Rows per JDBC batch (JDBC_BATCH) or per COPY flush (COPY).
+     */
+    @Min(1)
+    private int writeBatchSize = 500;
+
+    public enum WriteMode {
+        /** One {@code repository.save} per chunk through the persistence context. */
+        JPA,
+        /** Client-generated ids, multi-row JDBC batch inserts. */
+        JDBC_BATCH,
+        /** PostgreSQL {@code COPY ... FROM STDIN} through the pgjdbc CopyManager. */
+        COPY
+    }
 }
\ No newline at end of file
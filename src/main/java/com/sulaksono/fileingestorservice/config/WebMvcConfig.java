@@ -0,0 +1,29 @@
+package com.sulaksono.fileingestorservice.config;
+
+import com.sulaksono.fileingestorservice.controller.UploadAdmissionInterceptor;
+import com.sulaksono.fileingestorservice.service.UploadAdmissionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Registers {@link UploadAdmissionInterceptor} on the endpoints that receive upload bodies.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final UploadAdmissionService admission;
+    private final ObjectProvider<MultipartProperties> multipart;   // absent in web slices without multipart
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new UploadAdmissionInterceptor(admission,
+                        multipart.getIfAvailable(MultipartProperties::new)))
+                .addPathPatterns("/api/files/upload", "/api/files/upload/stream",
+                        "/api/files/resumable", "/api/files/resumable/**");
+    }
+}
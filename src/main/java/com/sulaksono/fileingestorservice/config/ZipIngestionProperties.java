@@ -0,0 +1,126 @@
+package com.sulaksono.fileingestorservice.config;
+
+import com.sulaksono.fileingestorservice.util.ZipUtil;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Type-safe mapping for ingestion.zip.* properties (ZIP uploads).
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "ingestion.zip")
+public class ZipIngestionProperties {
+
+    /**
+     * Hand accepted entries to the queue as decoded content instead of
+     * extracting them to disk first.
+     */
+    private boolean streamEntries = true;
+
+    /**
+     * Decoded bytes held in memory before they are handed to the queue as one
+     * batch of jobs (inline in the job rows).
+     */
+    @NotNull
+    private DataSize inlineMaxBytes = DataSize.ofMegabytes(4);
+
+    /**
+     * Entries of one archive inflated concurrently; 1 = on the request thread only.
+     */
+    @Min(1)
+    private int extractParallelism = 4;
+
+    /**
+     * Skip entries whose CRC-32 and size match the last ingested version of the
+     * same path in the same module version, without inflating them.
+     */
+    private boolean skipUnchangedEntries = true;
+
+    /**
+     * Entry name globs to ingest; empty = every supported entry.
+     * Matched against the full '/' separated name, see {@link com.sulaksono.fileingestorservice.util.ZipEntryFilter}.
+     */
+    @NotNull
+    private List<String> includes = new ArrayList<>();
+
+    /**
+     * Entry name globs never ingested, checked before an entry is inflated.
+     * Build output directories are only matched at the archive root or one
+     * level below it (a wrapping directory or a module), so a source package
+     * named {@code build} or {@code target} is kept; deeper outputs are left to
+     * the archive's .gitignore.
+     */
+    @NotNull
+    private List<String> excludes = new ArrayList<>(List.of(
+            "**/.git/**", "**/node_modules/**", "**/bower_components/**",
+            "vendor/**", "*/vendor/**",
+            "target/**", "*/target/**",
+            "build/**", "*/build/**",
+            "dist/**", "*/dist/**",
+            "**/*.min.js", "**/*.min.css", "**/*.bundle.js"));
+
+    /**
+     * Also drop entries ignored by a .gitignore found in the archive.
+     */
+    private boolean honorGitignore = true;
+
+    /**
+     * Profile used when an upload does not name one.
+     */
+    @NotBlank
+    private String defaultProfile = "default";
+
+    /**
+     * Extraction limits an upload can pick by name ({@code zipProfile} part).
+     */
+    @Valid
+    private Map<String, LimitProfile> profiles = new LinkedHashMap<>(Map.of("default", new LimitProfile()));
+
+    @Getter
+    @Setter
+    public static class LimitProfile {
+
+        /**
+         * Larger entries are skipped.
+         */
+        @NotNull
+        private DataSize maxEntrySize = DataSize.ofBytes(ZipUtil.MAX_ENTRY_BYTES);
+
+        /**
+         * Uncompressed bytes taken from one archive; the rest is dropped.
+         */
+        @NotNull
+        private DataSize maxTotalSize = DataSize.ofBytes(ZipUtil.MAX_TOTAL_BYTES);
+
+        /**
+         * Files looked at per archive.
+         */
+        @Min(1)
+        private int maxEntries = ZipUtil.MAX_ENTRIES;
+
+        /**
+         * Levels of nested archives (inner ZIPs, *-sources.jar) descended into;
+         * 0 = nested archives are skipped. They share the limits above.
+         */
+        @Min(0)
+        private int maxNestingDepth = ZipUtil.MAX_NESTING_DEPTH;
+
+        public ZipUtil.Limits toLimits() {
+            return new ZipUtil.Limits(maxEntrySize.toBytes(), maxTotalSize.toBytes(), maxEntries, maxNestingDepth);
+        }
+    }
+}
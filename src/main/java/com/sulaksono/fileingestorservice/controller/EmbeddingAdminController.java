@@ -2,7 +2,8 @@ package com.sulaksono.fileingestorservice.controller;
 
 import com.sulaksono.fileingestorservice.repository.CanonicalFileRepository;
 import com.sulaksono.fileingestorservice.repository.FileEmbeddingRepository;
-import com.sulaksono.fileingestorservice.service.ReembeddingService;
+import com.sulaksono.fileingestorservice.repository.ZipEntryFingerprintRepository;
+import com.sulaksono.fileingestorservice.service.IngestionJobService;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import jakarta.transaction.Transactional;
 import jakarta.validation.constraints.NotBlank;
@@ -41,13 +42,16 @@ public class EmbeddingAdminController {
 
     private final FileEmbeddingRepository embeddingRepository;
     private final CanonicalFileRepository canonicalFileRepository;
-    private final ReembeddingService reembed;
+    private final IngestionJobService jobs;
+    private final ZipEntryFingerprintRepository fingerprints;
 
     /**
      * Soft delete or restore all embeddings for a module.
      *
-     * This marks embeddings as deprecated or active again, then triggers
-     * re-embedding for the affected module.
+     * This marks embeddings and canonical files as deprecated or active again,
+     * then queues re-embedding of the affected module (REEMBED lane). A deprecated
+     * file is ingested again when it is re-uploaded, even with the same content;
+     * for archives, deprecating also forgets the module's entry fingerprints.
      */
     @PatchMapping("/module/{module}")
     @SecurityRequirement(name = "keycloak")
@@ -68,6 +72,10 @@ public class EmbeddingAdminController {
 
         try {
             int rows = embeddingRepository.markDeprecatedByModule(module, deprecated);
+            canonicalFileRepository.markDeprecatedByModule(module, deprecated);
+            if (deprecated) {
+                fingerprints.deleteByModule(module);
+            }
 
             log.debug(
                     "event=db_update requestId={} module={} rowsAffected={}",
@@ -82,7 +90,7 @@ public class EmbeddingAdminController {
                     module
             );
 
-            reembed.reembedModule(module);
+            jobs.enqueueReembed(module);
 
             log.info(
                     "event=mark_deprecated_complete requestId={} module={} rowsAffected={}",
@@ -107,7 +115,10 @@ public class EmbeddingAdminController {
     }
 
     /**
-     * Hard delete all embeddings and canonical file records for a module.
+     * Hard delete all embeddings and canonical file records for a module,
+     * together with its archive entry fingerprints, so that uploading the
+     * same archive again ingests every entry instead of skipping them as
+     * unchanged.
      *
      * This operation is irreversible.
      */
@@ -130,6 +141,7 @@ public class EmbeddingAdminController {
         try {
             embeddingRepository.deleteByModule(module);
             canonicalFileRepository.deleteByModule(module);
+            fingerprints.deleteByModule(module);
 
             log.info(
                     "event=hard_delete_complete requestId={} module={}",
@@ -1,43 +1,87 @@
 package com.sulaksono.fileingestorservice.controller;
 
+import com.sulaksono.fileingestorservice.config.ZipIngestionProperties;
+import com.sulaksono.fileingestorservice.exception.GlobalExceptionHandler;
 import com.sulaksono.fileingestorservice.model.FileType;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
 import com.sulaksono.fileingestorservice.service.FileStorageService;
-import com.sulaksono.fileingestorservice.service.ProcessingService;
+import com.sulaksono.fileingestorservice.service.IngestionJobService;
+import com.sulaksono.fileingestorservice.service.IngestionProgressStore;
+import com.sulaksono.fileingestorservice.service.ResumableUploadService;
 import com.sulaksono.fileingestorservice.util.FileTypeResolver;
-import com.sulaksono.fileingestorservice.util.ZipGradleUtil;
-import com.sulaksono.fileingestorservice.util.ZipPomUtil;
-import com.sulaksono.fileingestorservice.util.ZipUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.util.FileSystemUtils;
 import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * REST endpoint for receiving individual files or ZIP batches.
+ *
+ * Accepted files are stored and enqueued as ingestion jobs; processing happens
+ * later in {@code IngestionJobWorker}, so a restart does not lose accepted work.
+ * A ZIP upload is only stored and queued here; manifest resolution and
+ * extraction run later as an ARCHIVE job ({@code ArchiveIngestionService}), so
+ * the request returns right away. The archive is listed as pending, and its
+ * final accept/reject result is served by {@code GET /api/files/uploads/{uploadId}}.
+ * Per-file progress of the whole upload is served by {@code GET /api/jobs/{uploadId}}.
+ *
+ * {@code POST /api/files/upload/stream} takes the same upload without the
+ * container spooling the request first: multipart parts (or a raw octet-stream
+ * body) are written to storage while they arrive, and each file is
+ * enqueued as soon as its part ends, so workers start on it while later parts
+ * are still being sent. Memory per request is one copy buffer.
+ *
+ * Large files can also be sent as a resumable upload under
+ * {@code /api/files/resumable} ({@link ResumableUploadService}): byte ranges are
+ * sent at explicit offsets, in parallel or again after a broken connection,
+ * and the finished file goes through the same pipeline as a regular upload.
  */
 @RestController
 @RequestMapping("/api/files")
@@ -50,13 +94,31 @@ public class FileUploadController {
     private static final String FROM_PACKAGE   = "from-package";
     private static final String DEFAULT_MODULE = "undefined";
     private static final String ZIP_SUFFIX     = ".zip";
+    private static final String FILES_PART     = "files";
+    private static final int MAX_FIELD_BYTES   = 8 * 1024;
+    private static final String UPLOAD_LENGTH  = "Upload-Length";
+    private static final String UPLOAD_OFFSET  = "Upload-Offset";
+    private static final String OFFSET_OCTET_STREAM = "application/offset+octet-stream";
 
     private final FileStorageService storage;
-    private final ProcessingService processor;
-
-    public FileUploadController(FileStorageService storage, ProcessingService processor) {
+    private final IngestionJobService jobs;
+    private final ZipIngestionProperties zipProps;
+    private final IngestionProgressStore progress;
+    private final MultipartProperties multipart;
+    private final ResumableUploadService resumable;
+
+    public FileUploadController(FileStorageService storage,
+                                IngestionJobService jobs,
+                                ZipIngestionProperties zipProps,
+                                IngestionProgressStore progress,
+                                MultipartProperties multipart,
+                                ResumableUploadService resumable) {
         this.storage   = storage;
-        this.processor = processor;
+        this.jobs      = jobs;
+        this.zipProps  = zipProps;
+        this.progress  = progress;
+        this.multipart = multipart;
+        this.resumable = resumable;
     }
 
     @Operation(summary = "Upload one or many files or ZIP archives")
@@ -73,7 +135,8 @@ public class FileUploadController {
             @RequestPart(name = "fileVersion",  required = false) String fileVersion,
             @RequestPart(name = "repoCloneUrl", required = false) String repoCloneUrl,
             @RequestPart(name = "repoRef",      required = false) String repoRef,
-            @RequestPart(name = "pathInRepo",   required = false) String pathInRepo) {
+            @RequestPart(name = "pathInRepo",   required = false) String pathInRepo,
+            @RequestPart(name = "zipProfile",   required = false) String zipProfile) {
 
         final String requestId = UUID.randomUUID().toString();
         MDC.put(MDC_REQUEST_ID, requestId);
@@ -83,35 +146,352 @@ public class FileUploadController {
 
             List<String> accepted = new ArrayList<>();
             List<String> rejected = new ArrayList<>();
+            List<String> pending  = new ArrayList<>();
 
             for (MultipartFile file : files) {
-                handleFile(file, module, fileVersion, repoCloneUrl, repoRef, pathInRepo,
-                        accepted, rejected, requestId);
+                log.debug("event=file_received requestId={} fileName={} size={}",
+                        requestId, file.getOriginalFilename(), file.getSize());
+
+                handleFile(file.getOriginalFilename(), file.isEmpty(), () -> storage.store(file),
+                        module, fileVersion, repoCloneUrl, repoRef, pathInRepo, zipProfile,
+                        accepted, rejected, pending, requestId);
             }
 
-            log.info("event=upload_complete requestId={} acceptedCount={} rejectedCount={}",
-                    requestId, accepted.size(), rejected.size());
+            log.info("event=upload_complete requestId={} acceptedCount={} rejectedCount={} pendingCount={}",
+                    requestId, accepted.size(), rejected.size(), pending.size());
 
             return ResponseEntity.status(HttpStatus.ACCEPTED)
-                    .body(new UploadResponse(accepted, rejected));
+                    .body(new UploadResponse(requestId, accepted, rejected, List.of(), pending));
         } finally {
             MDC.remove(MDC_REQUEST_ID);
         }
     }
 
+    /**
+     * Streaming variant of {@link #upload}. Form fields apply to the files that
+     * follow them, so {@code module}, {@code fileVersion} etc. must be sent
+     * before the {@code files} parts.
+     */
+    @Operation(summary = "Upload files or ZIP archives as a stream, ingesting each part as it arrives")
+    @PostMapping(
+            value    = "/upload/stream",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<UploadResponse> uploadStream(HttpServletRequest request) throws IOException {
+
+        final String requestId = UUID.randomUUID().toString();
+        MDC.put(MDC_REQUEST_ID, requestId);
+        try {
+            log.info("event=upload_start requestId={} streaming=true contentLength={}",
+                    requestId, request.getContentLengthLong());
+
+            JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> parser = new JakartaServletFileUpload<>();
+            parser.setSizeMax(multipart.getMaxRequestSize().toBytes());
+            parser.setFileSizeMax(multipart.getMaxFileSize().toBytes());
+
+            Map<String, String> fields = new HashMap<>();
+            List<String> accepted = new ArrayList<>();
+            List<String> rejected = new ArrayList<>();
+            List<String> pending  = new ArrayList<>();
+
+            try {
+                FileItemInputIterator parts = parser.getItemIterator(request);
+                while (parts.hasNext()) {
+                    FileItemInput part = parts.next();
+
+                    if (part.isFormField()) {
+                        fields.put(part.getFieldName(), readField(part));
+                        continue;
+                    }
+                    if (!FILES_PART.equals(part.getFieldName())) {
+                        continue;   // the iterator skips the rest of the part
+                    }
+
+                    String original = part.getName() == null ? null : FilenameUtils.getName(part.getName());
+                    log.debug("event=file_received requestId={} fileName={} streaming=true", requestId, original);
+
+                    try (InputStream in = part.getInputStream()) {
+                        handleFile(original, false, () -> storage.store(original, in, -1),
+                                fields.get("module"), fields.get("fileVersion"), fields.get("repoCloneUrl"),
+                                fields.get("repoRef"), fields.get("pathInRepo"), fields.get("zipProfile"),
+                                accepted, rejected, pending, requestId);
+                    }
+                }
+            } catch (FileUploadSizeException e) {
+                // files enqueued before the limit was hit stay queued under this requestId
+                throw new MaxUploadSizeExceededException(multipart.getMaxRequestSize().toBytes(), e);
+            }
+
+            log.info("event=upload_complete requestId={} acceptedCount={} rejectedCount={} pendingCount={}",
+                    requestId, accepted.size(), rejected.size(), pending.size());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new UploadResponse(requestId, accepted, rejected, List.of(), pending));
+        } finally {
+            MDC.remove(MDC_REQUEST_ID);
+        }
+    }
+
+    /**
+     * Single file sent as the raw request body; what would be form fields in a
+     * multipart upload are query parameters.
+     */
+    @Operation(summary = "Upload one file or ZIP archive as a raw stream")
+    @PostMapping(
+            value    = "/upload/stream",
+            consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<UploadResponse> uploadOctetStream(
+            @RequestParam("fileName") @NotBlank String fileName,
+            @RequestParam(name = "module",       required = false) String module,
+            @RequestParam(name = "fileVersion",  required = false) String fileVersion,
+            @RequestParam(name = "repoCloneUrl", required = false) String repoCloneUrl,
+            @RequestParam(name = "repoRef",      required = false) String repoRef,
+            @RequestParam(name = "pathInRepo",   required = false) String pathInRepo,
+            @RequestParam(name = "zipProfile",   required = false) String zipProfile,
+            HttpServletRequest request) throws IOException {
+
+        final String requestId = UUID.randomUUID().toString();
+        MDC.put(MDC_REQUEST_ID, requestId);
+        try {
+            String original = FilenameUtils.getName(fileName);
+            log.info("event=upload_start requestId={} streaming=true fileName={} contentLength={}",
+                    requestId, original, request.getContentLengthLong());
+
+            List<String> accepted = new ArrayList<>();
+            List<String> rejected = new ArrayList<>();
+            List<String> pending  = new ArrayList<>();
+
+            long maxBytes = multipart.getMaxFileSize().toBytes();
+            try (InputStream in = request.getInputStream()) {
+                handleFile(original, request.getContentLengthLong() == 0, () -> storage.store(original, in, maxBytes),
+                        module, fileVersion, repoCloneUrl, repoRef, pathInRepo, zipProfile,
+                        accepted, rejected, pending, requestId);
+            }
+
+            log.info("event=upload_complete requestId={} acceptedCount={} rejectedCount={} pendingCount={}",
+                    requestId, accepted.size(), rejected.size(), pending.size());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new UploadResponse(requestId, accepted, rejected, List.of(), pending));
+        } finally {
+            MDC.remove(MDC_REQUEST_ID);
+        }
+    }
+
+    // ---------- resumable uploads ----------
+
+    /**
+     * Starts a resumable upload; the file is checked here already, so a file
+     * that would be rejected is not sent first.
+     */
+    @Operation(summary = "Start a resumable upload of one file or ZIP archive")
+    @PostMapping(value = "/resumable", produces = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<?> createResumable(
+            @RequestHeader(UPLOAD_LENGTH) long length,
+            @RequestParam("fileName") @NotBlank String fileName,
+            @RequestParam(name = "module",       required = false) String module,
+            @RequestParam(name = "fileVersion",  required = false) String fileVersion,
+            @RequestParam(name = "repoCloneUrl", required = false) String repoCloneUrl,
+            @RequestParam(name = "repoRef",      required = false) String repoRef,
+            @RequestParam(name = "pathInRepo",   required = false) String pathInRepo,
+            @RequestParam(name = "zipProfile",   required = false) String zipProfile) throws IOException {
+
+        String original = FilenameUtils.getName(fileName);
+        String profileName = StringUtils.hasText(zipProfile) ? zipProfile : zipProps.getDefaultProfile();
+
+        String rejection = validate(original, false, fileVersion);
+        if (rejection == null && isZip(original) && !zipProps.getProfiles().containsKey(profileName)) {
+            rejection = original + " (unknown zipProfile " + profileName + ")";
+        }
+        if (rejection != null) {
+            return ResponseEntity.badRequest().body(new GlobalExceptionHandler.ErrorBody(rejection));
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("module", module);
+        fields.put("fileVersion", fileVersion);
+        fields.put("repoCloneUrl", repoCloneUrl);
+        fields.put("repoRef", repoRef);
+        fields.put("pathInRepo", pathInRepo);
+        fields.put("zipProfile", zipProfile);
+
+        ResumableUploadService.Session session;
+        try {
+            session = resumable.create(original, length, fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new GlobalExceptionHandler.ErrorBody(e.getMessage()));
+        }
+
+        return ResponseEntity.created(URI.create("/api/files/resumable/" + session.id()))
+                .header(UPLOAD_OFFSET, "0")
+                .body(session);
+    }
+
+    /**
+     * Also answers {@code HEAD}: a client that lost its connection asks for
+     * {@code Upload-Offset} and continues from there.
+     */
+    @Operation(summary = "Received bytes of a resumable upload")
+    @GetMapping(value = "/resumable/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<ResumableUploadService.Session> resumableStatus(@PathVariable String id) throws IOException {
+        return resumable.find(id)
+                .map(session -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noStore())
+                        .header(UPLOAD_OFFSET, Long.toString(session.offset()))
+                        .header(UPLOAD_LENGTH, Long.toString(session.length()))
+                        .body(session))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Writes the body as the byte range starting at {@code Upload-Offset}.
+     * Ranges may be sent in parallel; the response's {@code Upload-Offset} is
+     * the end of the bytes received without a gap so far. {@code 409} for a
+     * range outside the announced length or one that is being written already.
+     */
+    @Operation(summary = "Send a byte range of a resumable upload")
+    @PatchMapping(value = "/resumable/{id}",
+            consumes = {OFFSET_OCTET_STREAM, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<Void> appendResumable(@PathVariable String id,
+                                                @RequestHeader(UPLOAD_OFFSET) long offset,
+                                                HttpServletRequest request) throws IOException {
+        Optional<ResumableUploadService.Session> session = resumable.find(id);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        long end;
+        try (InputStream in = request.getInputStream()) {
+            end = resumable.write(session.get(), offset, in);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("event=resumable_range_rejected sessionId={} offset={} reason=\"{}\"", id, offset, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        long received = resumable.find(id).map(ResumableUploadService.Session::offset).orElse(end);
+        return ResponseEntity.noContent().header(UPLOAD_OFFSET, Long.toString(received)).build();
+    }
+
+    /**
+     * Hands a complete resumable upload to the ingestion pipeline, exactly as
+     * if it had been sent to {@code POST /api/files/upload}.
+     */
+    @Operation(summary = "Finish a resumable upload and ingest it")
+    @PostMapping(value = "/resumable/{id}/finish", produces = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<?> finishResumable(@PathVariable String id) throws IOException {
+        Optional<ResumableUploadService.Session> found = resumable.find(id);
+        if (found.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ResumableUploadService.Session session = found.get();
+        if (!session.complete()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET, Long.toString(session.offset()))
+                    .body(new GlobalExceptionHandler.ErrorBody(
+                            "received " + session.offset() + " of " + session.length() + " bytes"));
+        }
+
+        final String requestId = UUID.randomUUID().toString();
+        MDC.put(MDC_REQUEST_ID, requestId);
+        try {
+            log.info("event=upload_start requestId={} sessionId={} fileName={} size={}",
+                    requestId, id, session.fileName(), session.length());
+
+            List<String> accepted = new ArrayList<>();
+            List<String> rejected = new ArrayList<>();
+            List<String> pending  = new ArrayList<>();
+            Map<String, String> fields = session.fields();
+
+            handleFile(session.fileName(), false, () -> resumable.finish(session),
+                    fields.get("module"), fields.get("fileVersion"), fields.get("repoCloneUrl"),
+                    fields.get("repoRef"), fields.get("pathInRepo"), fields.get("zipProfile"),
+                    accepted, rejected, pending, requestId);
+
+            log.info("event=upload_complete requestId={} acceptedCount={} rejectedCount={} pendingCount={}",
+                    requestId, accepted.size(), rejected.size(), pending.size());
+
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new UploadResponse(requestId, accepted, rejected, List.of(), pending));
+        } finally {
+            MDC.remove(MDC_REQUEST_ID);
+        }
+    }
+
+    @Operation(summary = "Abandon a resumable upload")
+    @DeleteMapping("/resumable/{id}")
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<Void> cancelResumable(@PathVariable String id) throws IOException {
+        Optional<ResumableUploadService.Session> session = resumable.find(id);
+        if (session.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        resumable.cancel(session.get());
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Accept/reject results of the ZIP archives of an upload")
+    @GetMapping(value = "/uploads/{uploadId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<UploadResponse> uploadStatus(@PathVariable String uploadId) {
+        List<IngestionJob> archives = jobs.archives(uploadId);
+        if (archives.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        List<String> accepted = new ArrayList<>();
+        List<String> rejected = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
+        List<String> pending  = new ArrayList<>();
+
+        for (IngestionJob archive : archives) {
+            String name = archive.getOriginalName();
+            switch (archive.getStatus()) {
+                case PENDING, RUNNING -> pending.add(name);
+                case DONE -> {
+                    accepted.add(name);
+                    if (archive.getNote() != null) warnings.add(name + " (" + archive.getNote() + ")");
+                }
+                case FAILED -> rejected.add(name + " ("
+                        + (archive.getNote() != null ? archive.getNote() : archive.getLastError()) + ")");
+            }
+        }
+
+        return ResponseEntity.ok(new UploadResponse(uploadId, accepted, rejected, warnings, pending));
+    }
+
     // ---------- per-file pipeline ----------
 
-    private void handleFile(MultipartFile file,
+    /* where the bytes of one file come from: a spooled multipart file or a part read as it arrives */
+    private interface Source {
+        FileStorageService.StoredFile store() throws IOException;
+    }
+
+    private void handleFile(String original, boolean empty, Source source,
                             String module, String fileVersion,
                             String repoCloneUrl, String repoRef, String pathInRepo,
-                            List<String> accepted, List<String> rejected,
+                            String zipProfile,
+                            List<String> accepted, List<String> rejected, List<String> pending,
                             String requestId) {
 
-        final String original = file.getOriginalFilename();
-        log.debug("event=file_received requestId={} fileName={} size={}",
-                requestId, original, file.getSize());
-
-        String rejection = validate(file, original, fileVersion);
+        String rejection = validate(original, empty, fileVersion);
         if (rejection != null) {
             log.warn("event=file_rejected requestId={} reason=\"{}\"", requestId, rejection);
             rejected.add(rejection);
@@ -124,11 +504,11 @@ public class FileUploadController {
 
         try {
             if (isZip) {
-                handleZip(file, original, module, fileVersion,
-                        repoCloneUrl, repoRef, pathInRepo, accepted, rejected, requestId);
+                handleZip(source, original, module, fileVersion, repoCloneUrl, repoRef, pathInRepo,
+                        zipProfile, rejected, pending, requestId);
             } else {
-                handleRegular(file, original, module, fileVersion,
-                        repoCloneUrl, repoRef, pathInRepo, accepted, requestId);
+                handleRegular(source, original, module, fileVersion,
+                        repoCloneUrl, repoRef, pathInRepo, accepted, rejected, requestId);
             }
         } catch (Exception e) {
             log.error("event=file_failure requestId={} fileName={} error={}",
@@ -137,65 +517,90 @@ public class FileUploadController {
         }
     }
 
-    private void handleRegular(MultipartFile file, String original,
+    private void handleRegular(Source source, String original,
                                String module, String fileVersion,
                                String repoCloneUrl, String repoRef, String pathInRepo,
-                               List<String> accepted, String requestId) throws IOException {
-        Path stored = storage.save(file);
+                               List<String> accepted, List<String> rejected,
+                               String requestId) throws IOException {
+        long started = System.nanoTime();
+        Path stored = storeNonEmpty(source, original, rejected);
+        if (stored == null) return;
+        long storeMillis = millisSince(started);
         log.debug("event=file_saved requestId={} path={}", requestId, stored);
 
         String effectiveModule = StringUtils.hasText(module) && !FROM_PACKAGE.equalsIgnoreCase(module)
                 ? module
                 : DEFAULT_MODULE;
 
-        processor.processAsync(stored, effectiveModule, fileVersion, repoCloneUrl, repoRef, pathInRepo);
+        try {
+            jobs.enqueue(List.of(stored), effectiveModule, fileVersion, repoCloneUrl, repoRef, pathInRepo)
+                    .forEach(job -> progress.stored(job, original, storeMillis));
+        } catch (RuntimeException e) {
+            deleteQuietly(stored);
+            throw e;
+        }
         accepted.add(original);
         log.info("event=file_accepted requestId={} fileName={}", requestId, original);
     }
 
-    private void handleZip(MultipartFile file, String original,
+    private void handleZip(Source source, String original,
                            String module, String fileVersion,
                            String repoCloneUrl, String repoRef, String pathInRepo,
-                           List<String> accepted, List<String> rejected,
+                           String zipProfile,
+                           List<String> rejected, List<String> pending,
                            String requestId) throws IOException {
 
-        Path zipPath = storage.save(file);
-        log.debug("event=zip_saved requestId={} path={}", requestId, zipPath);
+        String profileName = StringUtils.hasText(zipProfile) ? zipProfile : zipProps.getDefaultProfile();
+        if (!zipProps.getProfiles().containsKey(profileName)) {
+            rejected.add(original + " (unknown zipProfile " + profileName + ")");
+            return;
+        }
+
+        long started = System.nanoTime();
+        Path zipPath = storeNonEmpty(source, original, rejected);
+        if (zipPath == null) return;
+        long storeMillis = millisSince(started);
+        log.debug("event=zip_saved requestId={} path={} profile={}", requestId, zipPath, profileName);
 
-        Path extractDir = null;
         try {
-            String derivedModule  = resolveZipModule(module, zipPath);
-            String derivedVersion = resolveZipVersion(fileVersion, zipPath);
-            log.debug("event=zip_metadata requestId={} derivedModule={} derivedVersion={}",
-                    requestId, derivedModule, derivedVersion);
-
-            if (!StringUtils.hasText(derivedVersion)) {
-                rejected.add(original + " (missing version in package and request)");
-                return;
-            }
+            IngestionJob archive = jobs.enqueueArchive(
+                    zipPath, original, module, fileVersion, repoCloneUrl, repoRef, pathInRepo, profileName);
+            progress.stored(archive, original, storeMillis);
+        } catch (RuntimeException e) {
+            deleteQuietly(zipPath);
+            throw e;
+        }
+        pending.add(original);
+        log.info("event=zip_file_queued requestId={} fileName={}", requestId, original);
+    }
 
-            Path baseDir = Optional.ofNullable(zipPath.getParent()).orElse(Path.of("."));
-            extractDir   = Files.createTempDirectory(baseDir, "unzipped-");
+    /* a streamed file is only known to be empty once it has been read */
+    private Path storeNonEmpty(Source source, String original, List<String> rejected) throws IOException {
+        FileStorageService.StoredFile stored = source.store();
 
-            ZipUtil.unzip(zipPath, extractDir).stream()
-                    .filter(Files::isRegularFile)
-                    .filter(p -> FileTypeResolver.resolve(p.getFileName().toString()) != FileType.UNKNOWN)
-                    .forEach(p -> processor.processAsync(p, derivedModule, derivedVersion,
-                            repoCloneUrl, repoRef, pathInRepo));
+        if (stored.size() == 0) {
+            deleteQuietly(stored.path());
+            rejected.add(original + " (empty)");
+            return null;
+        }
+        return stored.path();
+    }
 
-            accepted.add(original);
-            log.info("event=zip_file_accepted requestId={} fileName={}", requestId, original);
-        } finally {
-            deleteQuietly(zipPath);
-            deleteDirQuietly(extractDir);
+    private String readField(FileItemInput field) throws IOException {
+        try (InputStream in = field.getInputStream()) {
+            byte[] value = in.readNBytes(MAX_FIELD_BYTES + 1);
+            if (value.length > MAX_FIELD_BYTES) {
+                throw new MaxUploadSizeExceededException(MAX_FIELD_BYTES);
+            }
+            return new String(value, StandardCharsets.UTF_8);
         }
     }
 
     // ---------- validation ----------
 
-    private String validate(MultipartFile file, String originalName, String requestedVersion) {
+    private String validate(String originalName, boolean empty, String requestedVersion) {
         if (!StringUtils.hasText(originalName)) return "Unnamed file";
-        if (file.isEmpty())                     return originalName + " (empty)";
+        if (empty)                              return originalName + " (empty)";
 
         boolean isZip = isZip(originalName);
         if (!isZip && !StringUtils.hasText(requestedVersion)) {
@@ -211,44 +616,8 @@ public class FileUploadController {
         return name != null && name.toLowerCase(Locale.ROOT).endsWith(ZIP_SUFFIX);
     }
 
-    // ---------- zip metadata resolution ----------
-
-    private String resolveZipModule(String requestedModule, Path zipPath) {
-        boolean fromPackage = FROM_PACKAGE.equalsIgnoreCase(requestedModule);
-        if (StringUtils.hasText(requestedModule) && !fromPackage) {
-            return requestedModule;
-        }
-
-        String fromPom = readFromZip(zipPath, ZipPomUtil::extractArtifactId);
-        if (StringUtils.hasText(fromPom)) return fromPom;
-
-        String fromGradle = readFromZip(zipPath, ZipGradleUtil::extractRootProjectName);
-        return StringUtils.hasText(fromGradle) ? fromGradle : DEFAULT_MODULE;
-    }
-
-    private String resolveZipVersion(String requestedVersion, Path zipPath) {
-        String fromPom = readFromZip(zipPath, ZipPomUtil::extractVersion);
-        if (StringUtils.hasText(fromPom)) return fromPom;
-
-        String fromGradle = readFromZip(zipPath, ZipGradleUtil::extractVersion);
-        if (StringUtils.hasText(fromGradle)) return fromGradle;
-
-        return StringUtils.hasText(requestedVersion) ? requestedVersion : null;
-    }
-
-    @FunctionalInterface
-    private interface ZipReader {
-        String read(InputStream in) throws IOException;
-    }
-
-    private String readFromZip(Path zipPath, ZipReader reader) {
-        try (InputStream in = Files.newInputStream(zipPath)) {
-            return reader.read(in);
-        } catch (IOException e) {
-            log.warn("event=zip_inspect_failed requestId={} zip={} msg={}",
-                    MDC.get(MDC_REQUEST_ID), zipPath.getFileName(), e.getMessage());
-            return null;
-        }
+    private static long millisSince(long startedNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedNanos);
     }
 
     // ---------- cleanup ----------
@@ -265,15 +634,15 @@ public class FileUploadController {
         }
     }
 
-    private void deleteDirQuietly(Path dir) {
-        if (dir == null) return;
-        try {
-            FileSystemUtils.deleteRecursively(dir);
-        } catch (IOException ex) {
-            log.warn("event=temp_dir_delete_failed requestId={} path={} msg={}",
-                    MDC.get(MDC_REQUEST_ID), dir, ex.getMessage());
-        }
-    }
-
-    public record UploadResponse(List<String> accepted, List<String> rejected) { }
+    /**
+     * @param uploadId  id to poll {@code GET /api/files/uploads/{uploadId}} and
+     *                  {@code GET /api/jobs/{uploadId}} with
+     * @param warnings  accepted archives that were cut short by their zipProfile
+     * @param pending   archives whose extraction stage has not finished yet
+     */
+    public record UploadResponse(String uploadId,
+                                 List<String> accepted,
+                                 List<String> rejected,
+                                 List<String> warnings,
+                                 List<String> pending) { }
 }
\ No newline at end of file
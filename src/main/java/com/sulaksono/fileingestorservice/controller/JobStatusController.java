@@ -0,0 +1,38 @@
+package com.sulaksono.fileingestorservice.controller;
+
+import com.sulaksono.fileingestorservice.service.IngestionJobService;
+import com.sulaksono.fileingestorservice.service.IngestionProgressStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Progress of an upload, polled with the {@code uploadId} returned by
+ * {@code POST /api/files/upload}.
+ *
+ * Reports the state of every file (archive entries included), chunk and token
+ * counts, cache hits and time spent per stage. Served from
+ * {@link IngestionProgressStore}, so frequent polling stays off the database.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+public class JobStatusController {
+
+    private final IngestionJobService jobs;
+
+    @Operation(summary = "Per-file and per-stage progress of an upload")
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @SecurityRequirement(name = "keycloak")
+    @PreAuthorize("hasAnyRole('embedding-user','embedding-admin','assistant-admin')")
+    public ResponseEntity<IngestionProgressStore.Snapshot> status(@PathVariable String id) {
+        return ResponseEntity.of(jobs.progressOf(id));
+    }
+}
@@ -0,0 +1,54 @@
+package com.sulaksono.fileingestorservice.controller;
+
+import com.sulaksono.fileingestorservice.service.UploadAdmissionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Applies {@link UploadAdmissionService} to upload requests. Runs before the
+ * handler's arguments are resolved, i.e. before a multipart body is parsed
+ * ({@code resolve-lazily}), so a turned-away upload costs no transfer.
+ */
+public class UploadAdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED_BYTES = UploadAdmissionInterceptor.class.getName() + ".bytes";
+    private static final String RESUMABLE_CREATE = "/api/files/resumable";
+
+    private final UploadAdmissionService admission;
+    private final MultipartProperties multipart;
+
+    public UploadAdmissionInterceptor(UploadAdmissionService admission, MultipartProperties multipart) {
+        this.admission = admission;
+        this.multipart = multipart;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        boolean patch = HttpMethod.PATCH.matches(method);
+        if (!patch && !HttpMethod.POST.matches(method)) {
+            return true;   // status reads and cancels are never throttled
+        }
+
+        long length = request.getContentLengthLong();
+        long bytes = length >= 0 ? length : multipart.getMaxRequestSize().toBytes();
+
+        // resumable ranges and session creation add no jobs yet; finishing does
+        boolean enqueues = !patch && !RESUMABLE_CREATE.equals(request.getRequestURI());
+
+        admission.admit(bytes, enqueues);
+        request.setAttribute(ADMITTED_BYTES, bytes);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_BYTES) instanceof Long bytes) {
+            admission.release(bytes);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.sulaksono.fileingestorservice.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -46,7 +47,17 @@ public class GlobalExceptionHandler {
     }
 
     /* ---------------------------------------------------------------
-       4. Fallback – unexpected controller exceptions
+       4. Pipeline saturated → 429, client retries later
+       ------------------------------------------------------------- */
+    @ExceptionHandler(UploadSaturatedException.class)
+    public ResponseEntity<ErrorBody> handleSaturated(UploadSaturatedException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(ex.getRetryAfter().toSeconds()))
+                .body(new ErrorBody(ex.getMessage()));
+    }
+
+    /* ---------------------------------------------------------------
+       5. Fallback – unexpected controller exceptions
        ------------------------------------------------------------- */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorBody> handleGeneric(Exception ex) {
@@ -0,0 +1,20 @@
+package com.sulaksono.fileingestorservice.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * An upload turned away because the ingestion pipeline is saturated; answered
+ * with {@code 429 Too Many Requests} and {@code Retry-After}.
+ */
+@Getter
+public class UploadSaturatedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public UploadSaturatedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -57,6 +57,9 @@ public class CanonicalFile {
     @Column(columnDefinition = "text")
     private String content; // nullable cache
 
+    @Column(length = 64)
+    private String contentHash; // sha256 of normalized content, see ContentHashUtil
+
     @Column(nullable = false)
     private boolean deprecated = false;
 
@@ -1,10 +1,11 @@
 package com.sulaksono.fileingestorservice.model;
 
-import com.sulaksono.fileingestorservice.model.converter.FloatArrayVectorConverter;
+import com.sulaksono.fileingestorservice.model.converter.PgVectorType;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Type;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -28,7 +29,7 @@ public class FileEmbedding {
 
     @Setter
     @Column(columnDefinition = "vector")
-    @Convert(converter = FloatArrayVectorConverter.class)
+    @Type(PgVectorType.class)
     private float[] embedding;
 
     @CreationTimestamp
@@ -37,11 +38,19 @@ public class FileEmbedding {
     @Column(columnDefinition = "text")
     private String content;
 
+    @Setter
     private boolean deprecated = false;
 
+    @Setter
     private int chunkIdx;
+
+    @Setter
     private int chunkOf;
 
+    @Setter
+    @Column(length = 64)
+    private String chunkHash; // sha256 of the chunk text, used to reuse vectors on re-ingest
+
     private String moduleVersion;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -0,0 +1,151 @@
+package com.sulaksono.fileingestorservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One file waiting for (or going through) the ingestion pipeline.
+ *
+ * Rows are claimed by workers with {@code FOR UPDATE SKIP LOCKED}; a claim is
+ * only valid until {@code lockedUntil}, after which any worker may take the job over.
+ *
+ * The payload is either a stored file ({@code filePath}) or, for archive entries
+ * decoded at upload time, the text itself ({@code content}). An ARCHIVE job holds
+ * an uploaded ZIP whose extraction stage has not run yet; module and version are
+ * then the requested ones, and the stage enqueues one FILE job per entry.
+ * A REEMBED job re-embeds the stored rows of its module.
+ *
+ * Every job belongs to a {@link Lane}; workers share their claims between the
+ * lanes by weight and, within a lane, take turns between modules.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "ingestion_jobs", schema = "engineering_reference")
+public class IngestionJob {
+
+    @Id
+    @GeneratedValue
+    private UUID id;
+
+    @Column(length = 64)
+    private String requestId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status = Status.PENDING;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Kind kind = Kind.FILE;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Lane lane = Lane.BULK;
+
+    @Column(length = 2048)
+    private String filePath; // stored upload, below storage.location; null for inline jobs
+
+    @Column(length = 2048)
+    private String entryPath; // archive entry name, used as the logical path when set
+
+    @Column(columnDefinition = "text")
+    private String content; // decoded archive entry, cleared once the job is finished
+
+    private Long entryCrc; // central directory CRC-32 of the archive entry, recorded once the job is done
+
+    private Long entrySize;
+
+    @Column(length = 1024)
+    private String originalName; // uploaded file name of an ARCHIVE job
+
+    @Column(length = 255)
+    private String zipProfile;
+
+    @Column(columnDefinition = "text")
+    private String note; // ARCHIVE job outcome for the upload status: rejection reason or warning
+
+    @Column(length = 255)
+    private String module;
+
+    @Column(length = 255)
+    private String moduleVersion;
+
+    @Column(length = 1024)
+    private String repoCloneUrl;
+
+    @Column(length = 255)
+    private String repoRef;
+
+    @Column(length = 1024)
+    private String pathInRepo;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private int maxAttempts;
+
+    @Column(nullable = false)
+    private Instant availableAt;
+
+    @Column(length = 255)
+    private String lockedBy;
+
+    private Instant lockedUntil;
+
+    @Column(columnDefinition = "text")
+    private String lastError;
+
+    @CreationTimestamp
+    private Instant createdAt;
+
+    private Instant updatedAt;
+
+    public IngestionJob(String requestId,
+                        String filePath,
+                        String module,
+                        String moduleVersion,
+                        String repoCloneUrl,
+                        String repoRef,
+                        String pathInRepo,
+                        int maxAttempts,
+                        Instant availableAt) {
+        this.requestId = requestId;
+        this.filePath = filePath;
+        this.module = module;
+        this.moduleVersion = moduleVersion;
+        this.repoCloneUrl = repoCloneUrl;
+        this.repoRef = repoRef;
+        this.pathInRepo = pathInRepo;
+        this.maxAttempts = maxAttempts;
+        this.availableAt = availableAt;
+        this.updatedAt = availableAt;
+    }
+
+    public enum Kind {
+        FILE,
+        ARCHIVE,
+        REEMBED
+    }
+
+    public enum Lane {
+        INTERACTIVE, // files uploaded one by one
+        BULK,        // archives and their entries
+        REEMBED      // admin re-embedding of a module
+    }
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        DONE,
+        FAILED
+    }
+}
@@ -5,8 +5,11 @@ import jakarta.persistence.Converter;
 
 /**
  * Converts float[] <-> pgvector textual representation.
+ *
+ * Entities use {@link PgVectorType}; this text form is kept for
+ * {@code COPY ... (FORMAT csv)} in the bulk writer.
  */
-@Converter(autoApply = true)
+@Converter
 public class FloatArrayVectorConverter implements AttributeConverter<float[], String> {
 
     /* ---------- WRITE ---------- */
@@ -0,0 +1,105 @@
+package com.sulaksono.fileingestorservice.model.converter;
+
+import com.pgvector.PGvector;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.usertype.UserType;
+import org.postgresql.util.PGobject;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+/**
+ * Maps float[] <-> pgvector through {@link PGvector}.
+ *
+ * Values are bound as {@link PGvector} rather than as a string with a cast.
+ * When the connection has the vector type registered (see
+ * {@code PgVectorDataSourceConfig}) results come back as {@link PGvector} too;
+ * {@code PGobject} and string values are accepted for connections without it.
+ */
+public class PgVectorType implements UserType<float[]> {
+
+    @Override
+    public int getSqlType() {
+        return Types.OTHER;
+    }
+
+    @Override
+    public Class<float[]> returnedClass() {
+        return float[].class;
+    }
+
+    @Override
+    public boolean equals(float[] x, float[] y) {
+        return Arrays.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(float[] x) {
+        return Arrays.hashCode(x);
+    }
+
+    @Override
+    public float[] nullSafeGet(ResultSet rs,
+                               int position,
+                               SharedSessionContractImplementor session,
+                               Object owner) throws SQLException {
+        return toArray(rs.getObject(position));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st,
+                            float[] value,
+                            int index,
+                            SharedSessionContractImplementor session) throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+        } else {
+            st.setObject(index, new PGvector(value));
+        }
+    }
+
+    @Override
+    public float[] deepCopy(float[] value) {
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(float[] value) {
+        return deepCopy(value);
+    }
+
+    @Override
+    public float[] assemble(Serializable cached, Object owner) {
+        return deepCopy((float[]) cached);
+    }
+
+    @Override
+    public float[] replace(float[] detached, float[] managed, Object owner) {
+        return deepCopy(detached);
+    }
+
+    public static float[] toArray(Object dbValue) throws SQLException {
+        if (dbValue == null) {
+            return null;
+        }
+        if (dbValue instanceof PGvector vector) {
+            return vector.toArray();
+        }
+        if (dbValue instanceof PGobject object) {
+            return new PGvector(object.getValue()).toArray();
+        }
+        if (dbValue instanceof String text) {
+            return new PGvector(text).toArray();
+        }
+        throw new SQLException("Unsupported vector value type: " + dbValue.getClass().getName());
+    }
+}
@@ -33,6 +33,26 @@ public interface CanonicalFileRepository extends JpaRepository<CanonicalFile, UU
             @Param("path") String path
     );
 
+    /**
+     * True when an active canonical file with the same coordinates and content hash exists,
+     * i.e. a re-upload can skip chunking, embedding and persistence.
+     */
+    @Query("""
+           select case when count(c) > 0 then true else false end
+           from CanonicalFile c
+           where c.module = :module
+             and coalesce(c.moduleVersion, '') = coalesce(:moduleVersion, '')
+             and c.path = :path
+             and c.contentHash = :contentHash
+             and c.deprecated = false
+           """)
+    boolean existsUnchanged(
+            @Param("module") String module,
+            @Param("moduleVersion") String moduleVersion,
+            @Param("path") String path,
+            @Param("contentHash") String contentHash
+    );
+
     boolean existsByModuleAndModuleVersionAndPath(String module, String moduleVersion, String path);
 
     void deleteByModuleAndModuleVersionAndPath(String module, String moduleVersion, String path);
@@ -54,6 +74,15 @@ public interface CanonicalFileRepository extends JpaRepository<CanonicalFile, UU
             @Param("path") String path
     );
 
+    /**
+     * Soft delete or restore every canonical file of a module, together with its
+     * embeddings, so {@link #existsUnchanged} lets a re-upload of a deprecated file through.
+     */
+    @Modifying
+    @org.springframework.transaction.annotation.Transactional
+    @Query("update CanonicalFile c set c.deprecated = :flag where c.module = :module")
+    int markDeprecatedByModule(@Param("module") String module, @Param("flag") boolean flag);
+
     @Modifying
     @org.springframework.transaction.annotation.Transactional
     void deleteByModule(String module);
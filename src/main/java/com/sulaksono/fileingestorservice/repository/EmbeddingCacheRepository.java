@@ -0,0 +1,82 @@
+package com.sulaksono.fileingestorservice.repository;
+
+import com.pgvector.PGvector;
+import com.sulaksono.fileingestorservice.model.converter.PgVectorType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent tier of the embedding cache: one row per
+ * (embedding deployment, sha256 of the exact input text).
+ *
+ * Plain JDBC with autocommit; the cache is consulted from the embed phase,
+ * which runs outside any transaction.
+ */
+@Repository
+public class EmbeddingCacheRepository {
+
+    static final String TABLE = "engineering_reference.embedding_cache";
+
+    private static final String SELECT_SQL =
+            "select input_hash, embedding from " + TABLE + " where deployment = ? and input_hash = any (?)";
+
+    private static final String INSERT_SQL =
+            "insert into " + TABLE + " (deployment, input_hash, embedding) values (?, ?, ?) "
+                    + "on conflict (deployment, input_hash) do nothing";
+
+    private final JdbcTemplate jdbc;
+
+    public EmbeddingCacheRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @return stored vectors keyed by input hash; hashes without a row are absent
+     */
+    public Map<String, float[]> findByHashes(String deployment, Collection<String> inputHashes) {
+        Map<String, float[]> found = new HashMap<>();
+
+        if (inputHashes.isEmpty()) {
+            return found;
+        }
+
+        jdbc.query(
+                con -> {
+                    PreparedStatement ps = con.prepareStatement(SELECT_SQL);
+                    ps.setString(1, deployment);
+                    ps.setArray(2, con.createArrayOf("varchar", inputHashes.toArray()));
+                    return ps;
+                },
+                rs -> {
+                    found.put(rs.getString(1), PgVectorType.toArray(rs.getObject(2)));
+                }
+        );
+
+        return found;
+    }
+
+    /**
+     * Inserts the given vectors; rows that already exist are left as they are.
+     */
+    public void saveAll(String deployment, Map<String, float[]> vectorsByHash) {
+        if (vectorsByHash.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<String, float[]>> rows = new ArrayList<>(vectorsByHash.entrySet());
+
+        jdbc.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, deployment);
+            ps.setString(2, row.getKey());
+            ps.setObject(3, new PGvector(row.getValue()), Types.OTHER);
+        });
+    }
+}
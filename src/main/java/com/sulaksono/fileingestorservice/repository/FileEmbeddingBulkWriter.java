@@ -0,0 +1,178 @@
+package com.sulaksono.fileingestorservice.repository;
+
+import com.pgvector.PGvector;
+import com.sulaksono.fileingestorservice.model.FileEmbedding;
+import com.sulaksono.fileingestorservice.model.converter.FloatArrayVectorConverter;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk insert path for {@code file_embeddings} that bypasses the JPA persistence context.
+ *
+ * Ids are generated on the client, so rows can be sent in JDBC batches or streamed
+ * through PostgreSQL {@code COPY}. Both variants run on the connection bound to the
+ * surrounding Spring transaction; the referenced {@code canonical_files} row must
+ * already be flushed.
+ */
+@Repository
+public class FileEmbeddingBulkWriter {
+
+    static final String TABLE = "engineering_reference.file_embeddings";
+
+    private static final String COLUMNS =
+            "id, file_name, path, module, file_type, embedding, content, deprecated, "
+                    + "created_at, chunk_idx, chunk_of, chunk_hash, module_version, canonical_file_id";
+
+    private static final String INSERT_SQL =
+            "insert into " + TABLE + " (" + COLUMNS + ") "
+                    + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String COPY_SQL =
+            "copy " + TABLE + " (" + COLUMNS + ") from stdin with (format csv)";
+
+    private final JdbcTemplate jdbc;
+    private final FloatArrayVectorConverter vectorConverter = new FloatArrayVectorConverter();
+
+    public FileEmbeddingBulkWriter(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * Inserts rows with JDBC batching, {@code batchSize} rows per round trip.
+     *
+     * @return number of inserted rows
+     */
+    public int batchInsert(List<FileEmbedding> rows, int batchSize) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+
+        jdbc.batchUpdate(INSERT_SQL, rows, Math.max(1, batchSize), (ps, row) -> {
+            ps.setObject(1, UUID.randomUUID());
+            ps.setString(2, row.getFileName());
+            ps.setString(3, row.getPath());
+            ps.setString(4, row.getModule());
+            ps.setString(5, row.getFileType() == null ? null : row.getFileType().name());
+            ps.setObject(6, row.getEmbedding() == null ? null : new PGvector(row.getEmbedding()), Types.OTHER);
+            ps.setString(7, row.getContent());
+            ps.setBoolean(8, row.isDeprecated());
+            ps.setTimestamp(9, now);
+            ps.setInt(10, row.getChunkIdx());
+            ps.setInt(11, row.getChunkOf());
+            ps.setString(12, row.getChunkHash());
+            ps.setString(13, row.getModuleVersion());
+            ps.setObject(14, canonicalId(row), Types.OTHER);
+        });
+
+        return rows.size();
+    }
+
+    /**
+     * Streams rows through {@code COPY ... FROM STDIN (FORMAT csv)}, flushing every
+     * {@code flushRows} rows so the client buffer stays small.
+     *
+     * @return number of rows reported by the server
+     */
+    public long copy(List<FileEmbedding> rows, int flushRows) {
+        if (rows.isEmpty()) {
+            return 0L;
+        }
+
+        String now = OffsetDateTime.now(ZoneOffset.UTC).toString();
+        int flushEvery = Math.max(1, flushRows);
+
+        Long copied = jdbc.execute((ConnectionCallback<Long>) con -> {
+            CopyIn copyIn = con.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+
+            try {
+                StringBuilder buf = new StringBuilder();
+                int pending = 0;
+
+                for (FileEmbedding row : rows) {
+                    appendCsvRow(buf, row, now);
+
+                    if (++pending >= flushEvery) {
+                        write(copyIn, buf);
+                        pending = 0;
+                    }
+                }
+
+                write(copyIn, buf);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+
+        return copied == null ? 0L : copied;
+    }
+
+    private void appendCsvRow(StringBuilder buf, FileEmbedding row, String now) {
+        appendCsv(buf, UUID.randomUUID().toString()).append(',');
+        appendCsv(buf, row.getFileName()).append(',');
+        appendCsv(buf, row.getPath()).append(',');
+        appendCsv(buf, row.getModule()).append(',');
+        appendCsv(buf, row.getFileType() == null ? null : row.getFileType().name()).append(',');
+        appendCsv(buf, vectorConverter.convertToDatabaseColumn(row.getEmbedding())).append(',');
+        appendCsv(buf, row.getContent()).append(',');
+        buf.append(row.isDeprecated()).append(',');
+        appendCsv(buf, now).append(',');
+        buf.append(row.getChunkIdx()).append(',');
+        buf.append(row.getChunkOf()).append(',');
+        appendCsv(buf, row.getChunkHash()).append(',');
+        appendCsv(buf, row.getModuleVersion()).append(',');
+        UUID canonicalId = canonicalId(row);
+        appendCsv(buf, canonicalId == null ? null : canonicalId.toString()).append('\n');
+    }
+
+    /**
+     * CSV field: NULL is an unquoted empty field, everything else is quoted with
+     * embedded quotes doubled.
+     */
+    static StringBuilder appendCsv(StringBuilder buf, String value) {
+        if (value == null) {
+            return buf;
+        }
+
+        buf.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buf.append('"');
+            }
+            buf.append(c);
+        }
+        return buf.append('"');
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder buf) throws SQLException {
+        if (buf.isEmpty()) {
+            return;
+        }
+
+        byte[] bytes = buf.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buf.setLength(0);
+    }
+
+    private static UUID canonicalId(FileEmbedding row) {
+        return row.getCanonicalFile() == null ? null : row.getCanonicalFile().getId();
+    }
+}
@@ -5,7 +5,9 @@ import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,4 +26,11 @@ public interface FileEmbeddingRepository extends CrudRepository<FileEmbedding, U
 
     /* fetch rows for re-embedding */
     List<FileEmbedding> findByModule(String module);
+
+    /* current chunk rows of one canonical file (incremental re-ingest) */
+    List<FileEmbedding> findByCanonicalFile_Id(UUID canonicalFileId);
+
+    @Modifying @Transactional
+    @Query("delete from FileEmbedding f where f.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -0,0 +1,98 @@
+package com.sulaksono.fileingestorservice.repository;
+
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface IngestionJobRepository extends CrudRepository<IngestionJob, UUID> {
+
+    /*
+     * pending jobs of one lane that are due, plus running ones whose claim expired;
+     * modules take turns (each module's oldest job, then each module's second, ...).
+     * Caller must hold a transaction.
+     */
+    @Query(nativeQuery = true, value = """
+            select j.* from engineering_reference.ingestion_jobs j
+            join (
+                select id,
+                       row_number() over (partition by module order by available_at) as turn
+                from engineering_reference.ingestion_jobs
+                where lane = :lane
+                  and ((status = 'PENDING' and available_at <= :now)
+                    or (status = 'RUNNING' and locked_until < :now))
+            ) due on due.id = j.id
+            order by due.turn, j.available_at
+            limit :limit
+            for update of j skip locked
+            """)
+    List<IngestionJob> lockClaimable(String lane, Instant now, int limit);
+
+    @Modifying @Transactional
+    @Query("""
+            update IngestionJob j
+               set j.lockedUntil = :lockedUntil, j.updatedAt = :now
+             where j.id in :ids and j.lockedBy = :owner and j.status = :status
+            """)
+    int extendLocks(Collection<UUID> ids, String owner, IngestionJob.Status status, Instant lockedUntil, Instant now);
+
+    /* terminal or retry transition; only applies while the caller still owns the claim */
+    @Modifying @Transactional
+    @Query("""
+            update IngestionJob j
+               set j.status = :status, j.availableAt = :availableAt, j.lastError = :lastError,
+                   j.lockedBy = null, j.lockedUntil = null, j.updatedAt = :now
+             where j.id = :id and j.lockedBy = :owner
+            """)
+    int transition(UUID id, String owner, IngestionJob.Status status, Instant availableAt, String lastError, Instant now);
+
+    /* like transition(DONE | FAILED), recording the outcome of an ARCHIVE job */
+    @Modifying @Transactional
+    @Query("""
+            update IngestionJob j
+               set j.status = :status, j.note = :note,
+                   j.lockedBy = null, j.lockedUntil = null, j.updatedAt = :now
+             where j.id = :id and j.lockedBy = :owner
+            """)
+    int finish(UUID id, String owner, IngestionJob.Status status, String note, Instant now);
+
+    List<IngestionJob> findByRequestIdAndKindOrderByCreatedAt(String requestId, IngestionJob.Kind kind);
+
+    interface StatusCount {
+        IngestionJob.Status getStatus();
+        long getCount();
+    }
+
+    /* jobs of one upload per status, for the job status API when its in-memory view is stale */
+    @Query("""
+            select j.status as status, count(j) as count
+              from IngestionJob j
+             where j.requestId = :requestId
+             group by j.status
+            """)
+    List<StatusCount> countByStatus(String requestId);
+
+    /* queue depth for upload admission control */
+    long countByStatusIn(Collection<IngestionJob.Status> statuses);
+
+    /* inline payloads are only needed until the job is finished */
+    @Modifying @Transactional
+    @Query("update IngestionJob j set j.content = null where j.id = :id")
+    int clearContent(UUID id);
+
+    /* hands a claimed job back without counting the attempt */
+    @Modifying @Transactional
+    @Query("""
+            update IngestionJob j
+               set j.status = :status, j.attempts = j.attempts - 1,
+                   j.lockedBy = null, j.lockedUntil = null, j.updatedAt = :now
+             where j.id = :id and j.lockedBy = :owner
+            """)
+    int release(UUID id, String owner, IngestionJob.Status status, Instant now);
+}
@@ -0,0 +1,65 @@
+package com.sulaksono.fileingestorservice.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * CRC-32 and uncompressed size of every archive entry ingested per
+ * (module, version, entry path), as read from the ZIP central directory.
+ *
+ * Plain JDBC with autocommit, like the embedding cache. A missing module
+ * version is stored as ''.
+ */
+@Repository
+public class ZipEntryFingerprintRepository {
+
+    static final String TABLE = "engineering_reference.zip_entry_fingerprints";
+
+    private static final String SELECT_SQL =
+            "select entry_path, crc, size from " + TABLE + " where module = ? and module_version = coalesce(?, '')";
+
+    private static final String UPSERT_SQL =
+            "insert into " + TABLE + " (module, module_version, entry_path, crc, size) values (?, coalesce(?, ''), ?, ?, ?) "
+                    + "on conflict (module, module_version, entry_path) "
+                    + "do update set crc = excluded.crc, size = excluded.size, updated_at = current_timestamp";
+
+    private static final String DELETE_MODULE_SQL = "delete from " + TABLE + " where module = ?";
+
+    private final JdbcTemplate jdbc;
+
+    public ZipEntryFingerprintRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    public record Fingerprint(long crc, long size) { }
+
+    /**
+     * @return fingerprints of all entries recorded for the module version, keyed by entry path
+     */
+    public Map<String, Fingerprint> findByModule(String module, String moduleVersion) {
+        Map<String, Fingerprint> found = new HashMap<>();
+
+        jdbc.query(SELECT_SQL,
+                rs -> {
+                    found.put(rs.getString(1), new Fingerprint(rs.getLong(2), rs.getLong(3)));
+                },
+                module, moduleVersion);
+
+        return found;
+    }
+
+    public void save(String module, String moduleVersion, String entryPath, long crc, long size) {
+        jdbc.update(UPSERT_SQL, module, moduleVersion, entryPath, crc, size);
+    }
+
+    /**
+     * Forgets every version of the module, so its entries are ingested again
+     * on the next upload. Joins the caller's transaction when there is one.
+     */
+    public int deleteByModule(String module) {
+        return jdbc.update(DELETE_MODULE_SQL, module);
+    }
+}
@@ -0,0 +1,233 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.ZipIngestionProperties;
+import com.sulaksono.fileingestorservice.model.FileType;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import com.sulaksono.fileingestorservice.util.FileTypeResolver;
+import com.sulaksono.fileingestorservice.util.ZipEntryFilter;
+import com.sulaksono.fileingestorservice.util.ZipManifestScanner;
+import com.sulaksono.fileingestorservice.util.ZipUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipFile;
+
+/**
+ * Extraction stage of a ZIP upload, run by the worker for ARCHIVE jobs.
+ *
+ * Resolves module and version from the archive manifests, then enqueues its
+ * supported entries as ingestion jobs, batch by batch while the archive is read
+ * (see {@link ZipIngestionProperties}). Entries excluded by the configured globs
+ * or a .gitignore of the archive are dropped before they are inflated. The
+ * stored archive itself is deleted by the worker once the job is finished.
+ *
+ * Nested archives (inner ZIPs, source jars) are handled like the outer one: their
+ * own manifests decide module and version, falling back to those of the enclosing
+ * archive, and their own .gitignore files apply to their entries.
+ */
+@Service
+public class ArchiveIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchiveIngestionService.class);
+
+    private static final String MDC_REQUEST_ID = "requestId";
+    private static final String FROM_PACKAGE   = "from-package";
+    private static final String DEFAULT_MODULE = "undefined";
+
+    private final IngestionJobService jobs;
+    private final ZipIngestionProperties zipProps;
+
+    public ArchiveIngestionService(IngestionJobService jobs, ZipIngestionProperties zipProps) {
+        this.jobs     = jobs;
+        this.zipProps = zipProps;
+    }
+
+    /**
+     * What the upload response reports for the archive.
+     *
+     * @param note rejection reason, or a warning for an accepted archive; may be {@code null}
+     */
+    public record Result(boolean accepted, String note, int jobCount) {
+
+        static Result rejected(String reason) {
+            return new Result(false, reason, 0);
+        }
+    }
+
+    public Result ingest(IngestionJob archive, Path zipPath) throws IOException {
+        final String requestId = archive.getRequestId();
+        final String original  = archive.getOriginalName();
+
+        String profileName = StringUtils.hasText(archive.getZipProfile())
+                ? archive.getZipProfile()
+                : zipProps.getDefaultProfile();
+        ZipIngestionProperties.LimitProfile profile = zipProps.getProfiles().get(profileName);
+        if (profile == null) {
+            return Result.rejected("unknown zipProfile " + profileName);
+        }
+        ZipUtil.Limits limits = profile.toLimits();
+
+        Path extractDir = null;
+        AtomicInteger enqueuedJobs = new AtomicInteger();
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            ZipManifestScanner.Manifest manifest = ZipManifestScanner.scan(zip);
+
+            String derivedModule  = resolveZipModule(archive.getModule(), manifest);
+            String derivedVersion = resolveZipVersion(archive.getModuleVersion(), manifest);
+            log.debug("event=zip_metadata requestId={} derivedModule={} derivedVersion={}",
+                    requestId, derivedModule, derivedVersion);
+
+            if (!StringUtils.hasText(derivedVersion)) {
+                return Result.rejected("missing version in package and request");
+            }
+
+            String repoCloneUrl = archive.getRepoCloneUrl();
+            String repoRef      = archive.getRepoRef();
+            String pathInRepo   = archive.getPathInRepo();
+
+            Path baseDir = Optional.ofNullable(zipPath.getParent()).orElse(Path.of("."));
+            String warning = null;
+
+            ZipEntryFilter filter = filter(zip);
+
+            if (zipProps.isStreamEntries()) {
+                // entries go to the queue as text; the directory only holds scratch copies of nested archives
+                extractDir = baseDir.resolve("unzipped-" + UUID.randomUUID());
+
+                // module and version per archive level, keyed by entry name ("" = outer archive)
+                Map<String, Coordinates> coordinates = new HashMap<>();
+                coordinates.put("", new Coordinates(derivedModule, derivedVersion));
+
+                ZipUtil.NestedArchives nested = (name, inner) -> {
+                    Coordinates enclosing = coordinates.get(enclosingArchive(name));
+                    ZipManifestScanner.Manifest innerManifest = ZipManifestScanner.scan(inner);
+
+                    Coordinates own = new Coordinates(
+                            firstNonBlank(innerManifest.artifactId(), innerManifest.rootProjectName(), enclosing.module()),
+                            firstNonBlank(innerManifest.pomVersion(), innerManifest.gradleVersion(), enclosing.version()));
+                    coordinates.put(name, own);
+
+                    log.debug("event=zip_nested_metadata requestId={} entry={} module={} version={}",
+                            requestId, name, own.module(), own.version());
+                    return level(archive, own, filter(inner), enqueuedJobs);
+                };
+
+                ZipUtil.Summary summary = ZipUtil.read(
+                        zip, extractDir, limits, zipProps.getInlineMaxBytes().toBytes(), zipProps.getExtractParallelism(),
+                        level(archive, coordinates.get(""), filter, enqueuedJobs),
+                        nested);
+
+                if (summary.stoppedByLimit()) {
+                    log.warn("event=zip_truncated requestId={} fileName={} profile={} reason={} extractedCount={} extractedBytes={}",
+                            requestId, original, profileName, summary.stopReason(),
+                            summary.extractedCount(), summary.totalExtractedBytes());
+                    warning = "truncated at " + summary.stopReason() + " of zipProfile " + profileName;
+                }
+            } else {
+                extractDir = Files.createTempDirectory(baseDir, "unzipped-");
+
+                List<Path> supported = ZipUtil.unzip(zip, extractDir, limits, filter, zipProps.getExtractParallelism()).stream()
+                        .filter(Files::isRegularFile)
+                        .filter(p -> FileTypeResolver.resolve(p.getFileName().toString()) != FileType.UNKNOWN)
+                        .toList();
+
+                if (!supported.isEmpty()) {
+                    jobs.enqueue(supported, derivedModule, derivedVersion, repoCloneUrl, repoRef, pathInRepo);
+                    enqueuedJobs.set(supported.size());
+                }
+            }
+
+            log.info("event=zip_file_accepted requestId={} fileName={} jobs={}",
+                    requestId, original, enqueuedJobs.get());
+            return new Result(true, warning, enqueuedJobs.get());
+        } finally {
+            // once enqueued, extracted files belong to their jobs and are deleted by the worker
+            if (enqueuedJobs.get() == 0) {
+                deleteDirQuietly(extractDir);
+            }
+        }
+    }
+
+    private record Coordinates(String module, String version) { }
+
+    /* entries of one archive level go to the queue under that level's module and version */
+    private ZipUtil.Level level(IngestionJob archive,
+                                Coordinates coordinates,
+                                ZipEntryFilter filter,
+                                AtomicInteger enqueuedJobs) {
+
+        ZipUtil.UnchangedFilter unchanged = zipProps.isSkipUnchangedEntries()
+                ? jobs.unchangedEntries(coordinates.module(), coordinates.version())
+                : ZipUtil.UnchangedFilter.NONE;
+
+        return new ZipUtil.Level(filter, unchanged, batch -> {
+            jobs.enqueueEntries(batch, coordinates.module(), coordinates.version(),
+                    archive.getRepoCloneUrl(), archive.getRepoRef(), archive.getPathInRepo());
+            enqueuedJobs.addAndGet(batch.size());
+        });
+    }
+
+    private ZipEntryFilter filter(ZipFile zip) {
+        ZipEntryFilter filter = ZipEntryFilter.of(zipProps.getIncludes(), zipProps.getExcludes());
+        return zipProps.isHonorGitignore() ? filter.withGitignores(zip) : filter;
+    }
+
+    /* "a.zip!/b.zip" -> "a.zip", "a.zip" -> "" */
+    private static String enclosingArchive(String nestedName) {
+        int bang = nestedName.lastIndexOf("!/");
+        return bang < 0 ? "" : nestedName.substring(0, bang);
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String value : values) {
+            if (StringUtils.hasText(value)) return value;
+        }
+        return null;
+    }
+
+    // ---------- zip metadata resolution ----------
+
+    private String resolveZipModule(String requestedModule, ZipManifestScanner.Manifest manifest) {
+        boolean fromPackage = FROM_PACKAGE.equalsIgnoreCase(requestedModule);
+        if (StringUtils.hasText(requestedModule) && !fromPackage) {
+            return requestedModule;
+        }
+
+        if (StringUtils.hasText(manifest.artifactId())) return manifest.artifactId();
+
+        return StringUtils.hasText(manifest.rootProjectName()) ? manifest.rootProjectName() : DEFAULT_MODULE;
+    }
+
+    private String resolveZipVersion(String requestedVersion, ZipManifestScanner.Manifest manifest) {
+        if (StringUtils.hasText(manifest.pomVersion())) return manifest.pomVersion();
+
+        if (StringUtils.hasText(manifest.gradleVersion())) return manifest.gradleVersion();
+
+        return StringUtils.hasText(requestedVersion) ? requestedVersion : null;
+    }
+
+    // ---------- cleanup ----------
+
+    private static void deleteDirQuietly(Path dir) {
+        if (dir == null) return;
+        try {
+            FileSystemUtils.deleteRecursively(dir);
+        } catch (IOException ex) {
+            log.warn("event=temp_dir_delete_failed requestId={} path={} msg={}",
+                    MDC.get(MDC_REQUEST_ID), dir, ex.getMessage());
+        }
+    }
+}
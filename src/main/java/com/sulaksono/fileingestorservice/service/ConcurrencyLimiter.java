@@ -0,0 +1,56 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionConcurrencyProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Caps concurrent embedding calls and DB writes independently of the executor.
+ *
+ * With the virtual-thread executor the pool size no longer bounds how many
+ * tasks reach Azure OpenAI or the connection pool at once; these permits do.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    private final Semaphore embeddingCalls;
+    private final Semaphore dbWrites;
+
+    public ConcurrencyLimiter(IngestionConcurrencyProperties props) {
+        this.embeddingCalls = new Semaphore(props.getMaxEmbeddingCalls(), true);
+        this.dbWrites = new Semaphore(props.getMaxDbWrites(), true);
+    }
+
+    public <T> T withEmbeddingPermit(Supplier<T> action) {
+        return withPermit(embeddingCalls, "embedding call", action);
+    }
+
+    public <T> T withDbWritePermit(Supplier<T> action) {
+        return withPermit(dbWrites, "db write", action);
+    }
+
+    int availableEmbeddingPermits() {
+        return embeddingCalls.availablePermits();
+    }
+
+    int availableDbWritePermits() {
+        return dbWrites.availablePermits();
+    }
+
+    private static <T> T withPermit(Semaphore permits, String kind, Supplier<T> action) {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for a " + kind + " permit", e);
+        }
+
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.EmbeddingCacheProperties;
+import com.sulaksono.fileingestorservice.repository.EmbeddingCacheRepository;
+import com.sulaksono.fileingestorservice.util.ContentHashUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Two-tier cache in front of the Azure OpenAI embedding endpoint.
+ *
+ * Entries are keyed by (deployment, sha256 of the exact input):
+ * - tier 1: bounded in-memory LRU map
+ * - tier 2: the embedding_cache table (see {@link EmbeddingCacheRepository})
+ *
+ * Inputs missing from both tiers are loaded once: concurrent callers asking for
+ * the same key wait for the caller that is already loading it. Failures of the
+ * persistent tier are logged and treated as misses.
+ */
+@Service
+public class EmbeddingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    static final String METRIC_HITS = "embedding.cache.hits";
+    static final String METRIC_MISSES = "embedding.cache.misses";
+
+    private final EmbeddingCacheProperties props;
+    private final EmbeddingCacheRepository repository;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, float[]> memory;
+    private final Map<String, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    public EmbeddingCache(EmbeddingCacheProperties props,
+                          EmbeddingCacheRepository repository,
+                          MeterRegistry meterRegistry) {
+        this.props = props;
+        this.repository = repository;
+        this.meterRegistry = meterRegistry;
+        this.memory = Collections.synchronizedMap(new LruMap(props.getMemoryMaxEntries()));
+    }
+
+    /**
+     * Returns one vector per input, aligned with {@code inputs}. Inputs not found
+     * in either tier are passed to {@code loader} in one call (duplicates removed)
+     * and the results stored in both tiers.
+     *
+     * @param deployment embedding model deployment; part of the key so switching
+     *                   models never returns stale vectors
+     * @param loader     embeds a list of inputs, result aligned with its argument
+     */
+    public List<float[]> getOrLoad(String deployment,
+                                   List<String> inputs,
+                                   Function<List<String>, List<float[]>> loader) {
+
+        if (!props.isEnabled()) {
+            return loader.apply(inputs);
+        }
+
+        // distinct input hash -> positions in inputs
+        Map<String, List<Integer>> positions = new LinkedHashMap<>();
+        for (int i = 0; i < inputs.size(); i++) {
+            positions.computeIfAbsent(hash(inputs.get(i)), h -> new ArrayList<>()).add(i);
+        }
+
+        Map<String, float[]> resolved = new HashMap<>();
+
+        for (String hash : positions.keySet()) {
+            float[] vector = memory.get(memoryKey(deployment, hash));
+            if (vector != null) {
+                resolved.put(hash, vector);
+                hit("memory");
+            }
+        }
+
+        if (props.isPersistent() && resolved.size() < positions.size()) {
+            List<String> lookup = positions.keySet().stream()
+                    .filter(h -> !resolved.containsKey(h))
+                    .toList();
+
+            Map<String, float[]> stored = findStored(deployment, lookup);
+            stored.forEach((hash, vector) -> {
+                resolved.put(hash, vector);
+                memory.put(memoryKey(deployment, hash), vector);
+                hit("db");
+            });
+        }
+
+        Map<String, CompletableFuture<float[]>> owned = new LinkedHashMap<>();
+        Map<String, CompletableFuture<float[]>> joined = new LinkedHashMap<>();
+
+        for (String hash : positions.keySet()) {
+            if (resolved.containsKey(hash)) {
+                continue;
+            }
+
+            CompletableFuture<float[]> mine = new CompletableFuture<>();
+            CompletableFuture<float[]> theirs = inFlight.putIfAbsent(memoryKey(deployment, hash), mine);
+
+            if (theirs == null) {
+                owned.put(hash, mine);
+            } else {
+                joined.put(hash, theirs);
+            }
+        }
+
+        if (!owned.isEmpty()) {
+            resolved.putAll(load(deployment, inputs, positions, owned, loader));
+        }
+
+        for (Map.Entry<String, CompletableFuture<float[]>> e : joined.entrySet()) {
+            resolved.put(e.getKey(), await(e.getValue()));
+            hit("in_flight");
+        }
+
+        float[][] out = new float[inputs.size()][];
+        positions.forEach((hash, idxs) -> idxs.forEach(i -> out[i] = resolved.get(hash)));
+
+        return Arrays.asList(out);
+    }
+
+    private Map<String, float[]> load(String deployment,
+                                      List<String> inputs,
+                                      Map<String, List<Integer>> positions,
+                                      Map<String, CompletableFuture<float[]>> owned,
+                                      Function<List<String>, List<float[]>> loader) {
+
+        List<String> hashes = new ArrayList<>(owned.keySet());
+        List<String> batch = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            batch.add(inputs.get(positions.get(hash).getFirst()));
+        }
+
+        meterRegistry.counter(METRIC_MISSES).increment(hashes.size());
+
+        Map<String, float[]> loaded = new LinkedHashMap<>();
+
+        try {
+            List<float[]> vectors = loader.apply(batch);
+
+            for (int i = 0; i < hashes.size(); i++) {
+                loaded.put(hashes.get(i), vectors.get(i));
+                memory.put(memoryKey(deployment, hashes.get(i)), vectors.get(i));
+            }
+
+            if (props.isPersistent()) {
+                store(deployment, loaded);
+            }
+
+            loaded.forEach((hash, vector) -> owned.get(hash).complete(vector));
+            return loaded;
+
+        } catch (RuntimeException e) {
+            owned.values().forEach(f -> f.completeExceptionally(e));
+            throw e;
+        } finally {
+            owned.keySet().forEach(hash -> inFlight.remove(memoryKey(deployment, hash)));
+        }
+    }
+
+    private Map<String, float[]> findStored(String deployment, List<String> hashes) {
+        try {
+            return repository.findByHashes(deployment, hashes);
+        } catch (DataAccessException e) {
+            log.warn(
+                    "event=embedding_cache_read_failed requestId={} keys={} message={}",
+                    MDC.get("requestId"),
+                    hashes.size(),
+                    e.getMessage()
+            );
+            return Map.of();
+        }
+    }
+
+    private void store(String deployment, Map<String, float[]> vectors) {
+        try {
+            repository.saveAll(deployment, vectors);
+        } catch (DataAccessException e) {
+            log.warn(
+                    "event=embedding_cache_write_failed requestId={} keys={} message={}",
+                    MDC.get("requestId"),
+                    vectors.size(),
+                    e.getMessage()
+            );
+        }
+    }
+
+    private static float[] await(CompletableFuture<float[]> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private void hit(String tier) {
+        meterRegistry.counter(METRIC_HITS, "tier", tier).increment();
+    }
+
+    static String hash(String input) {
+        return ContentHashUtil.sha256Hex(input.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String memoryKey(String deployment, String hash) {
+        return deployment + ':' + hash;
+    }
+
+    private static final class LruMap extends LinkedHashMap<String, float[]> {
+
+        private final int maxEntries;
+
+        LruMap(int maxEntries) {
+            super(16, 0.75f, true);
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        public float[] put(String key, float[] value) {
+            return maxEntries == 0 ? null : super.put(key, value);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+            return size() > maxEntries;
+        }
+    }
+}
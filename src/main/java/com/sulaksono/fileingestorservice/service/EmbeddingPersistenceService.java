@@ -0,0 +1,223 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.VectorProperties;
+import com.sulaksono.fileingestorservice.model.CanonicalFile;
+import com.sulaksono.fileingestorservice.model.FileEmbedding;
+import com.sulaksono.fileingestorservice.repository.CanonicalFileRepository;
+import com.sulaksono.fileingestorservice.repository.FileEmbeddingBulkWriter;
+import com.sulaksono.fileingestorservice.repository.FileEmbeddingRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Write phase of the ingestion pipeline.
+ *
+ * Everything that talks to Azure OpenAI happens before this service is called,
+ * so a database connection is only held for the upsert itself.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmbeddingPersistenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingPersistenceService.class);
+
+    private static final String MDC_REQUEST_ID = "requestId";
+    private static final String DEFAULT_REPO_REF = "master";
+
+    private final CanonicalFileRepository canonicalFileRepository;
+    private final FileEmbeddingRepository embeddingRepository;
+    private final FileEmbeddingBulkWriter bulkWriter;
+    private final VectorProperties vecProps;
+
+    /**
+     * One chunk of the new file content.
+     *
+     * @param content chunk text
+     * @param hash    {@link com.sulaksono.fileingestorservice.util.ContentHashUtil#sha256} of the text
+     * @param vector  embedding; may be {@code null} when a stored row with the same hash is reused
+     */
+    public record PreparedChunk(String content, String hash, float[] vector) { }
+
+    /**
+     * Vectors currently stored for a file, keyed by chunk hash. Runs outside any
+     * write transaction so the embed phase can skip chunks that did not change.
+     */
+    public Map<String, float[]> findVectorsByChunkHash(String module, String moduleVersion, String path) {
+        Optional<UUID> canonicalId = canonicalFileRepository
+                .findByModuleAndModuleVersionAndPathNullSafe(module, moduleVersion, path)
+                .map(CanonicalFile::getId);
+
+        if (canonicalId.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, float[]> vectors = new HashMap<>();
+        for (FileEmbedding row : embeddingRepository.findByCanonicalFile_Id(canonicalId.get())) {
+            if (row.getChunkHash() != null && row.getEmbedding() != null) {
+                vectors.putIfAbsent(row.getChunkHash(), row.getEmbedding());
+            }
+        }
+        return vectors;
+    }
+
+    /**
+     * Upserts the canonical file and reconciles its chunk rows in a single short
+     * transaction:
+     * - a stored row whose chunk hash occurs again is kept, only its position is updated
+     * - chunks without such a row are inserted
+     * - stored rows left over (including rows without a hash) are deleted
+     *
+     * New rows go through the JPA repository or {@link FileEmbeddingBulkWriter},
+     * depending on {@code vector.write-mode}.
+     *
+     * @param file   detached canonical file carrying the new metadata and content
+     * @param chunks chunks in file order
+     * @return the managed canonical file
+     */
+    @Transactional
+    public CanonicalFile persist(CanonicalFile file, List<PreparedChunk> chunks) {
+        String requestId = MDC.get(MDC_REQUEST_ID);
+
+        CanonicalFile canonical = upsertCanonicalFile(requestId, file);
+
+        Map<String, Deque<FileEmbedding>> stored = canonical.getId() == null
+                ? new HashMap<>()
+                : indexByHash(embeddingRepository.findByCanonicalFile_Id(canonical.getId()));
+
+        int total = chunks.size();
+        int kept = 0;
+        List<FileEmbedding> inserts = new ArrayList<>();
+
+        for (int idx = 0; idx < total; idx++) {
+            PreparedChunk chunk = chunks.get(idx);
+            Deque<FileEmbedding> candidates = chunk.hash() == null ? null : stored.get(chunk.hash());
+
+            if (candidates != null && !candidates.isEmpty()) {
+                FileEmbedding row = candidates.poll();
+                row.setChunkIdx(idx);
+                row.setChunkOf(total);
+                row.setDeprecated(false);
+                kept++;
+                continue;
+            }
+
+            if (chunk.vector() == null) {
+                throw new IllegalArgumentException("no vector for new chunk " + idx + " of " + canonical.getPath());
+            }
+
+            FileEmbedding row = new FileEmbedding(
+                    canonical.getFileName(),
+                    canonical.getPath(),
+                    canonical.getModule(),
+                    idx,
+                    total,
+                    canonical.getFileType(),
+                    chunk.vector(),
+                    chunk.content(),
+                    canonical.getModuleVersion(),
+                    canonical
+            );
+            row.setChunkHash(chunk.hash());
+            inserts.add(row);
+        }
+
+        List<UUID> stale = new ArrayList<>();
+        stored.values().forEach(rows -> rows.forEach(row -> stale.add(row.getId())));
+
+        if (!stale.isEmpty()) {
+            embeddingRepository.deleteByIdIn(stale);
+        }
+
+        writeRows(inserts);
+
+        log.info(
+                "event=chunks_persisted requestId={} file={} chunks={} kept={} inserted={} deleted={} mode={}",
+                requestId,
+                canonical.getPath(),
+                total,
+                kept,
+                inserts.size(),
+                stale.size(),
+                vecProps.getWriteMode()
+        );
+
+        return canonical;
+    }
+
+    /* stored rows grouped by hash; rows without a hash are never reused */
+    private static Map<String, Deque<FileEmbedding>> indexByHash(List<FileEmbedding> rows) {
+        Map<String, Deque<FileEmbedding>> byHash = new HashMap<>();
+        Deque<FileEmbedding> unhashed = new ArrayDeque<>();
+
+        for (FileEmbedding row : rows) {
+            if (row.getChunkHash() == null) {
+                unhashed.add(row);
+            } else {
+                byHash.computeIfAbsent(row.getChunkHash(), h -> new ArrayDeque<>()).add(row);
+            }
+        }
+
+        if (!unhashed.isEmpty()) {
+            byHash.put("", unhashed); // no sha256 is empty, so these always end up stale
+        }
+        return byHash;
+    }
+
+    private void writeRows(List<FileEmbedding> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        switch (vecProps.getWriteMode()) {
+            case JDBC_BATCH -> bulkWriter.batchInsert(rows, vecProps.getWriteBatchSize());
+            case COPY -> bulkWriter.copy(rows, vecProps.getWriteBatchSize());
+            case JPA -> embeddingRepository.saveAll(rows);
+        }
+    }
+
+    private CanonicalFile upsertCanonicalFile(String requestId, CanonicalFile file) {
+        CanonicalFile canonical = canonicalFileRepository
+                .findByModuleAndModuleVersionAndPathNullSafe(file.getModule(), file.getModuleVersion(), file.getPath())
+                .orElseGet(CanonicalFile::new);
+
+        canonical.setFileName(file.getFileName());
+        canonical.setPath(file.getPath());
+        canonical.setModule(file.getModule());
+        canonical.setModuleVersion(file.getModuleVersion());
+        canonical.setFileType(file.getFileType());
+        canonical.setRepoCloneUrl(file.getRepoCloneUrl());
+        canonical.setRepoRef(StringUtils.hasText(file.getRepoRef()) ? file.getRepoRef() : DEFAULT_REPO_REF);
+        canonical.setPathInRepo(file.getPathInRepo());
+        canonical.setContent(file.getContent());
+        canonical.setContentHash(file.getContentHash());
+        canonical.setDeprecated(false);
+
+        // flush so the row is visible to the JDBC bulk path (FK from file_embeddings)
+        CanonicalFile saved = canonicalFileRepository.saveAndFlush(canonical);
+
+        log.info(
+                "event=canonical_file_upserted requestId={} path={} module={} version={} id={}",
+                requestId,
+                saved.getPath(),
+                saved.getModule(),
+                saved.getModuleVersion(),
+                saved.getId()
+        );
+
+        return saved;
+    }
+}
@@ -1,18 +1,25 @@
 package com.sulaksono.fileingestorservice.service;
 
 import com.azure.ai.openai.OpenAIClient;
+import com.azure.ai.openai.models.EmbeddingItem;
 import com.azure.ai.openai.models.Embeddings;
 import com.azure.ai.openai.models.EmbeddingsOptions;
 import com.sulaksono.fileingestorservice.config.AzureOpenAIProperties;
+import com.sulaksono.fileingestorservice.util.TokenizerUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * Wraps calls to Azure OpenAI’s embedding endpoint.
+ * All calls go through {@link EmbeddingCache}; only cache misses reach Azure,
+ * each request holding an embedding permit of {@link ConcurrencyLimiter}.
  */
 @Service
 public class EmbeddingService {
@@ -21,11 +28,17 @@ public class EmbeddingService {
 
     private final OpenAIClient client;
     private final AzureOpenAIProperties props;
+    private final EmbeddingCache cache;
+    private final ConcurrencyLimiter limiter;
 
     public EmbeddingService(OpenAIClient client,
-                            AzureOpenAIProperties props) {
+                            AzureOpenAIProperties props,
+                            EmbeddingCache cache,
+                            ConcurrencyLimiter limiter) {
         this.client = client;
         this.props = props;
+        this.cache = cache;
+        this.limiter = limiter;
     }
 
     public float[] generateEmbedding(String input) {
@@ -34,6 +47,15 @@ public class EmbeddingService {
             throw new IllegalArgumentException("input cannot be blank");
         }
 
+        return cache.getOrLoad(
+                props.getEmbeddingModelDeployment(),
+                List.of(input),
+                batch -> List.of(embedOne(batch.getFirst()))
+        ).getFirst();
+    }
+
+    private float[] embedOne(String input) {
+
         String requestId = MDC.get("requestId");
 
         log.debug(
@@ -42,24 +64,17 @@ public class EmbeddingService {
                 input.length());
 
         try {
-            Embeddings response = client.getEmbeddings(
+            Embeddings response = limiter.withEmbeddingPermit(() -> client.getEmbeddings(
                     props.getEmbeddingModelDeployment(),
                     new EmbeddingsOptions(List.of(input))
-            );
+            ));
 
             if (response.getData() == null || response.getData().isEmpty()) {
                 throw new IllegalStateException(
                         "Azure OpenAI returned no embeddings");
             }
 
-            List<Float> embedding =
-                    response.getData().getFirst().getEmbedding();
-
-            float[] vector = new float[embedding.size()];
-
-            for (int i = 0; i < embedding.size(); i++) {
-                vector[i] = embedding.get(i);
-            }
+            float[] vector = toVector(response.getData().getFirst());
 
             log.info(
                     "event=embedding_success requestId={} dimension={}",
@@ -78,4 +93,143 @@ public class EmbeddingService {
             throw e;
         }
     }
+
+    /**
+     * Embeds many inputs with as few round trips as possible.
+     *
+     * Inputs are packed into requests bounded by
+     * {@code azure.openai.embedding-batch-max-inputs} and
+     * {@code azure.openai.embedding-batch-max-tokens}; results are mapped back
+     * through each item's prompt index, so the returned list is aligned with
+     * {@code inputs}. Inputs already in {@link EmbeddingCache} are not sent.
+     */
+    public List<float[]> generateEmbeddings(List<String> inputs) {
+        return generateEmbeddings(inputs, sent -> { });
+    }
+
+    /**
+     * Same as {@link #generateEmbeddings(List)}; {@code sent} is told how many
+     * distinct inputs missed the cache and went to the model.
+     */
+    public List<float[]> generateEmbeddings(List<String> inputs, IntConsumer sent) {
+
+        if (inputs == null || inputs.isEmpty()) {
+            return List.of();
+        }
+
+        for (String input : inputs) {
+            if (input == null || input.isBlank()) {
+                throw new IllegalArgumentException("input cannot be blank");
+            }
+        }
+
+        return cache.getOrLoad(props.getEmbeddingModelDeployment(), inputs, misses -> {
+            sent.accept(misses.size());
+            return embedAll(misses);
+        });
+    }
+
+    private List<float[]> embedAll(List<String> inputs) {
+
+        String requestId = MDC.get("requestId");
+        float[][] vectors = new float[inputs.size()][];
+
+        int maxInputs = Math.max(1, props.getEmbeddingBatchMaxInputs());
+        int maxTokens = Math.max(1, props.getEmbeddingBatchMaxTokens());
+
+        int batchStart = 0;
+        int batches = 0;
+
+        while (batchStart < inputs.size()) {
+            int batchEnd = batchStart;
+            int batchTokens = 0;
+
+            while (batchEnd < inputs.size() && batchEnd - batchStart < maxInputs) {
+                int tokens = TokenizerUtil.countTokens(inputs.get(batchEnd));
+
+                if (batchEnd > batchStart && batchTokens + tokens > maxTokens) {
+                    break;
+                }
+
+                batchTokens += tokens;
+                batchEnd++;
+            }
+
+            embedBatch(requestId, inputs.subList(batchStart, batchEnd), batchStart, batchTokens, vectors);
+
+            batches++;
+            batchStart = batchEnd;
+        }
+
+        log.info(
+                "event=embedding_batch_success requestId={} inputs={} requests={}",
+                requestId,
+                inputs.size(),
+                batches);
+
+        return Arrays.asList(vectors);
+    }
+
+    public int getBatchMaxInputs() {
+        return props.getEmbeddingBatchMaxInputs();
+    }
+
+    private void embedBatch(String requestId,
+                            List<String> batch,
+                            int offset,
+                            int batchTokens,
+                            float[][] vectors) {
+
+        log.debug(
+                "event=embedding_batch_start requestId={} offset={} inputs={} tokens={}",
+                requestId,
+                offset,
+                batch.size(),
+                batchTokens);
+
+        try {
+            Embeddings response = limiter.withEmbeddingPermit(() -> client.getEmbeddings(
+                    props.getEmbeddingModelDeployment(),
+                    new EmbeddingsOptions(new ArrayList<>(batch))
+            ));
+
+            if (response.getData() == null || response.getData().size() != batch.size()) {
+                throw new IllegalStateException(
+                        "Azure OpenAI returned no embeddings for some inputs");
+            }
+
+            for (EmbeddingItem item : response.getData()) {
+                int idx = item.getPromptIndex();
+
+                if (idx < 0 || idx >= batch.size() || vectors[offset + idx] != null) {
+                    throw new IllegalStateException(
+                            "Azure OpenAI returned an unexpected prompt index " + idx);
+                }
+
+                vectors[offset + idx] = toVector(item);
+            }
+        } catch (Exception e) {
+            log.error(
+                    "event=embedding_error requestId={} offset={} inputs={} message={}",
+                    requestId,
+                    offset,
+                    batch.size(),
+                    e.getMessage(),
+                    e);
+
+            throw e;
+        }
+    }
+
+    private static float[] toVector(EmbeddingItem item) {
+        List<Float> embedding = item.getEmbedding();
+
+        float[] vector = new float[embedding.size()];
+
+        for (int i = 0; i < embedding.size(); i++) {
+            vector[i] = embedding.get(i);
+        }
+
+        return vector;
+    }
 }
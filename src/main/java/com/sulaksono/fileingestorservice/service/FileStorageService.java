@@ -8,13 +8,21 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
 
 /**
  * Stores raw uploads on the local file system so processing can be retried independently.
+ *
+ * Uploads are moved into place with {@link MultipartFile#transferTo(java.io.File)}:
+ * a part the container has spooled to {@code storage.temp-location} is renamed
+ * when that directory is on the same file system, so its bytes are not written twice.
+ * Streamed uploads are written in the same pass while they are read.
  */
 @Getter
 @Service
@@ -24,6 +32,7 @@ public class FileStorageService {
             LoggerFactory.getLogger(FileStorageService.class);
 
     private final Path rootDir;
+    private final Path tempDir; // null = container default
 
     public FileStorageService(StorageProperties props) {
         this.rootDir =
@@ -31,17 +40,39 @@ public class FileStorageService {
                         .toAbsolutePath()
                         .normalize();
 
-        log.debug("event=constructor rootDir={}", this.rootDir);
+        this.tempDir = StringUtils.hasText(props.getTempLocation())
+                ? Paths.get(props.getTempLocation()).toAbsolutePath().normalize()
+                : null;
+
+        log.debug("event=constructor rootDir={} tempDir={}", this.rootDir, this.tempDir);
     }
 
     @PostConstruct
     void init() throws IOException {
         Files.createDirectories(rootDir);
 
-        log.info("event=storage_init rootDir={}", rootDir);
+        // the container rejects multipart requests while its spool directory is missing
+        if (tempDir != null) {
+            Files.createDirectories(tempDir);
+        }
+
+        log.info("event=storage_init rootDir={} tempDir={}", rootDir, tempDir);
     }
 
+    /**
+     * A stored upload. Content hashes are taken by the worker on the decoded
+     * text, not here.
+     */
+    public record StoredFile(Path path, long size) { }
+
     public Path save(MultipartFile file) throws IOException {
+        return store(file).path();
+    }
+
+    /**
+     * Moves an upload into storage without reading it.
+     */
+    public StoredFile store(MultipartFile file) throws IOException {
 
         String requestId = MDC.get("requestId");
         String original = file.getOriginalFilename();
@@ -57,35 +88,21 @@ public class FileStorageService {
                 file.getSize());
 
         try {
-            String base = FilenameUtils.getBaseName(original);
-            String ext = FilenameUtils.getExtension(original);
-
-            String generated =
-                    base +
-                            "-" +
-                            System.nanoTime() +
-                            (ext.isBlank() ? "" : "." + ext);
-
-            Path destination =
-                    rootDir.resolve(generated)
-                            .normalize();
+            Path destination = destination(original);
 
-            if (!destination.startsWith(rootDir)) {
-                throw new IOException("Invalid file path");
-            }
+            // the File overload: transferTo(Path) always copies the stream
+            file.transferTo(destination.toFile());
 
-            Files.copy(
-                    file.getInputStream(),
-                    destination,
-                    StandardCopyOption.REPLACE_EXISTING);
+            long size = Files.size(destination);
 
             log.info(
-                    "event=file_saved requestId={} storedName={} path={}",
+                    "event=file_saved requestId={} storedName={} path={} size={}",
                     requestId,
-                    generated,
-                    destination);
+                    destination.getFileName(),
+                    destination,
+                    size);
 
-            return destination;
+            return new StoredFile(destination, size);
         }
         catch (IOException e) {
 
@@ -99,4 +116,126 @@ public class FileStorageService {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stores an upload read from a stream (e.g. a multipart part or request
+     * body as it arrives); only one buffer is held in
+     * memory. A partially written file is deleted when reading fails.
+     *
+     * @param maxBytes larger uploads are rejected; {@code -1} for no limit
+     */
+    public StoredFile store(String originalName, InputStream in, long maxBytes) throws IOException {
+
+        String requestId = MDC.get("requestId");
+
+        if (originalName == null || originalName.isBlank()) {
+            throw new IOException("File name is required");
+        }
+
+        log.debug(
+                "event=file_stream_start requestId={} originalName={}",
+                requestId,
+                originalName);
+
+        Path destination = destination(originalName);
+        byte[] buffer = new byte[64 * 1024];
+        long size = 0;
+
+        try (OutputStream out = Files.newOutputStream(destination, StandardOpenOption.CREATE_NEW)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (maxBytes >= 0 && size > maxBytes) {
+                    throw new IOException("larger than " + maxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        catch (IOException e) {
+            Files.deleteIfExists(destination);
+
+            log.error(
+                    "event=file_save_error requestId={} originalName={} message={}",
+                    requestId,
+                    originalName,
+                    e.getMessage());
+
+            throw e;
+        }
+
+        log.info(
+                "event=file_saved requestId={} storedName={} path={} size={}",
+                requestId,
+                destination.getFileName(),
+                destination,
+                size);
+
+        return new StoredFile(destination, size);
+    }
+
+    private Path destination(String original) throws IOException {
+        String base = FilenameUtils.getBaseName(original);
+        String ext = FilenameUtils.getExtension(original);
+
+        String generated =
+                base +
+                        "-" +
+                        System.nanoTime() +
+                        (ext.isBlank() ? "" : "." + ext);
+
+        Path destination =
+                rootDir.resolve(generated)
+                        .normalize();
+
+        if (!destination.startsWith(rootDir)) {
+            throw new IOException("Invalid file path");
+        }
+
+        return destination;
+    }
+
+    /**
+     * Deletes a stored file and then any directories left empty by it, up to
+     * (not including) the storage root. Failures are logged, never thrown.
+     */
+    public void delete(Path file) {
+        String requestId = MDC.get("requestId");
+
+        if (file == null) {
+            return;
+        }
+
+        try {
+            boolean deleted = Files.deleteIfExists(file);
+
+            log.debug(
+                    "event=file_delete requestId={} file={} result={}",
+                    requestId,
+                    file,
+                    deleted ? "deleted" : "not_found");
+
+            Path dir = file.toAbsolutePath().normalize().getParent();
+            while (dir != null && dir.startsWith(rootDir) && !dir.equals(rootDir) && isEmptyDirectory(dir)) {
+                Files.deleteIfExists(dir);
+                dir = dir.getParent();
+            }
+        }
+        catch (IOException e) {
+            log.debug(
+                    "event=file_delete_failed requestId={} file={} message={}",
+                    requestId,
+                    file,
+                    e.getMessage());
+        }
+    }
+
+    private static boolean isEmptyDirectory(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return false;
+        }
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            return !entries.iterator().hasNext();
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionQueueProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import com.sulaksono.fileingestorservice.repository.IngestionJobRepository;
+import com.sulaksono.fileingestorservice.repository.ZipEntryFingerprintRepository;
+import com.sulaksono.fileingestorservice.util.ZipUtil;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Durable queue of files accepted for ingestion, backed by {@code ingestion_jobs}.
+ *
+ * Lifecycle: PENDING -> RUNNING (claimed) -> DONE | PENDING (retry) | FAILED.
+ * A RUNNING job whose claim was not extended in time becomes claimable again,
+ * so work survives worker crashes and restarts.
+ *
+ * ZIP uploads are queued as one ARCHIVE job whose extraction stage runs on a
+ * worker ({@link ArchiveIngestionService}) and enqueues the entries; its outcome
+ * is kept on the row for {@link #archives(String)}.
+ *
+ * Finished archive entry jobs record the entry's CRC-32 and size, so a later
+ * upload of the same module version can skip the entry without inflating it.
+ *
+ * Every transition is also reported to {@link IngestionProgressStore}, which
+ * serves the job status API.
+ *
+ * Jobs are queued in lanes: single uploaded files are INTERACTIVE, archives and
+ * their entries BULK, module re-embedding REEMBED. A claim is shared between
+ * the lanes with work by {@code ingestion.queue.lane-weights} ({@link LaneScheduler}),
+ * and within a lane modules take turns, so a single file is not stuck behind
+ * a 10k-entry archive while the archive still gets every slot nobody else needs.
+ */
+@Service
+@RequiredArgsConstructor
+public class IngestionJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionJobService.class);
+
+    private static final String MDC_REQUEST_ID = "requestId";
+    private static final int MAX_ERROR_LENGTH = 4000;
+
+    private final IngestionJobRepository repository;
+    private final IngestionQueueProperties props;
+    private final ZipEntryFingerprintRepository fingerprints;
+    private final IngestionProgressStore progress;
+    private final LaneScheduler lanes = new LaneScheduler();
+
+    /**
+     * Persists one PENDING job per stored file, in one transaction.
+     */
+    @Transactional
+    public List<IngestionJob> enqueue(List<Path> files,
+                                      String module,
+                                      String moduleVersion,
+                                      String repoCloneUrl,
+                                      String repoRef,
+                                      String pathInRepo) {
+
+        String requestId = MDC.get(MDC_REQUEST_ID);
+        Instant now = Instant.now();
+
+        List<IngestionJob> jobs = new ArrayList<>(files.size());
+        for (Path file : files) {
+            IngestionJob job = new IngestionJob(
+                    requestId,
+                    file.toAbsolutePath().normalize().toString(),
+                    module,
+                    moduleVersion,
+                    repoCloneUrl,
+                    repoRef,
+                    pathInRepo,
+                    props.getMaxAttempts(),
+                    now
+            );
+            job.setLane(IngestionJob.Lane.INTERACTIVE);
+            jobs.add(job);
+        }
+
+        return save(requestId, jobs, module, moduleVersion);
+    }
+
+    /**
+     * Persists the ARCHIVE job of a stored ZIP upload; module and version are the
+     * requested ones and may be {@code null} or {@code from-package}.
+     */
+    @Transactional
+    public IngestionJob enqueueArchive(Path archive,
+                                       String originalName,
+                                       String module,
+                                       String moduleVersion,
+                                       String repoCloneUrl,
+                                       String repoRef,
+                                       String pathInRepo,
+                                       String zipProfile) {
+
+        String requestId = MDC.get(MDC_REQUEST_ID);
+
+        IngestionJob job = new IngestionJob(
+                requestId,
+                archive.toAbsolutePath().normalize().toString(),
+                module,
+                moduleVersion,
+                repoCloneUrl,
+                repoRef,
+                pathInRepo,
+                props.getMaxAttempts(),
+                Instant.now()
+        );
+        job.setKind(IngestionJob.Kind.ARCHIVE);
+        job.setOriginalName(originalName);
+        job.setZipProfile(zipProfile);
+
+        IngestionJob saved = repository.save(job);
+        progress.queued(List.of(saved));
+
+        log.info(
+                "event=archive_enqueued requestId={} jobId={} fileName={}",
+                requestId,
+                saved.getId(),
+                originalName
+        );
+
+        return saved;
+    }
+
+    /**
+     * Persists a REEMBED job for the stored embeddings of {@code module}.
+     */
+    @Transactional
+    public IngestionJob enqueueReembed(String module) {
+        String requestId = MDC.get(MDC_REQUEST_ID);
+
+        IngestionJob job = new IngestionJob(requestId, null, module, null, null, null, null,
+                props.getMaxAttempts(), Instant.now());
+        job.setKind(IngestionJob.Kind.REEMBED);
+        job.setLane(IngestionJob.Lane.REEMBED);
+        job.setOriginalName(module);
+
+        IngestionJob saved = repository.save(job);
+        progress.queued(List.of(saved));
+
+        log.info("event=reembed_enqueued requestId={} jobId={} module={}", requestId, saved.getId(), module);
+
+        return saved;
+    }
+
+    /**
+     * ARCHIVE jobs of one upload, oldest first.
+     */
+    public List<IngestionJob> archives(String requestId) {
+        return repository.findByRequestIdAndKindOrderByCreatedAt(requestId, IngestionJob.Kind.ARCHIVE);
+    }
+
+    /**
+     * Progress of one upload, empty if no job of it exists. Served from
+     * {@link IngestionProgressStore}; job counts are only read from the database
+     * when the store has no fresh view of them.
+     */
+    public Optional<IngestionProgressStore.Snapshot> progressOf(String requestId) {
+        return progress.snapshot(requestId, () -> {
+            Map<IngestionJob.Status, Long> counts = new EnumMap<>(IngestionJob.Status.class);
+            for (IngestionJobRepository.StatusCount row : repository.countByStatus(requestId)) {
+                counts.put(row.getStatus(), row.getCount());
+            }
+            return counts;
+        });
+    }
+
+    /**
+     * Persists one PENDING job per archive entry, in one transaction. Inline
+     * entries carry their decoded text in the job row; spilled entries point at
+     * their file. Both keep the entry name as their logical path.
+     */
+    @Transactional
+    public List<IngestionJob> enqueueEntries(List<ZipUtil.Entry> entries,
+                                             String module,
+                                             String moduleVersion,
+                                             String repoCloneUrl,
+                                             String repoRef,
+                                             String pathInRepo) {
+
+        String requestId = MDC.get(MDC_REQUEST_ID);
+        Instant now = Instant.now();
+
+        List<IngestionJob> jobs = new ArrayList<>(entries.size());
+        for (ZipUtil.Entry entry : entries) {
+            IngestionJob job = new IngestionJob(
+                    requestId,
+                    entry.inline() ? null : entry.spilled().toAbsolutePath().normalize().toString(),
+                    module,
+                    moduleVersion,
+                    repoCloneUrl,
+                    repoRef,
+                    pathInRepo,
+                    props.getMaxAttempts(),
+                    now
+            );
+            job.setEntryPath(entry.name());
+            job.setContent(entry.content());
+            if (entry.crc() >= 0 && entry.size() >= 0) {
+                job.setEntryCrc(entry.crc());
+                job.setEntrySize(entry.size());
+            }
+            jobs.add(job);
+        }
+
+        return save(requestId, jobs, module, moduleVersion);
+    }
+
+    /**
+     * Recognizes entries whose CRC-32 and size match what was last ingested for
+     * the module version. A CRC-32 collision at the same size would be missed,
+     * which is accepted for source files.
+     */
+    public ZipUtil.UnchangedFilter unchangedEntries(String module, String moduleVersion) {
+        Map<String, ZipEntryFingerprintRepository.Fingerprint> known = fingerprints.findByModule(module, moduleVersion);
+
+        if (known.isEmpty()) {
+            return ZipUtil.UnchangedFilter.NONE;
+        }
+
+        return (name, crc, size) -> {
+            ZipEntryFingerprintRepository.Fingerprint fingerprint = known.get(name);
+            return fingerprint != null && fingerprint.crc() == crc && fingerprint.size() == size;
+        };
+    }
+
+    private List<IngestionJob> save(String requestId, List<IngestionJob> jobs, String module, String moduleVersion) {
+        List<IngestionJob> saved = new ArrayList<>(jobs.size());
+        repository.saveAll(jobs).forEach(saved::add);
+        progress.queued(saved);
+
+        log.info(
+                "event=jobs_enqueued requestId={} module={} version={} jobs={}",
+                requestId,
+                module,
+                moduleVersion,
+                saved.size()
+        );
+
+        return saved;
+    }
+
+    /**
+     * Claims up to {@code limit} due jobs for {@code owner}, shared between the
+     * lanes by weight. Rows locked by a concurrent claim are skipped, so any
+     * number of workers can poll at once.
+     *
+     * A job whose claim expired after its last attempt is marked FAILED
+     * instead: it most likely took its worker down (OOM, hang) and would
+     * otherwise be passed around the fleet forever.
+     */
+    @Transactional
+    public List<IngestionJob> claim(String owner, int limit) {
+        Instant now = Instant.now();
+        Instant lockedUntil = now.plus(props.getVisibilityTimeout());
+
+        List<IngestionJob> jobs = new ArrayList<>(limit);
+        Set<IngestionJob.Lane> open = EnumSet.allOf(IngestionJob.Lane.class);
+
+        while (jobs.size() < limit && !open.isEmpty()) {
+            LaneScheduler.Turn turn = lanes.next(open, limit - jobs.size(), props.getLaneWeights());
+            List<IngestionJob> claimed = repository.lockClaimable(turn.lane().name(), now, turn.jobs());
+
+            lanes.served(turn.lane(), claimed.size(), props.getLaneWeights());
+            if (claimed.size() < turn.jobs()) {
+                open.remove(turn.lane());   // drained for now
+                lanes.idle(turn.lane());
+            }
+            jobs.addAll(claimed);
+        }
+
+        for (Iterator<IngestionJob> it = jobs.iterator(); it.hasNext(); ) {
+            IngestionJob job = it.next();
+
+            if (job.getStatus() == IngestionJob.Status.RUNNING) {
+                log.warn(
+                        "event=job_claim_expired requestId={} jobId={} previousOwner={} attempt={} maxAttempts={}",
+                        job.getRequestId(),
+                        job.getId(),
+                        job.getLockedBy(),
+                        job.getAttempts(),
+                        job.getMaxAttempts()
+                );
+
+                if (job.getAttempts() >= job.getMaxAttempts()) {
+                    abandon(job, now);
+                    it.remove();
+                    continue;
+                }
+            }
+
+            IngestionJob.Status previous = job.getStatus();
+            job.setStatus(IngestionJob.Status.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(owner);
+            job.setLockedUntil(lockedUntil);
+            job.setUpdatedAt(now);
+
+            progress.moved(job, previous, IngestionJob.Status.RUNNING, null);
+        }
+
+        return jobs;
+    }
+
+    /**
+     * Extends the claims of jobs still running on {@code owner}.
+     */
+    public void heartbeat(String owner, Collection<UUID> jobIds) {
+        if (jobIds.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        repository.extendLocks(jobIds, owner, IngestionJob.Status.RUNNING, now.plus(props.getVisibilityTimeout()), now);
+    }
+
+    public void complete(IngestionJob job, String owner) {
+        Instant now = Instant.now();
+
+        if (repository.transition(job.getId(), owner, IngestionJob.Status.DONE, now, null, now) == 0) {
+            logLostClaim(job, owner);
+            return;
+        }
+
+        progress.moved(job, IngestionJob.Status.RUNNING, IngestionJob.Status.DONE, null);
+        recordFingerprint(job);
+        clearContent(job);
+    }
+
+    /**
+     * Finishes an ARCHIVE job whose extraction stage ran: DONE when the archive
+     * was accepted, FAILED (without retry) when it was rejected.
+     */
+    public void finishArchive(IngestionJob job, String owner, boolean accepted, String note) {
+        IngestionJob.Status status = accepted ? IngestionJob.Status.DONE : IngestionJob.Status.FAILED;
+
+        if (repository.finish(job.getId(), owner, status, truncate(note), Instant.now()) == 0) {
+            logLostClaim(job, owner);
+            return;
+        }
+
+        progress.moved(job, IngestionJob.Status.RUNNING, status, accepted ? null : note);
+    }
+
+    /**
+     * Records a failed attempt. The job is retried with exponential backoff
+     * unless it is not retryable or has used up its attempts.
+     *
+     * @return {@code true} if the job is now FAILED for good
+     */
+    public boolean fail(IngestionJob job, String owner, Exception error, boolean retryable) {
+        Instant now = Instant.now();
+        String message = truncate(error.getClass().getSimpleName() + ": " + error.getMessage());
+
+        boolean terminal = !retryable || job.getAttempts() >= job.getMaxAttempts();
+
+        IngestionJob.Status status = terminal ? IngestionJob.Status.FAILED : IngestionJob.Status.PENDING;
+        Instant availableAt = terminal ? now : now.plus(backoff(job.getAttempts()));
+
+        if (repository.transition(job.getId(), owner, status, availableAt, message, now) == 0) {
+            logLostClaim(job, owner);
+            return false;
+        }
+
+        progress.moved(job, IngestionJob.Status.RUNNING, status, message);
+
+        if (terminal) {
+            clearContent(job);
+        }
+
+        log.warn(
+                "event=job_attempt_failed requestId={} jobId={} attempt={} maxAttempts={} status={} retryAt={}",
+                job.getRequestId(),
+                job.getId(),
+                job.getAttempts(),
+                job.getMaxAttempts(),
+                status,
+                terminal ? null : availableAt
+        );
+
+        return terminal;
+    }
+
+    /**
+     * Puts a claimed job back without counting the attempt, e.g. when the
+     * local executor rejected it.
+     */
+    public void release(IngestionJob job, String owner) {
+        if (repository.release(job.getId(), owner, IngestionJob.Status.PENDING, Instant.now()) > 0) {
+            progress.moved(job, IngestionJob.Status.RUNNING, IngestionJob.Status.PENDING, null);
+        }
+    }
+
+    /* the caller holds the row lock from lockClaimable */
+    private void abandon(IngestionJob job, Instant now) {
+        String message = truncate("claim expired after attempt " + job.getAttempts() + " (owner "
+                + job.getLockedBy() + " stopped heartbeating)");
+
+        job.setStatus(IngestionJob.Status.FAILED);
+        job.setLastError(message);
+        job.setContent(null);
+        job.setLockedBy(null);
+        job.setLockedUntil(null);
+        job.setUpdatedAt(now);
+
+        progress.moved(job, IngestionJob.Status.RUNNING, IngestionJob.Status.FAILED, message);
+
+        log.warn(
+                "event=job_abandoned requestId={} jobId={} attempts={}",
+                job.getRequestId(),
+                job.getId(),
+                job.getAttempts()
+        );
+    }
+
+    /* best effort: without the row the entry is only inflated again next time */
+    private void recordFingerprint(IngestionJob job) {
+        if (job.getEntryPath() == null || job.getEntryCrc() == null || job.getEntrySize() == null) {
+            return;
+        }
+
+        try {
+            fingerprints.save(job.getModule(), job.getModuleVersion(), job.getEntryPath(),
+                    job.getEntryCrc(), job.getEntrySize());
+        } catch (DataAccessException e) {
+            log.warn(
+                    "event=zip_fingerprint_save_failed requestId={} jobId={} entry={} msg={}",
+                    job.getRequestId(),
+                    job.getId(),
+                    job.getEntryPath(),
+                    e.getMessage()
+            );
+        }
+    }
+
+    private void clearContent(IngestionJob job) {
+        if (job.getContent() != null) {
+            repository.clearContent(job.getId());
+        }
+    }
+
+    Duration backoff(int attempt) {
+        int exponent = Math.min(Math.max(0, attempt - 1), 16);
+        return props.getRetryBackoff().multipliedBy(1L << exponent);
+    }
+
+    private static void logLostClaim(IngestionJob job, String owner) {
+        log.warn(
+                "event=job_claim_lost requestId={} jobId={} owner={}",
+                job.getRequestId(),
+                job.getId(),
+                owner
+        );
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return null;
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,220 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionQueueProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Worker loop of the durable ingestion queue.
+ *
+ * Every poll it extends the claims of its running jobs when due, claims as many
+ * new jobs as it has free slots and runs them on the {@code asyncExecutor}.
+ * Each node runs its own loop; {@code SKIP LOCKED} keeps them from claiming the
+ * same job, so adding nodes adds throughput. Stored files must live on storage
+ * shared by all nodes for that to work.
+ *
+ * ARCHIVE jobs run the extraction stage of a ZIP upload, which enqueues the
+ * archive entries as jobs of their own. REEMBED jobs re-embed a module's
+ * stored rows ({@link ReembeddingService}).
+ *
+ * Stage timings and chunk counts of every job go to {@link IngestionProgressStore}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "ingestion.queue", name = "worker-enabled", havingValue = "true", matchIfMissing = true)
+public class IngestionJobWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionJobWorker.class);
+
+    private static final String MDC_REQUEST_ID = "requestId";
+
+    static final String METRIC_JOBS = "ingestion.jobs";
+
+    private final IngestionJobService jobs;
+    private final ProcessingService processor;
+    private final ArchiveIngestionService archives;
+    private final ReembeddingService reembed;
+    private final IngestionProgressStore progress;
+    private final FileStorageService storage;
+    private final AsyncTaskExecutor executor;
+    private final IngestionQueueProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private final String workerId = workerId();
+    private final Map<UUID, IngestionJob> running = new ConcurrentHashMap<>();
+    private volatile Instant lastHeartbeat = Instant.EPOCH;
+
+    public IngestionJobWorker(IngestionJobService jobs,
+                              ProcessingService processor,
+                              ArchiveIngestionService archives,
+                              ReembeddingService reembed,
+                              IngestionProgressStore progress,
+                              FileStorageService storage,
+                              @Qualifier("asyncExecutor") AsyncTaskExecutor executor,
+                              IngestionQueueProperties props,
+                              MeterRegistry meterRegistry) {
+        this.jobs = jobs;
+        this.processor = processor;
+        this.archives = archives;
+        this.reembed = reembed;
+        this.progress = progress;
+        this.storage = storage;
+        this.executor = executor;
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.queue.poll-interval:1s}")
+    public void poll() {
+        try {
+            heartbeatIfDue();
+
+            int free = props.getMaxInFlight() - running.size();
+            if (free <= 0) {
+                return;
+            }
+
+            List<IngestionJob> claimed = jobs.claim(workerId, Math.min(free, props.getClaimBatchSize()));
+
+            for (IngestionJob job : claimed) {
+                dispatch(job);
+            }
+        } catch (Exception e) {
+            log.error("event=job_poll_error worker={} message={}", workerId, e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(IngestionJob job) {
+        running.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            running.remove(job.getId());
+            jobs.release(job, workerId);
+
+            log.warn(
+                    "event=job_released requestId={} jobId={} reason=executor_rejected",
+                    job.getRequestId(),
+                    job.getId()
+            );
+        }
+    }
+
+    void run(IngestionJob job) {
+        MDC.put(MDC_REQUEST_ID, job.getRequestId());
+        Path file = job.getFilePath() == null ? null : Path.of(job.getFilePath());
+
+        try {
+            if (job.getKind() == IngestionJob.Kind.ARCHIVE) {
+                long started = System.nanoTime();
+                ArchiveIngestionService.Result result = archives.ingest(job, file);
+                progress.stage(job, IngestionProgressStore.Stage.EXTRACT,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                jobs.finishArchive(job, workerId, result.accepted(), result.note());
+            } else if (job.getKind() == IngestionJob.Kind.REEMBED) {
+                reembed.reembedModule(job.getModule());
+                jobs.complete(job, workerId);
+            } else {
+                progress.processed(job, process(job, file));
+                jobs.complete(job, workerId);
+            }
+
+            deleteFile(file);
+            meterRegistry.counter(METRIC_JOBS, "outcome", "done").increment();
+
+        } catch (Exception e) {
+            log.error(
+                    "event=processing_error requestId={} jobId={} file={} attempt={} message={}",
+                    job.getRequestId(),
+                    job.getId(),
+                    job.getEntryPath() != null ? job.getEntryPath() : file,
+                    job.getAttempts(),
+                    e.getMessage(),
+                    e
+            );
+
+            boolean terminal = jobs.fail(job, workerId, e, !(e instanceof IllegalArgumentException));
+
+            if (terminal) {
+                deleteFile(file);
+                meterRegistry.counter(METRIC_JOBS, "outcome", "failed").increment();
+            } else {
+                meterRegistry.counter(METRIC_JOBS, "outcome", "retry").increment();
+            }
+        } finally {
+            running.remove(job.getId());
+            MDC.remove(MDC_REQUEST_ID);
+        }
+    }
+
+    private ProcessingService.Stats process(IngestionJob job, Path file) throws IOException {
+        if (job.getEntryPath() == null) {
+            return processor.process(file, job.getModule(), job.getModuleVersion(),
+                    job.getRepoCloneUrl(), job.getRepoRef(), job.getPathInRepo());
+        }
+
+        // archive entry: inline text, or read back from where it was spilled
+        String content = job.getContent() != null
+                ? job.getContent()
+                : Files.readString(file, StandardCharsets.UTF_8);
+
+        return processor.process(job.getEntryPath(), content, job.getModule(), job.getModuleVersion(),
+                job.getRepoCloneUrl(), job.getRepoRef(), job.getPathInRepo());
+    }
+
+    private void deleteFile(Path file) {
+        if (file != null) {
+            storage.delete(file);
+        }
+    }
+
+    private void heartbeatIfDue() {
+        Instant now = Instant.now();
+
+        if (running.isEmpty() || now.isBefore(lastHeartbeat.plus(props.getVisibilityTimeout().dividedBy(3)))) {
+            return;
+        }
+
+        jobs.heartbeat(workerId, List.copyOf(running.keySet()));
+        lastHeartbeat = now;
+    }
+
+    int inFlight() {
+        return running.size();
+    }
+
+    String getWorkerId() {
+        return workerId;
+    }
+
+    private static String workerId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,345 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionProgressProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Progress of recent uploads, served by {@code GET /api/jobs/{id}}.
+ *
+ * Kept in memory and updated on every job transition ({@link IngestionJobService})
+ * and with the stage timings and chunk/token counts the worker measures, so
+ * polling does not read {@code ingestion_jobs} for every request. The store only
+ * sees jobs enqueued and run on this node: while an upload is unfinished its job
+ * counts are checked against the database at most once per
+ * {@code ingestion.progress.refresh-interval}, which also covers uploads received
+ * by another node (without per-file details).
+ *
+ * Holds the {@code max-uploads} most recently used uploads and, per upload, the
+ * first {@code max-files-per-upload} files; counts and totals cover all files.
+ */
+@Service
+public class IngestionProgressStore {
+
+    public enum Stage { STORE, EXTRACT, TOKENIZE, EMBED, PERSIST }
+
+    private static final IngestionJob.Status[] STATUSES = IngestionJob.Status.values();
+    private static final Stage[] STAGES = Stage.values();
+
+    private final IngestionProgressProperties props;
+    private final Map<String, Upload> uploads;
+
+    public IngestionProgressStore(IngestionProgressProperties props) {
+        this.props = props;
+        this.uploads = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Upload> eldest) {
+                return size() > props.getMaxUploads();
+            }
+        });
+    }
+
+    /**
+     * Per-file view; {@code stageMillis} holds the stages that ran for the file.
+     */
+    public record FileProgress(UUID jobId,
+                               String name,
+                               IngestionJob.Kind kind,
+                               IngestionJob.Status status,
+                               int chunks,
+                               long tokens,
+                               int cacheHits,
+                               Map<Stage, Long> stageMillis,
+                               String error) { }
+
+    /**
+     * @param status         PENDING until a job was claimed, RUNNING while any job is
+     *                       unfinished, then DONE, or FAILED if any job failed
+     * @param cacheHits      chunks whose vector was reused instead of embedded
+     * @param stageMillis    time spent per stage, summed over all files
+     * @param filesTruncated more files than {@code max-files-per-upload}, or files
+     *                       only known from the database
+     */
+    public record Snapshot(String id,
+                           IngestionJob.Status status,
+                           Instant createdAt,
+                           Instant updatedAt,
+                           Map<IngestionJob.Status, Long> counts,
+                           long chunks,
+                           long tokens,
+                           long cacheHits,
+                           Map<Stage, Long> stageMillis,
+                           List<FileProgress> files,
+                           boolean filesTruncated) { }
+
+    // ---------- updates ----------
+
+    /** Newly persisted PENDING jobs. */
+    void queued(Collection<IngestionJob> jobs) {
+        for (IngestionJob job : jobs) {
+            Upload upload = uploads.compute(job.getRequestId(),
+                    (id, known) -> known != null && known.local ? known : new Upload(id, true));
+            synchronized (upload) {
+                upload.add(job, props.getMaxFilesPerUpload());
+            }
+        }
+    }
+
+    /** Status change of a job; {@code from} counts for files not tracked one by one. */
+    void moved(IngestionJob job, IngestionJob.Status from, IngestionJob.Status to, String error) {
+        Upload upload = local(job);
+        if (upload == null) return;
+
+        synchronized (upload) {
+            upload.move(job.getId(), from, to, error);
+        }
+    }
+
+    /** Time the upload request spent storing the file; names it after the uploaded file. */
+    public void stored(IngestionJob job, String originalName, long millis) {
+        Upload upload = local(job);
+        if (upload == null) return;
+
+        synchronized (upload) {
+            File file = upload.files.get(job.getId());
+            if (file != null && originalName != null) file.name = originalName;
+            upload.addStage(file, Stage.STORE, millis);
+        }
+    }
+
+    public void stage(IngestionJob job, Stage stage, long millis) {
+        Upload upload = local(job);
+        if (upload == null) return;
+
+        synchronized (upload) {
+            upload.addStage(upload.files.get(job.getId()), stage, millis);
+        }
+    }
+
+    public void processed(IngestionJob job, ProcessingService.Stats stats) {
+        Upload upload = local(job);
+        if (upload == null || stats == null) return;
+
+        synchronized (upload) {
+            File file = upload.files.get(job.getId());
+            upload.chunks += stats.chunks();
+            upload.tokens += stats.tokens();
+            upload.cacheHits += stats.cacheHits();
+            if (file != null) {
+                file.chunks += stats.chunks();
+                file.tokens += stats.tokens();
+                file.cacheHits += stats.cacheHits();
+            }
+            upload.addStage(file, Stage.TOKENIZE, stats.tokenizeMillis());
+            upload.addStage(file, Stage.EMBED, stats.embedMillis());
+            upload.addStage(file, Stage.PERSIST, stats.persistMillis());
+        }
+    }
+
+    private Upload local(IngestionJob job) {
+        Upload upload = uploads.get(job.getRequestId());
+        return upload != null && upload.local ? upload : null;
+    }
+
+    // ---------- reads ----------
+
+    /**
+     * @param storedCounts job counts per status from the database, empty for an
+     *                     unknown upload; only called when a refresh is due
+     */
+    public Optional<Snapshot> snapshot(String uploadId, Supplier<Map<IngestionJob.Status, Long>> storedCounts) {
+        Upload upload = uploads.get(uploadId);
+
+        if (upload == null) {
+            Map<IngestionJob.Status, Long> counts = storedCounts.get();
+            if (counts.isEmpty()) return Optional.empty();
+
+            upload = uploads.computeIfAbsent(uploadId, id -> new Upload(id, false));
+            synchronized (upload) {
+                upload.refreshed(counts, Instant.now());
+            }
+        } else if (refreshDue(upload)) {
+            Map<IngestionJob.Status, Long> counts = storedCounts.get();
+            synchronized (upload) {
+                upload.refreshed(counts, Instant.now());
+            }
+        }
+
+        synchronized (upload) {
+            return Optional.of(upload.snapshot());
+        }
+    }
+
+    /* claims the refresh, so concurrent polls of one upload trigger a single read */
+    private boolean refreshDue(Upload upload) {
+        synchronized (upload) {
+            if (upload.finished()) return false;
+
+            Instant now = Instant.now();
+            if (upload.refreshedAt.plus(props.getRefreshInterval()).isAfter(now)) {
+                return false;
+            }
+            upload.refreshedAt = now;
+            return true;
+        }
+    }
+
+    // ---------- state, guarded by the Upload monitor ----------
+
+    private static final class File {
+        private final UUID jobId;
+        private final IngestionJob.Kind kind;
+        private String name;
+        private IngestionJob.Status status = IngestionJob.Status.PENDING;
+        private int chunks;
+        private long tokens;
+        private int cacheHits;
+        private final long[] stageMillis = new long[STAGES.length];
+        private String error;
+
+        private File(IngestionJob job) {
+            this.jobId = job.getId();
+            this.kind = job.getKind();
+            this.name = name(job);
+        }
+
+        private static String name(IngestionJob job) {
+            if (job.getEntryPath() != null) return job.getEntryPath();
+            if (job.getOriginalName() != null) return job.getOriginalName();
+            return job.getFilePath() == null ? null : Path.of(job.getFilePath()).getFileName().toString();
+        }
+    }
+
+    private static final class Upload {
+        private final String id;
+        private final boolean local;   // false = only known from the database
+        private final Instant createdAt = Instant.now();
+        private Instant updatedAt = createdAt;
+
+        private final Map<UUID, File> files = new LinkedHashMap<>();
+        private final long[] counts = new long[STATUSES.length];
+        private long chunks;
+        private long tokens;
+        private long cacheHits;
+        private final long[] stageMillis = new long[STAGES.length];
+
+        private long[] storedCounts;   // last read from ingestion_jobs
+        private Instant refreshedAt = createdAt;
+
+        private Upload(String id, boolean local) {
+            this.id = id;
+            this.local = local;
+        }
+
+        private void add(IngestionJob job, int maxFiles) {
+            if (files.size() < maxFiles) {
+                files.put(job.getId(), new File(job));
+            }
+            counts[IngestionJob.Status.PENDING.ordinal()]++;
+            updatedAt = Instant.now();
+        }
+
+        private void move(UUID jobId, IngestionJob.Status from, IngestionJob.Status to, String error) {
+            File file = files.get(jobId);
+            if (file != null) {
+                from = file.status;
+                file.status = to;
+                file.error = error;
+            }
+            if (from == to) return;
+
+            counts[from.ordinal()]--;
+            counts[to.ordinal()]++;
+            updatedAt = Instant.now();
+        }
+
+        private void addStage(File file, Stage stage, long millis) {
+            stageMillis[stage.ordinal()] += millis;
+            if (file != null) file.stageMillis[stage.ordinal()] += millis;
+            updatedAt = Instant.now();
+        }
+
+        private void refreshed(Map<IngestionJob.Status, Long> stored, Instant now) {
+            long[] values = new long[STATUSES.length];
+            stored.forEach((status, count) -> values[status.ordinal()] = count);
+            storedCounts = values;
+            refreshedAt = now;
+        }
+
+        /* the database wins once it knows of more jobs or more finished jobs than this node saw */
+        private long[] effectiveCounts() {
+            if (storedCounts == null) return counts;
+            if (!local) return storedCounts;
+
+            boolean storedAhead = total(storedCounts) > total(counts)
+                    || finished(storedCounts) > finished(counts);
+            return storedAhead ? storedCounts : counts;
+        }
+
+        private boolean finished() {
+            long[] effective = effectiveCounts();
+            return total(effective) > 0 && finished(effective) == total(effective);
+        }
+
+        private Snapshot snapshot() {
+            long[] effective = effectiveCounts();
+
+            Map<IngestionJob.Status, Long> countMap = new EnumMap<>(IngestionJob.Status.class);
+            for (IngestionJob.Status status : STATUSES) {
+                countMap.put(status, effective[status.ordinal()]);
+            }
+
+            List<FileProgress> fileViews = new ArrayList<>(files.size());
+            for (File file : files.values()) {
+                fileViews.add(new FileProgress(file.jobId, file.name, file.kind, file.status,
+                        file.chunks, file.tokens, file.cacheHits, stageMap(file.stageMillis, true), file.error));
+            }
+
+            return new Snapshot(id, status(effective), createdAt, updatedAt, countMap,
+                    chunks, tokens, cacheHits, stageMap(stageMillis, false),
+                    fileViews, files.size() < total(effective));
+        }
+
+        private static IngestionJob.Status status(long[] counts) {
+            long total = total(counts);
+            long pending = counts[IngestionJob.Status.PENDING.ordinal()];
+
+            if (pending == total) return IngestionJob.Status.PENDING;
+            if (finished(counts) < total) return IngestionJob.Status.RUNNING;
+            return counts[IngestionJob.Status.FAILED.ordinal()] > 0
+                    ? IngestionJob.Status.FAILED
+                    : IngestionJob.Status.DONE;
+        }
+
+        private static Map<Stage, Long> stageMap(long[] millis, boolean skipZero) {
+            Map<Stage, Long> map = new EnumMap<>(Stage.class);
+            for (Stage stage : STAGES) {
+                if (!skipZero || millis[stage.ordinal()] > 0) map.put(stage, millis[stage.ordinal()]);
+            }
+            return map;
+        }
+
+        private static long total(long[] counts) {
+            long total = 0;
+            for (long count : counts) total += count;
+            return total;
+        }
+
+        private static long finished(long[] counts) {
+            return counts[IngestionJob.Status.DONE.ordinal()] + counts[IngestionJob.Status.FAILED.ordinal()];
+        }
+    }
+}
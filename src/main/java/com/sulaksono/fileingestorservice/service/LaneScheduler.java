@@ -0,0 +1,79 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Decides which lane the next claims of a worker come from (stride scheduling).
+ *
+ * Every lane has a pass value that advances by {@code 1 / weight} per claimed
+ * job, and the open lane with the lowest pass goes next, so lanes with work
+ * share the claims in proportion to their weights. A lane that turns out to
+ * have no work is skipped for the rest of the claim and rejoins at the current
+ * pass, so it does not bank credit while idle and cannot starve the others
+ * once work arrives. Ties go to the lane declared first (INTERACTIVE).
+ *
+ * A turn lasts until the lane would overtake the runner-up, but is never
+ * shorter than the lane's weighted share of what is left of the claim, so
+ * tied lanes are served in a few batches instead of one job at a time.
+ */
+final class LaneScheduler {
+
+    private static final IngestionJob.Lane[] LANES = IngestionJob.Lane.values();
+
+    private final double[] pass = new double[LANES.length];
+    private double clock;   // pass of the lane served last
+
+    /** Up to {@code jobs} claims from {@code lane} before another lane is due. */
+    record Turn(IngestionJob.Lane lane, int jobs) { }
+
+    synchronized Turn next(Set<IngestionJob.Lane> open, int remaining, Map<IngestionJob.Lane, Integer> weights) {
+        IngestionJob.Lane best = null;
+        IngestionJob.Lane second = null;
+        long openWeight = 0;
+
+        for (IngestionJob.Lane lane : LANES) {
+            if (!open.contains(lane)) continue;
+
+            openWeight += weight(lane, weights);
+
+            if (best == null || pass[lane.ordinal()] < pass[best.ordinal()]) {
+                second = best;
+                best = lane;
+            } else if (second == null || pass[lane.ordinal()] < pass[second.ordinal()]) {
+                second = lane;
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException("no open lane");
+        }
+
+        if (second == null) {
+            return new Turn(best, remaining);
+        }
+
+        int weight = weight(best, weights);
+        double lead = pass[second.ordinal()] - pass[best.ordinal()];
+        long untilOvertaken = (long) Math.floor(lead * weight) + 1;
+        long share = (remaining * (long) weight + openWeight - 1) / openWeight;
+        return new Turn(best, (int) Math.min(remaining, Math.max(untilOvertaken, share)));
+    }
+
+    synchronized void served(IngestionJob.Lane lane, int jobs, Map<IngestionJob.Lane, Integer> weights) {
+        if (jobs == 0) return;
+
+        clock = Math.max(clock, pass[lane.ordinal()]);
+        pass[lane.ordinal()] += jobs / (double) weight(lane, weights);
+    }
+
+    synchronized void idle(IngestionJob.Lane lane) {
+        pass[lane.ordinal()] = Math.max(pass[lane.ordinal()], clock);
+    }
+
+    private static int weight(IngestionJob.Lane lane, Map<IngestionJob.Lane, Integer> weights) {
+        Integer weight = weights.get(lane);
+        return weight == null ? 1 : Math.max(1, weight);
+    }
+}
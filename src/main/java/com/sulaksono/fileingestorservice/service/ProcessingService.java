@@ -2,26 +2,28 @@ package com.sulaksono.fileingestorservice.service;
 
 import com.sulaksono.fileingestorservice.config.VectorProperties;
 import com.sulaksono.fileingestorservice.model.CanonicalFile;
-import com.sulaksono.fileingestorservice.model.FileEmbedding;
 import com.sulaksono.fileingestorservice.model.FileType;
 import com.sulaksono.fileingestorservice.repository.CanonicalFileRepository;
-import com.sulaksono.fileingestorservice.repository.FileEmbeddingRepository;
+import com.sulaksono.fileingestorservice.util.ContentHashUtil;
 import com.sulaksono.fileingestorservice.util.FileTypeResolver;
-import com.sulaksono.fileingestorservice.util.TokenizerUtil;
-import jakarta.transaction.Transactional;
+import com.sulaksono.fileingestorservice.util.TokenChunker;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -31,23 +33,57 @@ public class ProcessingService {
 
     private static final String MDC_REQUEST_ID = "requestId";
     private static final int MODEL_TOKEN_LIMIT = 8191;
-    private static final String DEFAULT_REPO_REF = "master";
+
+    static final String METRIC_FILES_PROCESSED = "ingestion.files.processed";
+    static final String METRIC_FILES_SKIPPED = "ingestion.files.skipped";
+    static final String METRIC_CHUNKS_REUSED = "ingestion.chunks.reused";
+    static final String METRIC_CHUNKS_EMBEDDED = "ingestion.chunks.embedded";
 
     private final EmbeddingService embeddingService;
-    private final FileEmbeddingRepository embeddingRepository;
+    private final EmbeddingPersistenceService persistence;
     private final CanonicalFileRepository canonicalFileRepository;
+    private final MeterRegistry meterRegistry;
     private final VectorProperties vecProps;
     private final FileStorageService storage;
+    private final ConcurrencyLimiter limiter;
+
+    /**
+     * What processing one file took, for {@link IngestionProgressStore}.
+     *
+     * @param tokens    token count of the file text
+     * @param cacheHits chunks whose vector was reused from the stored file or
+     *                  {@link EmbeddingCache} instead of being embedded
+     */
+    public record Stats(int chunks,
+                        long tokens,
+                        int cacheHits,
+                        long tokenizeMillis,
+                        long embedMillis,
+                        long persistMillis) {
+
+        /** skipped file: empty or unchanged content */
+        static final Stats NONE = new Stats(0, 0, 0, 0, 0, 0);
+    }
 
-    @Async("asyncExecutor")
-    @Transactional
-    public void processAsync(
+    /**
+     * Reads, chunks and embeds the file without holding a database connection,
+     * then hands the result to {@link EmbeddingPersistenceService} for a short
+     * write transaction. Re-uploads whose normalized content hash matches the
+     * stored canonical file are skipped before chunking; otherwise only chunks
+     * whose text hash is not already stored for the file are sent to the model.
+     *
+     * Called by {@link IngestionJobWorker}; failures are thrown so the job can be
+     * retried, and the stored file is left in place for that retry.
+     *
+     * @return chunk counts and stage timings; {@link Stats#NONE} for a skipped file
+     */
+    public Stats process(
             Path filePath,
             String module,
             String moduleVersion,
             String repoCloneUrl,
             String repoRef,
-            String pathInRepo) {
+            String pathInRepo) throws IOException {
 
         String requestId = MDC.get(MDC_REQUEST_ID);
 
@@ -59,97 +95,152 @@ public class ProcessingService {
                 moduleVersion
         );
 
-        try {
-            validateInput(filePath, moduleVersion);
+        validateInput(filePath, moduleVersion);
 
-            String fileName = filePath.getFileName().toString();
-            FileType type = FileTypeResolver.resolve(fileName);
+        String rawText = Files.readString(filePath, StandardCharsets.UTF_8);
 
-            String rawText = Files.readString(filePath, StandardCharsets.UTF_8);
+        log.debug(
+                "event=file_read requestId={} file={} size={}chars",
+                requestId,
+                filePath,
+                rawText.length()
+        );
 
-            log.debug(
-                    "event=file_read requestId={} file={} size={}chars",
-                    requestId,
-                    filePath,
-                    rawText.length()
-            );
+        return ingest(requestId, filePath.getFileName().toString(), resolveTrimmedPath(filePath), rawText,
+                module, moduleVersion, repoCloneUrl, repoRef, pathInRepo);
+    }
 
-            if (rawText.isBlank()) {
-                log.info(
-                        "event=processing_skipped requestId={} file={} reason=empty_content",
-                        requestId,
-                        filePath
-                );
-                return;
-            }
+    /**
+     * Same pipeline for content that never touched disk, e.g. a ZIP entry decoded
+     * in memory at upload time.
+     *
+     * @param path logical path of the content ('/' separated, e.g. the entry name);
+     *             trimmed to {@code vector.include-path-depth} like a stored file's path
+     */
+    public Stats process(
+            String path,
+            String content,
+            String module,
+            String moduleVersion,
+            String repoCloneUrl,
+            String repoRef,
+            String pathInRepo) {
 
-            String trimmedPath = resolveTrimmedPath(filePath);
+        String requestId = MDC.get(MDC_REQUEST_ID);
 
-            CanonicalFile canonical = upsertCanonicalFile(
-                    requestId,
-                    fileName,
-                    trimmedPath,
-                    module,
-                    moduleVersion,
-                    type,
-                    repoCloneUrl,
-                    repoRef,
-                    pathInRepo,
-                    rawText
-            );
+        log.debug(
+                "event=processing_start requestId={} entry={} module={} version={} size={}chars",
+                requestId,
+                path,
+                module,
+                moduleVersion,
+                content == null ? 0 : content.length()
+        );
 
-            List<String> chunks = splitIntoChunks(
-                    rawText,
-                    vecProps.getChunkSizeTokens(),
-                    vecProps.getChunkOverlapTokens()
-            );
+        if (!StringUtils.hasText(path) || content == null) {
+            throw new IllegalArgumentException("path and content cannot be null");
+        }
 
-            chunks = applyMaxChunksLimit(
-                    requestId,
-                    trimmedPath,
-                    chunks,
-                    vecProps.getMaxChunksPerFile()
-            );
+        Path logical = Path.of(path).normalize();
+        validateInput(logical, moduleVersion);
 
-            log.debug(
-                    "event=token_split requestId={} file={} chunks={} window={} overlap={}",
-                    requestId,
-                    filePath,
-                    chunks.size(),
-                    vecProps.getChunkSizeTokens(),
-                    vecProps.getChunkOverlapTokens()
-            );
+        return ingest(requestId, logical.getFileName().toString(), trimDepth(logical, vecProps.getIncludePathDepth()), content,
+                module, moduleVersion, repoCloneUrl, repoRef, pathInRepo);
+    }
 
-            persistEmbeddings(
+    private Stats ingest(
+            String requestId,
+            String fileName,
+            String trimmedPath,
+            String rawText,
+            String module,
+            String moduleVersion,
+            String repoCloneUrl,
+            String repoRef,
+            String pathInRepo) {
+
+        FileType type = FileTypeResolver.resolve(fileName);
+
+        if (rawText.isBlank()) {
+            log.info(
+                    "event=processing_skipped requestId={} file={} reason=empty_content",
                     requestId,
-                    fileName,
-                    trimmedPath,
-                    module,
-                    moduleVersion,
-                    type,
-                    chunks,
-                    canonical
+                    trimmedPath
             );
+            return Stats.NONE;
+        }
+
+        String contentHash = ContentHashUtil.sha256(rawText);
 
+        if (canonicalFileRepository.existsUnchanged(module, moduleVersion, trimmedPath, contentHash)) {
+            meterRegistry.counter(METRIC_FILES_SKIPPED, "reason", "unchanged").increment();
             log.info(
-                    "event=processing_complete requestId={} file={} module={} chunks={}",
+                    "event=processing_skipped requestId={} file={} module={} version={} reason=unchanged_content hash={}",
                     requestId,
                     trimmedPath,
                     module,
-                    chunks.size()
-            );
-
-        } catch (Exception e) {
-            log.error(
-                    "event=processing_error requestId={} file={} message={}",
-                    requestId,
-                    filePath,
-                    e.getMessage(),
-                    e
+                    moduleVersion,
+                    contentHash
             );
-        } finally {
-            deleteLocalFileQuietly(requestId, filePath);
+            return Stats.NONE;
         }
+
+        long started = System.nanoTime();
+        TokenChunker.Result split = splitIntoChunks(
+                requestId,
+                trimmedPath,
+                rawText,
+                vecProps.getChunkSizeTokens(),
+                vecProps.getChunkOverlapTokens(),
+                vecProps.getMaxChunksPerFile()
+        );
+        List<String> chunks = split.texts();
+        long tokenized = System.nanoTime();
+
+        log.debug(
+                "event=token_split requestId={} file={} chunks={} window={} overlap={}",
+                requestId,
+                trimmedPath,
+                chunks.size(),
+                vecProps.getChunkSizeTokens(),
+                vecProps.getChunkOverlapTokens()
+        );
+
+        // embed outside any transaction; the DB is only touched in the write phase
+        Prepared prepared = prepareChunks(requestId, trimmedPath, module, moduleVersion, type, chunks);
+        long embedded = System.nanoTime();
+
+        CanonicalFile file = new CanonicalFile(
+                fileName,
+                trimmedPath,
+                module,
+                moduleVersion,
+                type,
+                repoCloneUrl,
+                repoRef,
+                pathInRepo,
+                rawText
+        );
+        file.setContentHash(contentHash);
+
+        limiter.withDbWritePermit(() -> persistence.persist(file, prepared.chunks()));
+        long persisted = System.nanoTime();
+        meterRegistry.counter(METRIC_FILES_PROCESSED).increment();
+
+        log.info(
+                "event=processing_complete requestId={} file={} module={} chunks={}",
+                requestId,
+                trimmedPath,
+                module,
+                chunks.size()
+        );
+
+        return new Stats(chunks.size(), split.totalTokens(), prepared.cacheHits(),
+                millis(started, tokenized), millis(tokenized, embedded), millis(embedded, persisted));
+    }
+
+    private static long millis(long fromNanos, long toNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(toNanos - fromNanos);
     }
 
     private void validateInput(Path filePath, String moduleVersion) {
@@ -176,86 +267,78 @@ public class ProcessingService {
         return trimDepth(relative.normalize(), vecProps.getIncludePathDepth());
     }
 
-    private CanonicalFile upsertCanonicalFile(
+    private record Prepared(List<EmbeddingPersistenceService.PreparedChunk> chunks, int cacheHits) { }
+
+    /**
+     * Pairs every chunk with its hash and vector. Vectors already stored for the
+     * same chunk text are reused; only the remaining chunks are embedded, in one
+     * batched call.
+     */
+    private Prepared prepareChunks(
             String requestId,
-            String fileName,
             String trimmedPath,
             String module,
             String moduleVersion,
             FileType type,
-            String repoCloneUrl,
-            String repoRef,
-            String pathInRepo,
-            String rawText) {
-
-        CanonicalFile canonical = canonicalFileRepository
-                .findByModuleAndModuleVersionAndPathNullSafe(module, moduleVersion, trimmedPath)
-                .orElseGet(CanonicalFile::new);
-
-        canonical.setFileName(fileName);
-        canonical.setPath(trimmedPath);
-        canonical.setModule(module);
-        canonical.setModuleVersion(moduleVersion);
-        canonical.setFileType(type);
-        canonical.setRepoCloneUrl(repoCloneUrl);
-        canonical.setRepoRef(StringUtils.hasText(repoRef) ? repoRef : DEFAULT_REPO_REF);
-        canonical.setPathInRepo(pathInRepo);
-        canonical.setContent(rawText);
-        canonical.setDeprecated(false);
-
-        CanonicalFile saved = canonicalFileRepository.save(canonical);
+            List<String> chunks) {
 
-        log.info(
-                "event=canonical_file_upserted requestId={} path={} module={} version={} id={}",
-                requestId,
-                trimmedPath,
-                module,
-                moduleVersion,
-                saved.getId()
-        );
-
-        return saved;
-    }
+        int total = chunks.size();
+        List<String> hashes = new ArrayList<>(total);
+        for (String chunk : chunks) {
+            hashes.add(ContentHashUtil.sha256(chunk));
+        }
 
-    private List<String> applyMaxChunksLimit(
-            String requestId,
-            String trimmedPath,
-            List<String> chunks,
-            int maxChunks) {
+        Map<String, float[]> stored = persistence.findVectorsByChunkHash(module, moduleVersion, trimmedPath);
 
-        int originalChunks = chunks.size();
+        List<Integer> missing = new ArrayList<>();
+        for (int idx = 0; idx < total; idx++) {
+            if (!stored.containsKey(hashes.get(idx))) {
+                missing.add(idx);
+            }
+        }
 
-        if (maxChunks > 0 && originalChunks > maxChunks) {
-            log.info(
-                    "event=file_truncated requestId={} file={} originalChunks={} processedChunks={} skippedChunks={}",
-                    requestId,
-                    trimmedPath,
-                    originalChunks,
-                    maxChunks,
-                    originalChunks - maxChunks
-            );
+        AtomicInteger sent = new AtomicInteger();
+        List<float[]> fresh = missing.isEmpty()
+                ? List.of()
+                : embedChunks(trimmedPath, module, type, chunks, missing, sent);
 
-            return new ArrayList<>(chunks.subList(0, maxChunks));
+        List<EmbeddingPersistenceService.PreparedChunk> prepared = new ArrayList<>(total);
+        int next = 0;
+        for (int idx = 0; idx < total; idx++) {
+            float[] vector = stored.get(hashes.get(idx));
+            if (vector == null) {
+                vector = fresh.get(next++);
+            }
+            prepared.add(new EmbeddingPersistenceService.PreparedChunk(chunks.get(idx), hashes.get(idx), vector));
         }
 
-        return chunks;
+        meterRegistry.counter(METRIC_CHUNKS_REUSED).increment(total - missing.size());
+        meterRegistry.counter(METRIC_CHUNKS_EMBEDDED).increment(missing.size());
+
+        log.debug(
+                "event=chunks_prepared requestId={} file={} chunks={} reused={} embedded={}",
+                requestId,
+                trimmedPath,
+                total,
+                total - missing.size(),
+                missing.size()
+        );
+
+        return new Prepared(prepared, total - sent.get());
     }
 
-    private void persistEmbeddings(
-            String requestId,
-            String fileName,
+    private List<float[]> embedChunks(
             String trimmedPath,
             String module,
-            String moduleVersion,
             FileType type,
             List<String> chunks,
-            CanonicalFile canonicalFile) {
+            List<Integer> indices,
+            AtomicInteger sent) {
 
         int total = chunks.size();
+        List<String> inputs = new ArrayList<>(indices.size());
 
-        for (int idx = 0; idx < total; idx++) {
-            String chunk = chunks.get(idx);
-
+        for (int idx : indices) {
             String header = """
                     ### path: %s
                     ### type: %s
@@ -265,85 +348,37 @@ public class ProcessingService {
                     ###
                     """.formatted(trimmedPath, type, module, idx + 1, total);
 
-            float[] vector = embeddingService.generateEmbedding(header + chunk);
-
-            embeddingRepository.save(new FileEmbedding(
-                    fileName,
-                    trimmedPath,
-                    module,
-                    idx,
-                    total,
-                    type,
-                    vector,
-                    chunk,
-                    moduleVersion,
-                    canonicalFile
-            ));
-
-            log.info(
-                    "event=chunk_persisted requestId={} file={} chunkIdx={}/{}",
-                    requestId,
-                    fileName,
-                    idx + 1,
-                    total
-            );
+            inputs.add(header + chunks.get(idx));
         }
-    }
 
-    private void deleteLocalFileQuietly(String requestId, Path filePath) {
-        if (filePath == null) {
-            return;
-        }
-
-        try {
-            if (Files.deleteIfExists(filePath)) {
-                log.debug(
-                        "event=file_delete requestId={} file={} result=deleted",
-                        requestId,
-                        filePath
-                );
-            } else {
-                log.debug(
-                        "event=file_delete requestId={} file={} result=not_found",
-                        requestId,
-                        filePath
-                );
-            }
-        } catch (Exception e) {
-            log.debug(
-                    "event=file_delete_failed requestId={} file={} message={}",
-                    requestId,
-                    filePath,
-                    e.getMessage()
-            );
-        }
+        return embeddingService.generateEmbeddings(inputs, sent::addAndGet);
     }
 
-    private List<String> splitIntoChunks(String text, int configuredWindow, int configuredOverlap) {
+    private TokenChunker.Result splitIntoChunks(
+            String requestId,
+            String trimmedPath,
+            String text,
+            int configuredWindow,
+            int configuredOverlap,
+            int maxChunks) {
+
         int window = normalizeWindow(configuredWindow);
         int overlap = normalizeOverlap(configuredOverlap, window);
 
-        int totalTokens = TokenizerUtil.countTokens(text);
-
-        if (totalTokens <= window) {
-            return List.of(text);
-        }
-
-        List<String> out = new ArrayList<>();
-        int start = 0;
-
-        while (start < totalTokens) {
-            int end = Math.min(start + window, totalTokens);
-            out.add(TokenizerUtil.slice(text, start, end));
+        TokenChunker.Result result = TokenChunker.split(text, window, overlap, Math.max(0, maxChunks));
 
-            if (end == totalTokens) {
-                break;
-            }
-
-            start = end - overlap;
+        if (result.truncated()) {
+            log.info(
+                    "event=file_truncated requestId={} file={} originalChunks={} processedChunks={} skippedChunks={}",
+                    requestId,
+                    trimmedPath,
+                    result.totalWindows(),
+                    result.chunks().size(),
+                    result.totalWindows() - result.chunks().size()
+            );
         }
 
-        return out;
+        return result;
     }
 
     private int normalizeWindow(int configuredWindow) {
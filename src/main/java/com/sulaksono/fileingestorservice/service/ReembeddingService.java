@@ -6,17 +6,19 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.MDC;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 /**
  * Re-generates embeddings when metadata changes, for example deprecated flag updates.
  *
- * Runs asynchronously so the admin endpoint can return immediately.
+ * Runs as a REEMBED job of the ingestion queue ({@code IngestionJobWorker}), so the
+ * admin endpoint returns immediately and the work shares the workers with uploads
+ * through the REEMBED lane.
  */
 @Service
 @RequiredArgsConstructor
@@ -28,7 +30,6 @@ public class ReembeddingService {
     private final FileEmbeddingRepository repo;
     private final EmbeddingService embedSvc;
 
-    @Async("asyncExecutor")
     @Transactional
     public void reembedModule(String module) {
         String requestId = MDC.get(MDC_REQUEST_ID);
@@ -51,9 +52,7 @@ public class ReembeddingService {
                     rows.size()
             );
 
-            for (FileEmbedding row : rows) {
-                reembedRow(requestId, row);
-            }
+            reembedRows(requestId, rows);
 
             log.info(
                     "event=reembed_complete requestId={} module={} rows={}",
@@ -83,47 +82,91 @@ public class ReembeddingService {
         return rows == null ? Collections.emptyList() : rows;
     }
 
-    private void reembedRow(String requestId, FileEmbedding row) {
-        if (row == null) {
-            log.warn("event=row_reembed_skipped requestId={} reason=null_row", requestId);
+    /**
+     * Re-embeds rows in groups of {@code azure.openai.embedding-batch-max-inputs},
+     * one request per group. A failing group is logged and skipped so the rest
+     * of the module is still processed.
+     */
+    private void reembedRows(String requestId, List<FileEmbedding> rows) {
+        List<FileEmbedding> valid = new ArrayList<>(rows.size());
+
+        for (FileEmbedding row : rows) {
+            if (row == null) {
+                log.warn("event=row_reembed_skipped requestId={} reason=null_row", requestId);
+                continue;
+            }
+            valid.add(row);
+        }
+
+        if (valid.isEmpty()) {
             return;
         }
 
+        int groupSize = Math.max(1, embedSvc.getBatchMaxInputs());
+
+        for (int from = 0; from < valid.size(); from += groupSize) {
+            reembedGroup(requestId, valid.subList(from, Math.min(from + groupSize, valid.size())));
+        }
+    }
+
+    private void reembedGroup(String requestId, List<FileEmbedding> group) {
         try {
-            String content = row.getContent() == null ? "" : row.getContent();
-
-            String header = """
-                    ### path: %s
-                    ### type: %s
-                    ### module: %s
-                    ### deprecated: %s
-                    ###
-                    """.formatted(
-                    row.getPath(),
-                    row.getFileType(),
-                    row.getModule(),
-                    row.isDeprecated()
-            );
+            List<String> inputs = new ArrayList<>(group.size());
 
-            float[] vector = embedSvc.generateEmbedding(header + content);
+            for (FileEmbedding row : group) {
+                inputs.add(embeddingInput(row));
+            }
 
-            row.setEmbedding(vector);
-            repo.save(row);
+            List<float[]> vectors = embedSvc.generateEmbeddings(inputs);
 
-            log.debug(
-                    "event=row_reembedded requestId={} fileName={} path={}",
-                    requestId,
-                    row.getFileName(),
-                    row.getPath()
-            );
+            for (int i = 0; i < group.size(); i++) {
+                FileEmbedding row = group.get(i);
+
+                row.setEmbedding(vectors.get(i));
+                repo.save(row);
+
+                log.debug(
+                        "event=row_reembedded requestId={} fileName={} path={}",
+                        requestId,
+                        row.getFileName(),
+                        row.getPath()
+                );
+            }
         } catch (Exception e) {
             log.error(
-                    "event=row_reembed_error requestId={} fileName={} message={}",
+                    "event=group_reembed_error requestId={} rows={} message={}",
                     requestId,
-                    row.getFileName(),
+                    group.size(),
                     e.getMessage(),
                     e
             );
+
+            for (FileEmbedding row : group) {
+                log.warn(
+                        "event=row_reembed_error requestId={} fileName={}",
+                        requestId,
+                        row.getFileName()
+                );
+            }
         }
     }
-}
\ No newline at end of file
+
+    private String embeddingInput(FileEmbedding row) {
+        String content = row.getContent() == null ? "" : row.getContent();
+
+        String header = """
+                ### path: %s
+                ### type: %s
+                ### module: %s
+                ### deprecated: %s
+                ###
+                """.formatted(
+                row.getPath(),
+                row.getFileType(),
+                row.getModule(),
+                row.isDeprecated()
+        );
+
+        return header + content;
+    }
+}
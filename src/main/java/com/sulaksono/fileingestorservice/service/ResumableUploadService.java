@@ -0,0 +1,393 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.ResumableUploadProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Resumable upload sessions in the style of tus: a session announces the
+ * file's name and length, byte ranges are then written at explicit offsets,
+ * in any order and in parallel, and a complete session is turned into a
+ * stored upload with {@link #finish}.
+ *
+ * A session is a directory under {@code ingestion.resumable.location}: its
+ * metadata plus one file per range, named after the range's start offset.
+ * A range cut short by a broken connection keeps the bytes that arrived, so
+ * the client resumes from {@link Session#offset()} instead of from zero.
+ * Everything lives on disk, so nodes sharing the directory can serve any
+ * request of a session. Sessions without a write for
+ * {@code ingestion.resumable.expiry} are swept.
+ */
+@Service
+public class ResumableUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumableUploadService.class);
+
+    private static final String META_FILE     = "session.properties";
+    private static final String PART_SUFFIX   = ".part";
+    private static final String FIELD_PREFIX  = "field.";
+    private static final String FINISH_SUFFIX = ".finishing";
+
+    private final FileStorageService storage;
+    private final ResumableUploadProperties props;
+    private final Path sessionsDir;
+
+    public ResumableUploadService(FileStorageService storage, ResumableUploadProperties props) {
+        this.storage = storage;
+        this.props = props;
+        this.sessionsDir = StringUtils.hasText(props.getLocation())
+                ? Paths.get(props.getLocation()).toAbsolutePath().normalize()
+                : storage.getRootDir().resolve(".resumable");
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(sessionsDir);
+    }
+
+    /**
+     * @param offset end of the bytes received without a gap from the start;
+     *               the session is complete once it equals {@code length}
+     * @param fields form fields of the upload (module, fileVersion, ...)
+     */
+    public record Session(String id,
+                          String fileName,
+                          long length,
+                          Map<String, String> fields,
+                          Instant createdAt,
+                          long offset) {
+
+        public boolean complete() {
+            return offset == length;
+        }
+    }
+
+    // ---------- session lifecycle ----------
+
+    public Session create(String fileName, long length, Map<String, String> fields) throws IOException {
+        if (length < 0 || length > props.getMaxSize().toBytes()) {
+            throw new IllegalArgumentException("length must be between 0 and " + props.getMaxSize().toBytes());
+        }
+
+        String id = UUID.randomUUID().toString();
+        Path dir = Files.createDirectory(sessionsDir.resolve(id));
+        Instant createdAt = Instant.now();
+
+        Properties meta = new Properties();
+        meta.setProperty("fileName", fileName);
+        meta.setProperty("length", Long.toString(length));
+        meta.setProperty("createdAt", createdAt.toString());
+        fields.forEach((name, value) -> {
+            if (value != null) meta.setProperty(FIELD_PREFIX + name, value);
+        });
+        try (Writer out = Files.newBufferedWriter(dir.resolve(META_FILE), StandardCharsets.UTF_8)) {
+            meta.store(out, null);
+        }
+
+        log.info("event=resumable_created requestId={} sessionId={} fileName={} length={}",
+                MDC.get("requestId"), id, fileName, length);
+
+        return new Session(id, fileName, length, fields(meta), createdAt, 0);
+    }
+
+    public Optional<Session> find(String id) throws IOException {
+        Path dir = sessionDir(id);
+        if (dir == null || !Files.isRegularFile(dir.resolve(META_FILE))) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(read(id, dir));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();   // finished or swept meanwhile
+        }
+    }
+
+    /**
+     * Writes the request body as the range starting at {@code offset}. Writing
+     * the same offset again replaces that range, e.g. when a client retries a
+     * range whose response it never saw.
+     *
+     * @return end offset of the written range
+     * @throws IllegalArgumentException the range does not fit into the announced length
+     * @throws IllegalStateException    the session is gone, or another request is
+     *                                  writing the same range
+     */
+    public long write(Session session, long offset, InputStream in) throws IOException {
+        if (offset < 0 || offset > session.length()) {
+            throw new IllegalArgumentException("offset " + offset + " outside 0.." + session.length());
+        }
+
+        Path dir = sessionDir(session.id());
+        if (dir == null || !Files.isDirectory(dir)) {
+            throw new IllegalStateException("session " + session.id() + " is not available");
+        }
+        Path part = dir.resolve(offset + PART_SUFFIX);
+        long remaining = session.length() - offset;
+        long written = 0;
+
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = tryLock(channel)) {
+
+            if (lock == null) {
+                throw new IllegalStateException("range at " + offset + " is being written");
+            }
+            channel.truncate(0);
+
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            int read;
+            while ((read = in.read(buffer.array())) != -1) {
+                if (written + read > remaining) {
+                    throw new IllegalArgumentException("range at " + offset + " exceeds length " + session.length());
+                }
+                buffer.position(0).limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                written += read;
+            }
+            channel.force(false);
+        }
+
+        log.debug("event=resumable_range requestId={} sessionId={} offset={} bytes={}",
+                MDC.get("requestId"), session.id(), offset, written);
+
+        return offset + written;
+    }
+
+    /* null while another request, on this node or another one, holds the range */
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Joins the ranges of a complete session into one stored upload and
+     * removes the session.
+     *
+     * @throws IllegalStateException the session is unknown, incomplete or already being finished
+     */
+    public FileStorageService.StoredFile finish(Session session) throws IOException {
+        Path dir = sessionDir(session.id());
+        Path claimed = sessionsDir.resolve(session.id() + FINISH_SUFFIX);
+
+        try {
+            // one finisher per session, also across nodes
+            Files.move(dir, claimed, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException | AtomicMoveNotSupportedException e) {
+            throw new IllegalStateException("session " + session.id() + " is not available");
+        }
+
+        try {
+            List<Segment> segments = segments(claimed, session.length());
+            long covered = segments.stream().mapToLong(Segment::count).sum();
+            if (covered < session.length()) {
+                Files.move(claimed, dir, StandardCopyOption.ATOMIC_MOVE);
+                throw new IllegalStateException("session " + session.id() + " has " + covered
+                        + " of " + session.length() + " bytes");
+            }
+
+            FileStorageService.StoredFile stored;
+            try (InputStream in = new SegmentInputStream(segments)) {
+                stored = storage.store(session.fileName(), in, session.length());
+            }
+            FileSystemUtils.deleteRecursively(claimed);
+
+            log.info("event=resumable_finished requestId={} sessionId={} path={} size={}",
+                    MDC.get("requestId"), session.id(), stored.path(), stored.size());
+            return stored;
+        } catch (IOException e) {
+            // keep the ranges so the client can finish again
+            if (Files.exists(claimed) && !Files.exists(dir)) {
+                Files.move(claimed, dir, StandardCopyOption.ATOMIC_MOVE);
+            }
+            throw e;
+        }
+    }
+
+    public void cancel(Session session) throws IOException {
+        Path dir = sessionDir(session.id());
+        if (dir != null && FileSystemUtils.deleteRecursively(dir)) {
+            log.info("event=resumable_cancelled requestId={} sessionId={}", MDC.get("requestId"), session.id());
+        }
+    }
+
+    // ---------- expiry ----------
+
+    @Scheduled(fixedDelayString = "${ingestion.resumable.sweep-interval:15m}")
+    public void sweep() {
+        Instant cutoff = Instant.now().minus(props.getExpiry());
+        int deleted = 0;
+
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(sessionsDir)) {
+            for (Path dir : sessions) {
+                if (Files.isDirectory(dir) && lastWrite(dir).isBefore(cutoff)) {
+                    FileSystemUtils.deleteRecursively(dir);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("event=resumable_sweep_failed dir={} message={}", sessionsDir, e.getMessage());
+        }
+
+        if (deleted > 0) {
+            log.info("event=resumable_swept deleted={} expiry={}", deleted, props.getExpiry());
+        }
+    }
+
+    private static Instant lastWrite(Path dir) throws IOException {
+        Instant last = Files.getLastModifiedTime(dir).toInstant();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) {
+                Instant modified = Files.getLastModifiedTime(file).toInstant();
+                if (modified.isAfter(last)) last = modified;
+            }
+        }
+        return last;
+    }
+
+    // ---------- on-disk state ----------
+
+    /* null for ids that are not ours, so no request can point outside the sessions directory */
+    private Path sessionDir(String id) {
+        try {
+            return sessionsDir.resolve(UUID.fromString(id).toString());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private Session read(String id, Path dir) throws IOException {
+        Properties meta = new Properties();
+        try (Reader in = Files.newBufferedReader(dir.resolve(META_FILE), StandardCharsets.UTF_8)) {
+            meta.load(in);
+        }
+        long length = Long.parseLong(meta.getProperty("length"));
+        long offset = segments(dir, length).stream().mapToLong(Segment::count).sum();
+
+        return new Session(id, meta.getProperty("fileName"), length, fields(meta),
+                Instant.parse(meta.getProperty("createdAt")), offset);
+    }
+
+    private static Map<String, String> fields(Properties meta) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        for (String key : meta.stringPropertyNames()) {
+            if (key.startsWith(FIELD_PREFIX)) {
+                fields.put(key.substring(FIELD_PREFIX.length()), meta.getProperty(key));
+            }
+        }
+        return fields;
+    }
+
+    private record Segment(Path part, long skip, long count) { }
+
+    /**
+     * The bytes to read, in order, to get the prefix of the upload received
+     * without a gap; overlapping ranges contribute only what the ranges before
+     * them lack.
+     */
+    private static List<Segment> segments(Path dir, long length) throws IOException {
+        List<long[]> ranges = new ArrayList<>();   // {start, size}
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(dir, "*" + PART_SUFFIX)) {
+            for (Path part : parts) {
+                String name = part.getFileName().toString();
+                ranges.add(new long[]{
+                        Long.parseLong(name.substring(0, name.length() - PART_SUFFIX.length())),
+                        Files.size(part)});
+            }
+        }
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+
+        List<Segment> segments = new ArrayList<>();
+        long covered = 0;
+        for (long[] range : ranges) {
+            long start = range[0];
+            long end = Math.min(start + range[1], length);
+            if (start > covered) break;   // gap
+            if (end > covered) {
+                segments.add(new Segment(dir.resolve(start + PART_SUFFIX), covered - start, end - covered));
+                covered = end;
+            }
+        }
+        return segments;
+    }
+
+    /* reads the segments one after the other, with one part file open at a time */
+    private static final class SegmentInputStream extends InputStream {
+
+        private final List<Segment> segments;
+        private int next;
+        private InputStream current;
+        private long left;
+
+        private SegmentInputStream(List<Segment> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            while (current == null || left == 0) {
+                if (current != null) current.close();
+                if (next == segments.size()) return -1;
+
+                Segment segment = segments.get(next++);
+                current = Files.newInputStream(segment.part());
+                current.skipNBytes(segment.skip());
+                left = segment.count();
+            }
+
+            int read = current.read(b, off, (int) Math.min(len, left));
+            if (read == -1) {
+                throw new IOException("range file shrank while being read");
+            }
+            left -= read;
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (current != null) current.close();
+        }
+    }
+}
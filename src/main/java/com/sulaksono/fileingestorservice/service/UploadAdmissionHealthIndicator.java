@@ -0,0 +1,35 @@
+package com.sulaksono.fileingestorservice.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code uploadAdmission} health: {@link #SATURATED} while {@link UploadAdmissionService}
+ * would turn uploads away. Only the {@code uploads} health group orders and maps
+ * that status (503), so load balancers can probe {@code /actuator/health/uploads}
+ * for the upload routes; the root status, readiness and liveness leave it out of
+ * their aggregate and stay UP.
+ */
+@Component
+@RequiredArgsConstructor
+public class UploadAdmissionHealthIndicator implements HealthIndicator {
+
+    public static final Status SATURATED = new Status("SATURATED", "Uploads are turned away with 429");
+
+    private final UploadAdmissionService admission;
+
+    @Override
+    public Health health() {
+        UploadAdmissionService.Saturation saturation = admission.saturation();
+
+        return Health.status(saturation.saturated() ? SATURATED : Status.UP)
+                .withDetail("queuedJobs", saturation.queuedJobs())
+                .withDetail("maxQueuedJobs", saturation.maxQueuedJobs())
+                .withDetail("inFlightBytes", saturation.inFlightBytes())
+                .withDetail("maxInFlightBytes", saturation.maxInFlightBytes())
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.UploadAdmissionProperties;
+import com.sulaksono.fileingestorservice.exception.UploadSaturatedException;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import com.sulaksono.fileingestorservice.repository.IngestionJobRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control for uploads: an upload is turned away with
+ * {@link UploadSaturatedException} before its body is read when the job queue
+ * or this node's inbound transfers are full, instead of being accepted and
+ * then failing or piling up.
+ *
+ * Two limits: unfinished jobs in {@code ingestion_jobs} (all nodes; read at
+ * most once per {@code queue-check-interval}) and bytes of request bodies
+ * this node is receiving. Saturation is published as metrics and in the
+ * {@code uploads} health group ({@link UploadAdmissionHealthIndicator}), never
+ * in readiness: the queue limit is cluster-wide, and taking every node out of
+ * readiness at once would also cut off status polling and the other APIs.
+ */
+@Service
+public class UploadAdmissionService {
+
+    private static final Logger log = LoggerFactory.getLogger(UploadAdmissionService.class);
+
+    static final String METRIC_REJECTED = "ingestion.admission.rejected";
+    static final String METRIC_IN_FLIGHT = "ingestion.admission.in_flight_bytes";
+    static final String METRIC_QUEUED = "ingestion.admission.queued_jobs";
+    static final String METRIC_SATURATED = "ingestion.admission.saturated";
+
+    private static final Set<IngestionJob.Status> UNFINISHED =
+            EnumSet.of(IngestionJob.Status.PENDING, IngestionJob.Status.RUNNING);
+
+    private final IngestionJobRepository repository;
+    private final UploadAdmissionProperties props;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong inFlightBytes = new AtomicLong();
+    private volatile long queuedJobs;
+    private volatile Instant queueCheckedAt = Instant.EPOCH;
+
+    public UploadAdmissionService(IngestionJobRepository repository,
+                                  UploadAdmissionProperties props,
+                                  MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.props = props;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge(METRIC_IN_FLIGHT, inFlightBytes);
+        meterRegistry.gauge(METRIC_QUEUED, this, admission -> admission.queuedJobs());
+        meterRegistry.gauge(METRIC_SATURATED, this, admission -> admission.saturation().saturated() ? 1 : 0);
+    }
+
+    /**
+     * @param queuedJobs    unfinished jobs of all nodes, as of the last check
+     * @param inFlightBytes request bodies this node is receiving
+     */
+    public record Saturation(long queuedJobs, long maxQueuedJobs, long inFlightBytes, long maxInFlightBytes) {
+
+        public boolean saturated() {
+            return queuedJobs >= maxQueuedJobs || inFlightBytes >= maxInFlightBytes;
+        }
+    }
+
+    /**
+     * Reserves {@code bytes} of inbound transfer; every admitted call must be
+     * paired with {@link #release}. A single body larger than the whole limit
+     * is admitted while nothing else is in flight.
+     *
+     * @param enqueues whether the request adds jobs, so the queue limit applies
+     * @throws UploadSaturatedException the upload has to be retried later
+     */
+    public void admit(long bytes, boolean enqueues) {
+        if (!props.isEnabled()) {
+            inFlightBytes.addAndGet(bytes);
+            return;
+        }
+
+        if (enqueues && queuedJobs() >= props.getMaxQueuedJobs()) {
+            reject("queue", "ingestion queue is full");
+        }
+
+        long max = props.getMaxInFlightBytes().toBytes();
+        while (true) {
+            long current = inFlightBytes.get();
+            if (current > 0 && current + bytes > max) {
+                reject("bytes", "too many uploads in progress");
+            }
+            if (inFlightBytes.compareAndSet(current, current + bytes)) {
+                return;
+            }
+        }
+    }
+
+    public void release(long bytes) {
+        inFlightBytes.addAndGet(-bytes);
+    }
+
+    public Saturation saturation() {
+        return new Saturation(queuedJobs(), props.getMaxQueuedJobs(),
+                inFlightBytes.get(), props.getMaxInFlightBytes().toBytes());
+    }
+
+    private void reject(String reason, String message) {
+        meterRegistry.counter(METRIC_REJECTED, "reason", reason).increment();
+        log.warn("event=upload_throttled reason={} queuedJobs={} inFlightBytes={}",
+                reason, queuedJobs, inFlightBytes.get());
+        throw new UploadSaturatedException(message, props.getRetryAfter());
+    }
+
+    /* the last count stays in use when the database cannot be read */
+    private long queuedJobs() {
+        Instant now = Instant.now();
+        if (queueCheckedAt.plus(props.getQueueCheckInterval()).isAfter(now)) {
+            return queuedJobs;
+        }
+
+        synchronized (this) {
+            if (queueCheckedAt.plus(props.getQueueCheckInterval()).isAfter(now)) {
+                return queuedJobs;
+            }
+            try {
+                queuedJobs = repository.countByStatusIn(UNFINISHED);
+            } catch (RuntimeException e) {
+                log.warn("event=queue_depth_unavailable message={}", e.getMessage());
+            }
+            queueCheckedAt = now;
+            return queuedJobs;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.sulaksono.fileingestorservice.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 over normalized text, used to detect unchanged re-uploads.
+ *
+ * Normalization:
+ * - a leading BOM is dropped
+ * - CRLF and lone CR line endings become LF
+ */
+public final class ContentHashUtil {
+
+    private ContentHashUtil() {
+    }
+
+    /**
+     * Lower-case hex SHA-256 of the normalized text; {@code null} for {@code null} input.
+     */
+    public static String sha256(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        return sha256Hex(normalize(text).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Lower-case hex SHA-256 of raw bytes.
+     */
+    public static String sha256Hex(byte[] bytes) {
+        return HexFormat.of().formatHex(newDigest().digest(bytes));
+    }
+
+    static String normalize(String text) {
+        String out = text.startsWith("\uFEFF") ? text.substring(1) : text;
+
+        if (out.indexOf('\r') < 0) {
+            return out;
+        }
+
+        return out.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
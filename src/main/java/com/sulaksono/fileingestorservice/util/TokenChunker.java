@@ -0,0 +1,137 @@
+package com.sulaksono.fileingestorservice.util;
+
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.IntArrayList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sliding-window chunker on top of cl100k_base.
+ *
+ * The text is encoded exactly once; every window is decoded from the same token
+ * list through a single reusable buffer. Compared to calling
+ * {@link TokenizerUtil#slice(String, int, int)} per window this turns chunking
+ * from quadratic into linear work in the size of the file.
+ *
+ * Window semantics (identical to the previous per-slice loop):
+ * - text that fits into one window is returned unchanged as a single chunk
+ * - otherwise windows start at 0 and advance by {@code window - overlap}
+ * - the last window always ends at the last token
+ */
+public final class TokenChunker {
+
+    private TokenChunker() {
+    }
+
+    /**
+     * One window of the source text.
+     *
+     * @param index      zero-based window index
+     * @param beginToken first token of the window (inclusive)
+     * @param endToken   last token of the window (exclusive)
+     * @param text       decoded text of tokens[beginToken, endToken)
+     */
+    public record Chunk(int index, int beginToken, int endToken, String text) { }
+
+    /**
+     * Result of a chunking pass.
+     *
+     * @param chunks       decoded windows, possibly truncated by {@code maxChunks}
+     * @param totalTokens  token count of the whole text
+     * @param totalWindows number of windows the full text would produce
+     */
+    public record Result(List<Chunk> chunks, int totalTokens, int totalWindows) {
+
+        public boolean truncated() {
+            return chunks.size() < totalWindows;
+        }
+
+        public List<String> texts() {
+            List<String> out = new ArrayList<>(chunks.size());
+            for (Chunk c : chunks) {
+                out.add(c.text());
+            }
+            return out;
+        }
+    }
+
+    public static Result split(String text, int window, int overlap) {
+        return split(text, window, overlap, 0);
+    }
+
+    /**
+     * Splits {@code text} into overlapping token windows.
+     *
+     * @param maxChunks stop decoding after this many windows; {@code 0} means unlimited
+     */
+    public static Result split(String text, int window, int overlap, int maxChunks) {
+        validate(window, overlap, maxChunks);
+
+        if (text == null || text.isEmpty()) {
+            return new Result(List.of(), 0, 0);
+        }
+
+        Encoding enc = TokenizerUtil.encoding();
+        IntArrayList tokens = enc.encode(text);
+        int totalTokens = tokens.size();
+
+        if (totalTokens <= window) {
+            return new Result(List.of(new Chunk(0, 0, totalTokens, text)), totalTokens, 1);
+        }
+
+        int totalWindows = countWindows(totalTokens, window, overlap);
+        int limit = maxChunks > 0 ? Math.min(maxChunks, totalWindows) : totalWindows;
+
+        List<Chunk> out = new ArrayList<>(limit);
+        IntArrayList buffer = new IntArrayList(window);
+        int start = 0;
+
+        while (out.size() < limit) {
+            int end = Math.min(start + window, totalTokens);
+
+            buffer.clear();
+            for (int i = start; i < end; i++) {
+                buffer.add(tokens.get(i));
+            }
+            out.add(new Chunk(out.size(), start, end, enc.decode(buffer)));
+
+            if (end == totalTokens) {
+                break;
+            }
+
+            start = end - overlap;
+        }
+
+        return new Result(out, totalTokens, totalWindows);
+    }
+
+    /**
+     * Number of windows produced for {@code totalTokens} without decoding anything.
+     */
+    public static int countWindows(int totalTokens, int window, int overlap) {
+        validate(window, overlap, 0);
+
+        if (totalTokens <= 0) {
+            return 0;
+        }
+        if (totalTokens <= window) {
+            return 1;
+        }
+
+        int stride = window - overlap;
+        return 1 + (totalTokens - window + stride - 1) / stride;
+    }
+
+    private static void validate(int window, int overlap, int maxChunks) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("window must be greater than 0");
+        }
+        if (overlap < 0 || overlap >= window) {
+            throw new IllegalArgumentException("overlap must be in [0, window)");
+        }
+        if (maxChunks < 0) {
+            throw new IllegalArgumentException("maxChunks cannot be negative");
+        }
+    }
+}
@@ -17,6 +17,13 @@ public final class TokenizerUtil {
     private TokenizerUtil() {
     }
 
+    /**
+     * Shared encoding instance for callers in this package (see {@link TokenChunker}).
+     */
+    static Encoding encoding() {
+        return ENC;
+    }
+
     /**
      * Token count using JTokkit's fast path.
      */
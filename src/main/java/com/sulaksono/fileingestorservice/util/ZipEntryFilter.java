@@ -0,0 +1,236 @@
+package com.sulaksono.fileingestorservice.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Decides from its name alone whether a ZIP entry is ingested, so that
+ * {@link ZipUtil} drops excluded entries while walking the central directory,
+ * before anything is inflated.
+ *
+ * Globs are matched against the whole '/' separated entry name: {@code *} and
+ * {@code ?} stay within one path segment, {@code **} spans segments (and
+ * {@code **}{@code /} may match nothing), {@code [abc]} is a character class.
+ * An entry is accepted when it matches an include (or there are none), matches
+ * no exclude and is not ignored by a .gitignore of the archive.
+ *
+ * A .gitignore applies to the entries below its own directory, deeper files
+ * taking precedence. Comments, {@code !} negation, a trailing {@code /} for
+ * directories and leading or inner {@code /} anchoring are supported; unlike
+ * git, a negated pattern can re-include a file below an ignored directory.
+ */
+public final class ZipEntryFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ZipEntryFilter.class);
+
+    /** Accepts every entry. */
+    public static final ZipEntryFilter ACCEPT_ALL = new ZipEntryFilter(null, null, Map.of());
+
+    /* larger .gitignore files are not read */
+    static final int MAX_GITIGNORE_BYTES = 64 * 1024;
+
+    private final Pattern includes;                   // null = everything
+    private final Pattern excludes;                   // null = nothing
+    private final Map<String, List<Rule>> gitignores; // by directory, "" = archive root
+
+    private ZipEntryFilter(Pattern includes, Pattern excludes, Map<String, List<Rule>> gitignores) {
+        this.includes = includes;
+        this.excludes = excludes;
+        this.gitignores = gitignores;
+    }
+
+    public static ZipEntryFilter of(Collection<String> includes, Collection<String> excludes) {
+        return new ZipEntryFilter(anyOf(includes), anyOf(excludes), Map.of());
+    }
+
+    /**
+     * This filter plus the rules of every .gitignore in {@code zip}.
+     */
+    public ZipEntryFilter withGitignores(ZipFile zip) {
+        Map<String, List<Rule>> rules = new HashMap<>(gitignores);
+
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.isDirectory()) continue;
+
+            String name = ZipUtil.sanitizeEntryName(entry.getName());
+            int slash = name.lastIndexOf('/');
+            if (!name.substring(slash + 1).equals(".gitignore")) continue;
+
+            if (entry.getSize() > MAX_GITIGNORE_BYTES) {
+                log.debug("event=zip_gitignore_skipped requestId={} entry={} size={}",
+                        MDC.get("requestId"), name, entry.getSize());
+                continue;
+            }
+
+            try (InputStream in = zip.getInputStream(entry)) {
+                String text = new String(in.readNBytes(MAX_GITIGNORE_BYTES), StandardCharsets.UTF_8);
+                rules.put(slash < 0 ? "" : name.substring(0, slash), parseGitignore(text));
+            } catch (IOException e) {
+                log.debug("event=zip_gitignore_unreadable requestId={} entry={} msg={}",
+                        MDC.get("requestId"), name, e.getMessage());
+            }
+        }
+
+        if (rules.size() > gitignores.size()) {
+            log.debug("event=zip_gitignore_loaded requestId={} zip={} files={}",
+                    MDC.get("requestId"), zip.getName(), rules.size() - gitignores.size());
+        }
+
+        return new ZipEntryFilter(includes, excludes, rules);
+    }
+
+    /**
+     * @param entryName sanitized entry name, '/' separated without a leading '/'
+     */
+    public boolean accepts(String entryName) {
+        if (includes != null && !includes.matcher(entryName).matches()) return false;
+        if (excludes != null && excludes.matcher(entryName).matches()) return false;
+
+        return !ignored(entryName);
+    }
+
+    /* walks from the archive root down, so the last matching rule of the deepest .gitignore wins */
+    private boolean ignored(String entryName) {
+        if (gitignores.isEmpty()) return false;
+
+        boolean ignored = false;
+        String dir = "";
+        int from = 0;
+        while (true) {
+            List<Rule> rules = gitignores.get(dir);
+            if (rules != null) {
+                String relative = dir.isEmpty() ? entryName : entryName.substring(dir.length() + 1);
+                for (Rule rule : rules) {
+                    if (rule.matches(relative)) ignored = !rule.negated();
+                }
+            }
+
+            int slash = entryName.indexOf('/', from);
+            if (slash < 0) return ignored;
+            dir = entryName.substring(0, slash);
+            from = slash + 1;
+        }
+    }
+
+    /**
+     * One .gitignore line.
+     *
+     * @param directoryOnly pattern ended with '/', so it only matches parent directories
+     */
+    record Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+
+        /* path relative to the directory of the .gitignore; matching a parent directory ignores the entry */
+        boolean matches(String path) {
+            if (!directoryOnly && pattern.matcher(path).matches()) return true;
+
+            for (int slash = path.indexOf('/'); slash >= 0; slash = path.indexOf('/', slash + 1)) {
+                if (pattern.matcher(path.substring(0, slash)).matches()) return true;
+            }
+            return false;
+        }
+    }
+
+    static List<Rule> parseGitignore(String text) {
+        List<Rule> rules = new ArrayList<>();
+
+        for (String line : text.split("\\R")) {
+            line = line.stripTrailing();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            boolean negated = line.startsWith("!");
+            if (negated) {
+                line = line.substring(1);
+            } else if (line.startsWith("\\#") || line.startsWith("\\!")) {
+                line = line.substring(1);
+            }
+
+            boolean directoryOnly = line.endsWith("/");
+            if (directoryOnly) line = line.substring(0, line.length() - 1);
+
+            // a '/' anywhere but at the end anchors the pattern to the .gitignore directory
+            boolean anchored = line.contains("/");
+            if (line.startsWith("/")) line = line.substring(1);
+            if (line.isEmpty()) continue;
+
+            String regex = globToRegex(line);
+            rules.add(new Rule(Pattern.compile(anchored ? regex : "(?:.*/)?" + regex), negated, directoryOnly));
+        }
+
+        return rules;
+    }
+
+    private static Pattern anyOf(Collection<String> globs) {
+        if (globs == null || globs.isEmpty()) return null;
+
+        return Pattern.compile(globs.stream()
+                .map(String::strip)
+                .filter(glob -> !glob.isEmpty())
+                .map(glob -> "(?:" + globToRegex(glob) + ")")
+                .collect(Collectors.joining("|")));
+    }
+
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() * 2);
+
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*' -> {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        i++;
+                        if (i + 1 < glob.length() && glob.charAt(i + 1) == '/') {
+                            i++;
+                            regex.append("(?:.*/)?");
+                        } else {
+                            regex.append(".*");
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                }
+                case '?' -> regex.append("[^/]");
+                case '[' -> {
+                    int close = glob.indexOf(']', i + 2);
+                    if (close < 0) {
+                        regex.append("\\[");
+                    } else {
+                        String chars = glob.substring(i + 1, close);
+                        boolean not = chars.startsWith("!") || chars.startsWith("^");
+                        regex.append('[').append(not ? "^" : "")
+                                .append(chars.substring(not ? 1 : 0).replace("\\", "\\\\").replace("[", "\\["))
+                                .append(']');
+                        i = close;
+                    }
+                }
+                case '\\' -> {
+                    if (i + 1 < glob.length()) {
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                }
+                default -> {
+                    if ("().+^$|{}".indexOf(c) >= 0) regex.append('\\');
+                    regex.append(c);
+                }
+            }
+        }
+
+        return regex.toString();
+    }
+}
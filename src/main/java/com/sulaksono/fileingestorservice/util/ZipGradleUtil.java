@@ -1,28 +1,52 @@
 package com.sulaksono.fileingestorservice.util;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+/**
+ * Utility for extracting information from Gradle scripts contained in a ZIP file.
+ *
+ * Scripts are scanned line by line and reading stops at the first match.
+ * {@code $name} / {@code ${name}} in a quoted value, or a bare property name
+ * ({@code version = projectVersion}), is resolved against simple string
+ * assignments seen earlier in the script and the given gradle.properties values.
+ */
 public final class ZipGradleUtil {
 
-    private static final int MAX_ENTRY_BYTES = 1024 * 1024;
+    /* scripts are not read past this many characters */
+    static final int MAX_SCAN_CHARS = 1024 * 1024;
 
-    // Fixed: Added ['\"] to match opening quote, and ([^'\"]+) to capture the value
     private static final Pattern ROOT_PROJECT_NAME =
-            Pattern.compile("(?m)^\\s*rootProject\\.name\\s*=\\s*['\"]([^'\"]+)['\"]\\s*$");
+            Pattern.compile("^\\s*rootProject\\.name\\s*=\\s*['\"]([^'\"]+)['\"]\\s*$");
 
     private static final Pattern VERSION_EQUALS =
-            Pattern.compile("(?m)^\\s*version\\s*=\\s*['\"]([^'\"]+)['\"]\\s*$");
+            Pattern.compile("^\\s*version\\s*=\\s*['\"]([^'\"]+)['\"]\\s*$");
 
     private static final Pattern VERSION_GROOVY =
-            Pattern.compile("(?m)^\\s*version\\s+['\"]([^'\"]+)['\"]\\s*$");
+            Pattern.compile("^\\s*version\\s+['\"]([^'\"]+)['\"]\\s*$");
+
+    private static final Pattern VERSION_REFERENCE =
+            Pattern.compile("^\\s*version\\s*=\\s*(?:project\\.)?([A-Za-z_][\\w.]*)\\s*$");
+
+    // def x = '..', val x = "..", ext.x = '..', x = '..' (also inside ext { })
+    private static final Pattern ASSIGNMENT =
+            Pattern.compile("^\\s*(?:def\\s+|val\\s+|var\\s+|(?:project\\.)?ext\\.)?([A-Za-z_]\\w*)\\s*=\\s*['\"]([^'\"]*)['\"]\\s*$");
+
+    private static final Pattern INTERPOLATION =
+            Pattern.compile("\\$\\{([\\w.]+)}|\\$(\\w+)");
 
     private ZipGradleUtil() {
     }
@@ -32,7 +56,7 @@ public final class ZipGradleUtil {
                 zipStream,
                 entryBase -> entryBase.equals("settings.gradle")
                         || entryBase.equals("settings.gradle.kts"),
-                content -> firstMatch(ROOT_PROJECT_NAME, content)
+                ZipGradleUtil::rootProjectName
         );
     }
 
@@ -41,25 +65,110 @@ public final class ZipGradleUtil {
                 zipStream,
                 entryBase -> entryBase.equals("build.gradle")
                         || entryBase.equals("build.gradle.kts"),
-                content -> firstNonBlank(
-                        firstMatch(VERSION_EQUALS, content),
-                        firstMatch(VERSION_GROOVY, content)
-                )
+                script -> version(script, Map.of())
         );
     }
 
+    /* {@code rootProject.name} of a settings.gradle(.kts) script */
+    static String rootProjectName(String settingsScript) {
+        try {
+            return settingsScript == null ? null : rootProjectName(new StringReader(settingsScript));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static String rootProjectName(Reader settingsScript) throws IOException {
+        return scan(settingsScript, Map.of(), (line, values) -> {
+            Matcher matcher = ROOT_PROJECT_NAME.matcher(line);
+            return matcher.matches() ? interpolate(matcher.group(1), values) : null;
+        });
+    }
+
+    /* {@code version} of a build.gradle(.kts) script */
+    static String version(String buildScript, Map<String, String> properties) {
+        try {
+            return buildScript == null ? null : version(new StringReader(buildScript), properties);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    static String version(Reader buildScript, Map<String, String> properties) throws IOException {
+        return scan(buildScript, properties, (line, values) -> {
+            Matcher matcher = VERSION_EQUALS.matcher(line);
+            if (!matcher.matches()) matcher = VERSION_GROOVY.matcher(line);
+            if (matcher.matches()) return interpolate(matcher.group(1), values);
+
+            matcher = VERSION_REFERENCE.matcher(line);
+            return matcher.matches() ? values.get(matcher.group(1)) : null;
+        });
+    }
+
+    private interface LineMatcher {
+        /* value found on the line, or null to keep scanning */
+        String match(String line, Map<String, String> values);
+    }
+
+    private static String scan(Reader script,
+                               Map<String, String> properties,
+                               LineMatcher matcher) throws IOException {
+
+        Map<String, String> values = new HashMap<>(properties);
+        BufferedReader reader = script instanceof BufferedReader b ? b : new BufferedReader(script);
+
+        long scanned = 0;
+        String line;
+        while ((line = reader.readLine()) != null && scanned < MAX_SCAN_CHARS) {
+            scanned += line.length() + 1;
+
+            String result = matcher.match(line, values);
+            if (result != null && !result.isBlank()) {
+                return result;
+            }
+
+            Matcher assignment = ASSIGNMENT.matcher(line);
+            if (assignment.matches()) {
+                values.put(assignment.group(1), assignment.group(2));
+            }
+        }
+
+        return null;
+    }
+
+    /* null while a $name / ${name} cannot be resolved */
+    private static String interpolate(String value, Map<String, String> values) {
+        if (value.indexOf('$') < 0) {
+            return value;
+        }
+
+        Matcher matcher = INTERPOLATION.matcher(value);
+        StringBuilder out = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+            String resolved = values.get(name.startsWith("project.") ? name.substring("project.".length()) : name);
+            if (resolved == null) {
+                return null;
+            }
+            matcher.appendReplacement(out, Matcher.quoteReplacement(resolved));
+        }
+        matcher.appendTail(out);
+
+        return out.toString();
+    }
+
     private interface EntryNamePredicate {
         boolean test(String baseName);
     }
 
-    private interface ContentMapper {
-        String map(String content);
+    private interface ScriptMapper {
+        String map(Reader script) throws IOException;
     }
 
     private static String extractFromEntry(
             InputStream zipStream,
             EntryNamePredicate predicate,
-            ContentMapper mapper) {
+            ScriptMapper mapper) {
 
         if (zipStream == null) {
             return null;
@@ -81,8 +190,7 @@ public final class ZipGradleUtil {
                     continue;
                 }
 
-                String content = readEntryAsString(zin, MAX_ENTRY_BYTES);
-                String result = mapper.map(content);
+                String result = mapper.map(new InputStreamReader(zin, StandardCharsets.UTF_8));
 
                 zin.closeEntry();
 
@@ -97,7 +205,7 @@ public final class ZipGradleUtil {
         return null;
     }
 
-    private static String baseName(String entryName) {
+    static String baseName(String entryName) {
         if (entryName == null || entryName.isBlank()) {
             return "";
         }
@@ -109,44 +217,4 @@ public final class ZipGradleUtil {
                 .toString()
                 .toLowerCase(Locale.ROOT);
     }
-
-    private static String readEntryAsString(InputStream in, int maxBytes) throws Exception {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-        byte[] buffer = new byte[8192];
-        int total = 0;
-        int read;
-
-        while ((read = in.read(buffer)) != -1) {
-            int remaining = maxBytes - total;
-
-            if (remaining <= 0) {
-                break;
-            }
-
-            int bytesToWrite = Math.min(read, remaining);
-            out.write(buffer, 0, bytesToWrite);
-            total += bytesToWrite;
-
-            if (read > remaining) {
-                break;
-            }
-        }
-
-        return out.toString(StandardCharsets.UTF_8);
-    }
-
-    private static String firstMatch(Pattern pattern, String content) {
-        if (content == null) {
-            return null;
-        }
-
-        Matcher matcher = pattern.matcher(content);
-
-        return matcher.find() ? matcher.group(1) : null;
-    }
-
-    private static String firstNonBlank(String first, String second) {
-        return first != null && !first.isBlank() ? first : second;
-    }
-}
\ No newline at end of file
+}
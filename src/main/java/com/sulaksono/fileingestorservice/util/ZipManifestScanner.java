@@ -0,0 +1,175 @@
+package com.sulaksono.fileingestorservice.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Resolves build metadata of an uploaded archive in one pass over the ZIP
+ * central directory.
+ *
+ * Only the manifest entries themselves are inflated, and only until the
+ * wanted value is found (see {@link ZipPomUtil}, {@link ZipGradleUtil}):
+ * - {@code pom.xml} / {@code *.pom} -> artifactId, version (falling back to the parent)
+ * - {@code settings.gradle(.kts)}   -> rootProject.name
+ * - {@code build.gradle(.kts)}      -> version, with placeholders resolved from
+ *                                      the gradle.properties next to it
+ *
+ * When an archive holds several manifests of a kind, the shallowest one wins
+ * (central directory order breaks ties), so the root build of a multi-module
+ * project is preferred over its submodules.
+ */
+public final class ZipManifestScanner {
+
+    private static final Logger log = LoggerFactory.getLogger(ZipManifestScanner.class);
+
+    private ZipManifestScanner() {
+    }
+
+    /**
+     * Metadata found in the archive; any component may be {@code null}.
+     */
+    public record Manifest(String artifactId,
+                           String pomVersion,
+                           String rootProjectName,
+                           String gradleVersion) {
+    }
+
+    public static Manifest scan(ZipFile zip) {
+        List<ZipEntry> poms = new ArrayList<>();
+        List<ZipEntry> settings = new ArrayList<>();
+        List<ZipEntry> builds = new ArrayList<>();
+        Map<String, ZipEntry> gradleProperties = new HashMap<>(); // by directory
+
+        Enumeration<? extends ZipEntry> entries = zip.entries();
+        while (entries.hasMoreElements()) {
+            ZipEntry entry = entries.nextElement();
+            if (entry.isDirectory()) continue;
+
+            String name = ZipGradleUtil.baseName(entry.getName());
+
+            if (name.equals("pom.xml") || name.endsWith(".pom")) {
+                poms.add(entry);
+            } else if (name.equals("settings.gradle") || name.equals("settings.gradle.kts")) {
+                settings.add(entry);
+            } else if (name.equals("build.gradle") || name.equals("build.gradle.kts")) {
+                builds.add(entry);
+            } else if (name.equals("gradle.properties")) {
+                gradleProperties.put(directory(entry.getName()), entry);
+            }
+        }
+
+        ZipPomUtil.Coordinates pom = firstPom(zip, byDepth(poms));
+
+        String artifactId = pom == null ? null : pom.artifactId();
+        String pomVersion = pom == null ? null : pom.version();
+
+        String rootProjectName = null;
+        for (ZipEntry entry : byDepth(settings)) {
+            rootProjectName = rootProjectName(zip, entry);
+            if (rootProjectName != null && !rootProjectName.isBlank()) break;
+        }
+
+        String gradleVersion = null;
+        for (ZipEntry entry : byDepth(builds)) {
+            gradleVersion = gradleVersion(zip, entry, gradleProperties.get(directory(entry.getName())));
+            if (gradleVersion != null && !gradleVersion.isBlank()) break;
+        }
+
+        log.debug("event=zip_manifest_scanned requestId={} zip={} poms={} settings={} builds={} artifactId={} version={} rootProject={}",
+                MDC.get("requestId"), zip.getName(), poms.size(), settings.size(), builds.size(),
+                artifactId, firstNonBlank(pomVersion, gradleVersion), rootProjectName);
+
+        return new Manifest(artifactId, pomVersion, rootProjectName, gradleVersion);
+    }
+
+    private static ZipPomUtil.Coordinates firstPom(ZipFile zip, List<ZipEntry> poms) {
+        for (ZipEntry entry : poms) {
+            try (InputStream in = zip.getInputStream(entry)) {
+                return ZipPomUtil.coordinates(in);
+            } catch (Exception e) {
+                logUnreadable(entry, e);
+            }
+        }
+        return null;
+    }
+
+    private static String rootProjectName(ZipFile zip, ZipEntry settings) {
+        try (BufferedReader reader = reader(zip, settings)) {
+            return ZipGradleUtil.rootProjectName(reader);
+        } catch (Exception e) {
+            logUnreadable(settings, e);
+            return null;
+        }
+    }
+
+    private static String gradleVersion(ZipFile zip, ZipEntry build, ZipEntry propertiesEntry) {
+        Properties properties = new Properties();
+        if (propertiesEntry != null) {
+            try (BufferedReader reader = reader(zip, propertiesEntry)) {
+                properties.load(reader);
+            } catch (Exception e) {
+                logUnreadable(propertiesEntry, e);
+            }
+        }
+
+        Map<String, String> values = new HashMap<>();
+        properties.stringPropertyNames().forEach(key -> values.put(key, properties.getProperty(key).trim()));
+
+        try (BufferedReader reader = reader(zip, build)) {
+            return ZipGradleUtil.version(reader, values);
+        } catch (Exception e) {
+            logUnreadable(build, e);
+            return null;
+        }
+    }
+
+    private static BufferedReader reader(ZipFile zip, ZipEntry entry) throws IOException {
+        return new BufferedReader(new InputStreamReader(zip.getInputStream(entry), StandardCharsets.UTF_8));
+    }
+
+    private static void logUnreadable(ZipEntry entry, Exception e) {
+        log.debug("event=zip_manifest_unreadable requestId={} entry={} msg={}",
+                MDC.get("requestId"), entry.getName(), e.getMessage());
+    }
+
+    private static String directory(String entryName) {
+        String n = entryName.replace('\\', '/');
+        int slash = n.lastIndexOf('/');
+        return slash < 0 ? "" : n.substring(0, slash);
+    }
+
+    private static List<ZipEntry> byDepth(List<ZipEntry> entries) {
+        // List.sort is stable: same depth keeps central directory order
+        entries.sort(Comparator.comparingInt(e -> depth(e.getName())));
+        return entries;
+    }
+
+    private static int depth(String entryName) {
+        String n = entryName.replace('\\', '/');
+        int depth = 0;
+        for (int i = 0; i < n.length(); i++) {
+            if (n.charAt(i) == '/' && i > 0) depth++;
+        }
+        return depth;
+    }
+
+    private static String firstNonBlank(String first, String second) {
+        return first != null && !first.isBlank() ? first : second;
+    }
+}
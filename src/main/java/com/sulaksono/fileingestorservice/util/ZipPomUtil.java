@@ -1,21 +1,44 @@
 package com.sulaksono.fileingestorservice.util;
 
-import org.apache.maven.model.Model;
-import org.apache.maven.model.io.xpp3.MavenXpp3Reader;
-
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
 import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 
 /**
  * Utility for extracting information from a {@code pom.xml} contained in a ZIP file.
+ *
+ * POMs are read with a StAX cursor that only looks at the project and parent
+ * coordinates and at {@code <properties>}; every other subtree is skipped, and
+ * reading stops as soon as artifactId and a resolvable version are known.
+ * Placeholders such as {@code ${revision}} or {@code ${project.parent.version}}
+ * are resolved against those values; a version that still refers to anything
+ * else is treated as absent.
  */
 public final class ZipPomUtil {
 
+    private static final XMLInputFactory XML_INPUT = xmlInputFactory();
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static final int MAX_RESOLVE_DEPTH = 8;
+
     private ZipPomUtil() {}
 
+    /**
+     * artifactId and version of a POM, each falling back to the parent; either may be {@code null}.
+     */
+    public record Coordinates(String artifactId, String version) { }
+
     public static String extractArtifactId(InputStream zipStream) {
         return extractPomField(zipStream, Field.ARTIFACT_ID);
     }
@@ -35,21 +58,141 @@ public final class ZipPomUtil {
                 String name = Path.of(entry.getName()).getFileName().toString().toLowerCase();
                 if (!name.equals("pom.xml") && !name.endsWith(".pom")) continue;
 
-                MavenXpp3Reader reader = new MavenXpp3Reader();
-                Model model           = reader.read(zin, false);
+                Coordinates coordinates = coordinates(zin);
 
                 return switch (field) {
-                    case ARTIFACT_ID -> firstNonNull(model.getArtifactId(),
-                            model.getParent() != null ? model.getParent().getArtifactId() : null);
-                    case VERSION -> firstNonNull(model.getVersion(),
-                            model.getParent() != null ? model.getParent().getVersion() : null);
+                    case ARTIFACT_ID -> coordinates.artifactId();
+                    case VERSION -> coordinates.version();
                 };
             }
         } catch (Exception ignored) { /* fall through and return null */ }
         return null;
     }
 
-    private static String firstNonNull(String a, String b) {
-        return a != null && !a.isBlank() ? a : b;
+    /**
+     * Reads the coordinates of one POM; {@code pom} is left open.
+     *
+     * @throws XMLStreamException when the POM is not well-formed up to the point
+     *                            where the coordinates are known
+     */
+    static Coordinates coordinates(InputStream pom) throws XMLStreamException {
+        XMLStreamReader xml = XML_INPUT.createXMLStreamReader(pom);
+
+        String artifactId = null;
+        String version = null;
+        String parentArtifactId = null;
+        String parentVersion = null;
+        Map<String, String> properties = new HashMap<>();
+
+        try {
+            int depth = 0;
+            String section = null; // parent | properties
+
+            while (xml.hasNext()) {
+                int event = xml.next();
+
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (--depth == 1) section = null;
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) continue;
+
+                String name = xml.getLocalName();
+
+                if (depth == 0) {
+                    if (!name.equals("project")) break;
+                    depth++;
+                } else if (depth == 1) {
+                    switch (name) {
+                        case "artifactId" -> artifactId = xml.getElementText().trim();
+                        case "version" -> version = xml.getElementText().trim();
+                        case "parent", "properties" -> {
+                            section = name;
+                            depth++;
+                        }
+                        default -> skipElement(xml);
+                    }
+                } else if ("properties".equals(section)) {
+                    properties.put(name, xml.getElementText().trim());
+                } else if (name.equals("artifactId")) {
+                    parentArtifactId = xml.getElementText().trim();
+                } else if (name.equals("version")) {
+                    parentVersion = xml.getElementText().trim();
+                } else {
+                    skipElement(xml);
+                }
+
+                if (depth == 1 && notBlank(artifactId) && notBlank(version)
+                        && resolve(version, lookup(properties, artifactId, version, parentVersion)) != null) {
+                    break;
+                }
+            }
+        } finally {
+            xml.close();
+        }
+
+        Map<String, String> lookup = lookup(properties, artifactId, version, parentVersion);
+
+        return new Coordinates(
+                firstNonBlank(artifactId, parentArtifactId),
+                firstNonBlank(resolve(version, lookup), resolve(parentVersion, lookup))
+        );
+    }
+
+    /* values ${...} may refer to: <properties> plus the project/parent coordinates */
+    private static Map<String, String> lookup(Map<String, String> properties,
+                                              String artifactId,
+                                              String version,
+                                              String parentVersion) {
+        Map<String, String> lookup = new HashMap<>(properties);
+        putIfPresent(lookup, "project.artifactId", artifactId);
+        putIfPresent(lookup, "project.version", version);
+        putIfPresent(lookup, "project.parent.version", parentVersion);
+        putIfPresent(lookup, "parent.version", parentVersion);
+        return lookup;
+    }
+
+    /* null when blank or when a placeholder is left after resolving */
+    static String resolve(String value, Map<String, String> lookup) {
+        if (!notBlank(value)) return null;
+
+        String resolved = value;
+        for (int i = 0; i < MAX_RESOLVE_DEPTH && resolved.contains("${"); i++) {
+            Matcher matcher = PLACEHOLDER.matcher(resolved);
+            String next = matcher.replaceAll(m -> Matcher.quoteReplacement(lookup.getOrDefault(m.group(1), m.group())));
+            if (next.equals(resolved)) break;
+            resolved = next;
+        }
+
+        return resolved.contains("${") ? null : resolved;
+    }
+
+    private static void skipElement(XMLStreamReader xml) throws XMLStreamException {
+        int open = 1;
+        while (open > 0) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) open++;
+            else if (event == XMLStreamConstants.END_ELEMENT) open--;
+        }
+    }
+
+    private static XMLInputFactory xmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        return factory;
+    }
+
+    private static void putIfPresent(Map<String, String> map, String key, String value) {
+        if (notBlank(value)) map.put(key, value);
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+
+    private static String firstNonBlank(String a, String b) {
+        return notBlank(a) ? a : notBlank(b) ? b : null;
     }
-}
\ No newline at end of file
+}
@@ -6,14 +6,29 @@ import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.Enumeration;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
@@ -21,9 +36,19 @@ import java.util.zip.ZipInputStream;
  * Extracts ZIP archives in a secure (zip-slip safe) manner with basic guardrails.
  *
  * Guardrails (defaults):
+ * - drops entries rejected by a {@link ZipEntryFilter} (globs, .gitignore) by
+ *   name alone; they do not count towards MAX_ENTRIES
  * - skips unsupported file types (FileType.UNKNOWN) -> logs "file skipped"
  * - skips entries larger than MAX_ENTRY_BYTES      -> logs "file skipped"
  * - stops after MAX_ENTRIES and/or MAX_TOTAL_BYTES
+ * - with a {@link NestedArchives} handler, descends into nested archives
+ *   (*.zip, *-sources.jar) up to MAX_NESTING_DEPTH levels, all levels sharing
+ *   the entry and byte limits of the outer archive
+ *
+ * {@link #read(ZipFile, Path, long)} applies the same guardrails but keeps the
+ * entries in memory, spilling to disk only as a fallback. Entries that are
+ * not valid UTF-8 are read as ISO-8859-1 and NUL characters are dropped, so
+ * every entry it returns is text a worker can store.
  *
  * Note: defaults are intentionally conservative to avoid embedding huge low-signal files.
  * Tune the constants if needed.
@@ -41,6 +66,12 @@ public final class ZipUtil {
     /** Max number of entries we will consider (zip bomb guardrail). */
     public static final int MAX_ENTRIES = 10_000;
 
+    /** Levels of nested archives descended into; 0 = nested archives are skipped. */
+    public static final int MAX_NESTING_DEPTH = 2;
+
+    /** Entries planned per inflate thread before a window is committed. */
+    private static final int WINDOW_PER_THREAD = 4;
+
     private ZipUtil() { }
 
     public static List<Path> unzip(Path zipPath, Path targetDir) throws IOException {
@@ -60,93 +91,596 @@ public final class ZipUtil {
                                    int maxEntries,
                                    boolean skipUnsupportedTypes) throws IOException {
 
-        String requestId = MDC.get("requestId");
+        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
+            return unzip(zipFile, targetDir, maxEntryBytes, maxTotalBytes, maxEntries, skipUnsupportedTypes);
+        }
+    }
+
+    /**
+     * Extracts from an already open archive with the default guardrails, so the
+     * caller can share one {@link ZipFile} with {@link ZipManifestScanner}.
+     */
+    public static List<Path> unzip(ZipFile zipFile, Path targetDir) throws IOException {
+        return unzip(zipFile, targetDir, 1);
+    }
+
+    /**
+     * Same as {@link #unzip(ZipFile, Path)}, inflating up to {@code parallelism}
+     * entries at a time. The result does not depend on the parallelism.
+     */
+    public static List<Path> unzip(ZipFile zipFile, Path targetDir, int parallelism) throws IOException {
+        return unzip(zipFile, targetDir, Limits.DEFAULT, parallelism);
+    }
+
+    public static List<Path> unzip(ZipFile zipFile, Path targetDir, Limits limits, int parallelism) throws IOException {
+        return unzip(zipFile, targetDir, limits, ZipEntryFilter.ACCEPT_ALL, parallelism);
+    }
+
+    public static List<Path> unzip(ZipFile zipFile,
+                                   Path targetDir,
+                                   Limits limits,
+                                   ZipEntryFilter filter,
+                                   int parallelism) throws IOException {
+
         Files.createDirectories(targetDir);
 
-        long totalExtractedBytes = 0L;
-        int extractedCount = 0;
-        int skippedCount = 0;
-        boolean stoppedByLimit = false;
+        FileSink sink = new FileSink();
+        walk(zipFile, targetDir, limits, filter, true, parallelism, UnchangedFilter.NONE, sink);
 
-        List<Path> extracted = new ArrayList<>();
+        return sink.extracted;
+    }
 
-        try (ZipFile zipFile = new ZipFile(zipPath.toFile())) {
-            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+    public static List<Path> unzip(ZipFile zipFile,
+                                   Path targetDir,
+                                   long maxEntryBytes,
+                                   long maxTotalBytes,
+                                   int maxEntries,
+                                   boolean skipUnsupportedTypes) throws IOException {
+        return unzip(zipFile, targetDir, maxEntryBytes, maxTotalBytes, maxEntries, skipUnsupportedTypes, 1);
+    }
 
-            while (entries.hasMoreElements()) {
-                if (extractedCount + skippedCount >= maxEntries) {
-                    stoppedByLimit = true;
-                    log.warn("event=zip_extract_stopped requestId={} zip={} reason=max_entries limit={}",
-                            requestId, zipPath.getFileName(), maxEntries);
-                    break;
-                }
+    public static List<Path> unzip(ZipFile zipFile,
+                                   Path targetDir,
+                                   long maxEntryBytes,
+                                   long maxTotalBytes,
+                                   int maxEntries,
+                                   boolean skipUnsupportedTypes,
+                                   int parallelism) throws IOException {
+
+        Files.createDirectories(targetDir);
+
+        FileSink sink = new FileSink();
+        walk(zipFile, targetDir, new Limits(maxEntryBytes, maxTotalBytes, maxEntries), ZipEntryFilter.ACCEPT_ALL,
+                skipUnsupportedTypes, parallelism, UnchangedFilter.NONE, sink);
+
+        return sink.extracted;
+    }
+
+    /**
+     * Guardrails of one extraction; see the constants for the defaults.
+     */
+    public record Limits(long maxEntryBytes, long maxTotalBytes, int maxEntries, int maxNestingDepth) {
+
+        public static final Limits DEFAULT = new Limits(MAX_ENTRY_BYTES, MAX_TOTAL_BYTES, MAX_ENTRIES);
+
+        public Limits(long maxEntryBytes, long maxTotalBytes, int maxEntries) {
+            this(maxEntryBytes, maxTotalBytes, maxEntries, MAX_NESTING_DEPTH);
+        }
+    }
+
+    /**
+     * Outcome of one extraction.
+     *
+     * @param unchangedCount entries skipped by the {@link UnchangedFilter}, never inflated
+     * @param excludedCount  entries dropped by the {@link ZipEntryFilter}, never inflated
+     * @param stopReason     {@code max_entries} or {@code max_total_bytes} when the
+     *                       archive was truncated, otherwise {@code null}
+     */
+    public record Summary(int extractedCount,
+                          int skippedCount,
+                          int unchangedCount,
+                          int excludedCount,
+                          long totalExtractedBytes,
+                          String stopReason) {
+
+        public boolean stoppedByLimit() {
+            return stopReason != null;
+        }
+    }
+
+    /**
+     * An accepted archive entry, either decoded in memory ({@code content}) or,
+     * as a fallback, written below the spill directory ({@code spilled}).
+     *
+     * @param name sanitized entry name relative to the archive root, '/' separated
+     * @param crc  CRC-32 from the central directory, -1 if unknown
+     * @param size uncompressed size, -1 if unknown
+     */
+    public record Entry(String name, String content, Path spilled, long crc, long size) {
+
+        public Entry(String name, String content, Path spilled) {
+            this(name, content, spilled, -1L, -1L);
+        }
+
+        public boolean inline() {
+            return content != null;
+        }
+    }
+
+    /**
+     * Receives decoded entries in central directory order, one batch at a time.
+     */
+    @FunctionalInterface
+    public interface BatchConsumer {
+        void accept(List<Entry> batch) throws IOException;
+    }
+
+    /**
+     * Tells from the central directory alone (CRC-32 and uncompressed size)
+     * that an entry was already ingested, so it can be skipped without inflating it.
+     */
+    @FunctionalInterface
+    public interface UnchangedFilter {
+
+        UnchangedFilter NONE = (name, crc, size) -> false;
+
+        boolean unchanged(String name, long crc, long size);
+    }
+
+    public static List<Entry> read(ZipFile zipFile, Path spillDir, long maxInlineBytes) throws IOException {
+        return read(zipFile, spillDir, maxInlineBytes, 1);
+    }
+
+    public static List<Entry> read(ZipFile zipFile, Path spillDir, long maxInlineBytes, int parallelism) throws IOException {
+        return read(zipFile, spillDir, maxInlineBytes, MAX_ENTRY_BYTES, MAX_TOTAL_BYTES, MAX_ENTRIES, parallelism);
+    }
 
+    /**
+     * Reads supported entries into memory under the same guardrails as
+     * {@link #unzip(ZipFile, Path)}, without staging them on disk.
+     *
+     * An entry is only written below {@code spillDir} (created on first use),
+     * as UTF-8, when it would push the decoded total over {@code maxInlineBytes}.
+     */
+    public static List<Entry> read(ZipFile zipFile,
+                                   Path spillDir,
+                                   long maxInlineBytes,
+                                   long maxEntryBytes,
+                                   long maxTotalBytes,
+                                   int maxEntries,
+                                   int parallelism) throws IOException {
+
+        InlineSink sink = new InlineSink(maxInlineBytes, null);
+        walk(zipFile, spillDir, new Limits(maxEntryBytes, maxTotalBytes, maxEntries), ZipEntryFilter.ACCEPT_ALL,
+                true, parallelism, UnchangedFilter.NONE, sink);
+
+        logSpilled(zipFile, sink);
+        return sink.batch;
+    }
+
+    /**
+     * Incremental variant of {@link #read(ZipFile, Path, long)} for archives of
+     * any size: decoded entries are handed to {@code consumer} whenever the
+     * current batch reaches {@code batchMaxBytes}, so at most one batch (plus one
+     * inflate window) is held in memory. Every entry is handed over as text
+     * (entries that are not valid UTF-8 are read as ISO-8859-1); nothing is
+     * spilled, {@code spillDir} only receives scratch copies of nested archives.
+     */
+    public static Summary read(ZipFile zipFile,
+                               Path spillDir,
+                               Limits limits,
+                               long batchMaxBytes,
+                               int parallelism,
+                               BatchConsumer consumer) throws IOException {
+        return read(zipFile, spillDir, limits, batchMaxBytes, parallelism, UnchangedFilter.NONE, consumer);
+    }
+
+    /**
+     * Same as {@link #read(ZipFile, Path, Limits, long, int, BatchConsumer)},
+     * leaving out entries that {@code unchanged} recognizes; those are counted
+     * in {@link Summary#unchangedCount()} but neither inflated nor handed over.
+     */
+    public static Summary read(ZipFile zipFile,
+                               Path spillDir,
+                               Limits limits,
+                               long batchMaxBytes,
+                               int parallelism,
+                               UnchangedFilter unchanged,
+                               BatchConsumer consumer) throws IOException {
+        return read(zipFile, spillDir, limits, batchMaxBytes, parallelism, ZipEntryFilter.ACCEPT_ALL, unchanged, consumer);
+    }
+
+    /**
+     * Same as {@link #read(ZipFile, Path, Limits, long, int, UnchangedFilter, BatchConsumer)},
+     * leaving out entries that {@code filter} rejects by name; those are counted
+     * in {@link Summary#excludedCount()}.
+     */
+    public static Summary read(ZipFile zipFile,
+                               Path spillDir,
+                               Limits limits,
+                               long batchMaxBytes,
+                               int parallelism,
+                               ZipEntryFilter filter,
+                               UnchangedFilter unchanged,
+                               BatchConsumer consumer) throws IOException {
+        return read(zipFile, spillDir, limits, batchMaxBytes, parallelism, new Level(filter, unchanged, consumer), null);
+    }
+
+    /**
+     * Same as {@link #read(ZipFile, Path, Limits, long, int, ZipEntryFilter, UnchangedFilter, BatchConsumer)}
+     * for the outer archive ({@code root}), descending into nested archives when
+     * {@code nested} is given.
+     *
+     * A nested archive is inflated once to a scratch file below {@code spillDir}
+     * (removed when done) and walked like the outer one, in central directory
+     * order at the position of its entry; its entries are named
+     * {@code <archive entry>!/<inner name>}. Entry count and byte budget are
+     * shared by all levels.
+     */
+    public static Summary read(ZipFile zipFile,
+                               Path spillDir,
+                               Limits limits,
+                               long batchMaxBytes,
+                               int parallelism,
+                               Level root,
+                               NestedArchives nested) throws IOException {
+
+        InlineSink sink = new InlineSink(batchMaxBytes, root.consumer());
+        Nesting nesting = nested == null ? null : new Nesting(nested, batchMaxBytes);
+        Summary summary = walk(zipFile, spillDir, limits, root.filter(), true, parallelism, root.unchanged(), sink, nesting);
+
+        logSpilled(zipFile, sink);
+        return summary;
+    }
+
+    /**
+     * Filters and consumer for the entries of one archive level.
+     */
+    public record Level(ZipEntryFilter filter, UnchangedFilter unchanged, BatchConsumer consumer) { }
+
+    /**
+     * Called for every nested archive that is about to be walked.
+     */
+    @FunctionalInterface
+    public interface NestedArchives {
+
+        /**
+         * @param name    entry name of the nested archive, prefixed like its entries
+         *                when it is itself nested ({@code a.zip!/b.zip})
+         * @param archive the nested archive, open while its entries are walked
+         * @return where its entries go, or {@code null} to skip it
+         */
+        Level open(String name, ZipFile archive) throws IOException;
+    }
+
+    /* entries descended into: *.zip and source jars; binary jars only hold classes */
+    static boolean isNestedArchive(String entryName) {
+        String n = entryName.toLowerCase(Locale.ROOT);
+        return n.endsWith(".zip") || n.endsWith("-sources.jar");
+    }
+
+    private static void logSpilled(ZipFile zipFile, InlineSink sink) {
+        if (sink.spilledCount > 0) {
+            log.info("event=zip_entries_spilled requestId={} zip={} spilledCount={} batches={}",
+                    MDC.get("requestId"), Path.of(zipFile.getName()).getFileName(),
+                    sink.spilledCount, sink.flushedBatches);
+        }
+    }
+
+    /*
+     * Guardrail loop shared by unzip and read. The central directory is consumed
+     * in windows of at most WINDOW_PER_THREAD * parallelism files, each in three steps:
+     * 1. plan:    drop entries the filter rejects (not counted as seen),
+     *             check zip-slip, mark unsupported, declared-too-large and
+     *             unchanged (same CRC-32 and size as last time) entries
+     * 2. inflate: with parallelism > 1, stage the remaining entries on a bounded
+     *             pool (one per walk, nested levels included); all workers charge one atomic byte budget and give up on
+     *             an entry once the remaining total is used up
+     * 3. commit:  in central directory order, inflating on the caller thread
+     *             whatever step 2 did not, and stop at the first entry that no
+     *             longer fits maxTotalBytes
+     * A nested archive ends its window and is walked by the commit step, with
+     * the same three steps.
+     * Outcomes of step 2 only depend on entry content, so the result is the same
+     * for every parallelism and schedule. At most one window is staged at a time,
+     * which bounds memory and scratch disk independently of the archive size.
+     */
+    private static <T> Summary walk(ZipFile zipFile,
+                                    Path targetDir,
+                                    Limits limits,
+                                    ZipEntryFilter filter,
+                                    boolean skipUnsupportedTypes,
+                                    int parallelism,
+                                    UnchangedFilter unchanged,
+                                    EntrySink<T> sink) throws IOException {
+        return walk(zipFile, targetDir, limits, filter, skipUnsupportedTypes, parallelism, unchanged, sink, null);
+    }
+
+    private static <T> Summary walk(ZipFile zipFile,
+                                    Path targetDir,
+                                    Limits limits,
+                                    ZipEntryFilter filter,
+                                    boolean skipUnsupportedTypes,
+                                    int parallelism,
+                                    UnchangedFilter unchanged,
+                                    EntrySink<T> sink,
+                                    Nesting nesting) throws IOException {
+
+        String requestId = MDC.get("requestId");
+        Path zipName = Path.of(zipFile.getName()).getFileName();
+
+        Progress progress = new Progress();
+        ThreadFactory threads = Thread.ofPlatform().name("zip-inflate-", 0).daemon(true).factory();
+
+        try (ExecutorService pool = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, threads) : null) {
+            progress.pool = pool;
+            walkLevel(zipFile, zipName.toString(), targetDir, limits, filter, skipUnsupportedTypes, parallelism, unchanged, sink,
+                    nesting, progress, "", 0);
+        }
+
+        sink.finish();
+
+        log.info("event=zip_extract_complete requestId={} zip={} extractedCount={} skippedCount={} unchangedCount={} excludedCount={} nestedCount={} totalExtractedBytes={} stoppedByLimit={} parallelism={}",
+                requestId, zipName, progress.extractedCount, progress.skippedCount, progress.unchangedCount,
+                progress.excludedCount, progress.nestedCount, progress.totalExtractedBytes,
+                progress.stopReason != null, parallelism);
+
+        return new Summary(progress.extractedCount, progress.skippedCount, progress.unchangedCount,
+                progress.excludedCount, progress.totalExtractedBytes, progress.stopReason);
+    }
+
+    /* one archive level; nested levels are walked from its commit step */
+    private static <T> void walkLevel(ZipFile zipFile,
+                                      String zipName,
+                                      Path targetDir,
+                                      Limits limits,
+                                      ZipEntryFilter filter,
+                                      boolean skipUnsupportedTypes,
+                                      int parallelism,
+                                      UnchangedFilter unchanged,
+                                      EntrySink<T> sink,
+                                      Nesting nesting,
+                                      Progress progress,
+                                      String prefix,
+                                      int depth) throws IOException {
+
+        String requestId = MDC.get("requestId");
+
+        int windowSize = Math.max(1, parallelism) * WINDOW_PER_THREAD;
+
+        Enumeration<? extends ZipEntry> entries = zipFile.entries();
+        List<Slot<T>> window = new ArrayList<>(windowSize);
+
+        while (progress.stopReason == null && entries.hasMoreElements()) {
+            window.clear();
+
+            // 1. plan
+            while (window.size() < windowSize && entries.hasMoreElements()) {
                 ZipEntry entry = entries.nextElement();
                 if (entry.isDirectory()) continue;
 
                 String entryName = sanitizeEntryName(entry.getName());
-                Path resolved = resolveZipSlipSafe(targetDir, entryName);
+                if (!filter.accepts(entryName)) {
+                    progress.excludedCount++;
+                    continue;
+                }
 
-                if (skipUnsupportedTypes) {
-                    FileType type = FileTypeResolver.resolve(resolved.getFileName().toString());
-                    if (type == FileType.UNKNOWN) {
-                        skippedCount++;
-                        log.info("event=zip_entry_skipped requestId={} zip={} entry={} reason=unsupported_type",
-                                requestId, zipPath.getFileName(), entryName);
-                        continue;
-                    }
+                if (progress.seen >= limits.maxEntries()) {
+                    progress.stopReason = "max_entries";
+                    log.warn("event=zip_extract_stopped requestId={} zip={} reason=max_entries limit={}",
+                            requestId, zipName, limits.maxEntries());
+                    break;
                 }
+                progress.seen++;
 
-                long declaredSize = entry.getSize(); // may be -1
-                if (declaredSize > 0 && declaredSize > maxEntryBytes) {
-                    skippedCount++;
-                    log.info("event=zip_entry_skipped requestId={} zip={} entry={} reason=too_large declaredSize={} limit={}",
-                            requestId, zipPath.getFileName(), entryName, declaredSize, maxEntryBytes);
-                    continue;
+                String name = prefix + entryName;
+                Slot<T> slot = new Slot<>(entry, name, resolveZipSlipSafe(targetDir, name));
+
+                if (nesting != null && depth < limits.maxNestingDepth() && isNestedArchive(entryName)) {
+                    slot.outcome = Outcome.NESTED;
+                } else if (skipUnsupportedTypes
+                        && FileTypeResolver.resolve(slot.resolved.getFileName().toString()) == FileType.UNKNOWN) {
+                    slot.outcome = Outcome.UNSUPPORTED;
+                } else if (entry.getSize() > 0 && entry.getSize() > limits.maxEntryBytes()) { // size may be -1
+                    slot.outcome = Outcome.TOO_LARGE;
+                } else if (entry.getCrc() >= 0 && entry.getSize() >= 0
+                        && unchanged.unchanged(name, entry.getCrc(), entry.getSize())) {
+                    slot.outcome = Outcome.UNCHANGED;
                 }
 
-                long remainingTotal = maxTotalBytes - totalExtractedBytes;
-                if (remainingTotal <= 0) {
-                    stoppedByLimit = true;
-                    log.warn("event=zip_extract_stopped requestId={} zip={} reason=max_total_bytes limit={}",
-                            requestId, zipPath.getFileName(), maxTotalBytes);
-                    break;
+                window.add(slot);
+
+                // a nested archive closes the window, so entries after it are planned
+                // (and counted against maxEntries) only once it has been walked
+                if (slot.outcome == Outcome.NESTED) break;
+            }
+
+            try {
+                // 2. inflate
+                if (progress.pool != null) {
+                    ByteBudget budget = new ByteBudget(limits.maxTotalBytes() - progress.totalExtractedBytes);
+                    inflateParallel(zipFile, window, limits.maxEntryBytes(), budget, progress.pool, sink);
                 }
 
-                Files.createDirectories(resolved.getParent());
+                // 3. commit
+                for (Slot<T> slot : window) {
+                    if (slot.outcome == Outcome.PENDING || slot.outcome == Outcome.ABORTED) {
+                        inflate(zipFile, slot, limits.maxEntryBytes(), new ByteBudget(Long.MAX_VALUE), sink);
+                    }
 
-                Path tmp = resolved.getParent().resolve(resolved.getFileName() + ".part-" + UUID.randomUUID());
-                long written;
+                    if (slot.outcome == Outcome.NESTED) {
+                        descend(zipFile, slot, sink, targetDir, limits, parallelism, nesting, progress, depth);
+                        if (progress.stopReason != null) break;
+                    } else if (slot.outcome == Outcome.UNSUPPORTED) {
+                        progress.skippedCount++;
+                        log.info("event=zip_entry_skipped requestId={} zip={} entry={} reason=unsupported_type",
+                                requestId, zipName, slot.name);
+                    } else if (slot.outcome == Outcome.TOO_LARGE) {
+                        progress.skippedCount++;
+                        log.info("event=zip_entry_skipped requestId={} zip={} entry={} reason=too_large declaredSize={} limit={}",
+                                requestId, zipName, slot.name, slot.entry.getSize(), limits.maxEntryBytes());
+                    } else if (slot.outcome == Outcome.UNCHANGED) {
+                        progress.unchangedCount++;
+                        log.debug("event=zip_entry_skipped requestId={} zip={} entry={} reason=unchanged",
+                                requestId, zipName, slot.name);
+                    } else {
+                        long size = sink.size(slot.staged);
+                        if (size > limits.maxTotalBytes() - progress.totalExtractedBytes) {
+                            progress.stopReason = "max_total_bytes";
+                            log.warn("event=zip_extract_stopped requestId={} zip={} reason=max_total_bytes limit={}",
+                                    requestId, zipName, limits.maxTotalBytes());
+                            break;
+                        }
 
-                try (InputStream entryIn = zipFile.getInputStream(entry)) {
-                    written = copyWithLimits(entryIn, tmp, maxEntryBytes, remainingTotal);
-                } catch (EntryTooLargeException e) {
-                    skippedCount++;
-                    deleteQuietly(tmp);
-                    log.info("event=zip_entry_skipped requestId={} zip={} entry={} reason=too_large limit={}",
-                            requestId, zipPath.getFileName(), entryName, maxEntryBytes);
-                    continue;
-                } catch (TotalLimitReachedException e) {
-                    stoppedByLimit = true;
-                    deleteQuietly(tmp);
-                    log.warn("event=zip_extract_stopped requestId={} zip={} reason=max_total_bytes limit={}",
-                            requestId, zipPath.getFileName(), maxTotalBytes);
-                    break;
+                        T staged = slot.staged;
+                        slot.staged = null;
+                        sink.commit(slot.entry, slot.name, slot.resolved, staged);
+
+                        progress.extractedCount++;
+                        progress.totalExtractedBytes += size;
+                    }
+                }
+            } finally {
+                // staged past the limit, or left over after a failure
+                for (Slot<T> slot : window) {
+                    if (slot.staged != null) {
+                        sink.discard(slot.staged);
+                    }
+                }
+            }
+        }
+
+    }
+
+    /*
+     * Walks a nested archive in place of its entry. The archive is inflated to a
+     * scratch file so it can be opened with its central directory like the outer
+     * one; those bytes are charged to the shared total like any extracted entry,
+     * so inner archives whose entries are all dropped still use up the limit.
+     */
+    private static <T> void descend(ZipFile zipFile,
+                                    Slot<T> slot,
+                                    EntrySink<T> enclosing,
+                                    Path targetDir,
+                                    Limits limits,
+                                    int parallelism,
+                                    Nesting nesting,
+                                    Progress progress,
+                                    int depth) throws IOException {
+
+        String requestId = MDC.get("requestId");
+
+        Files.createDirectories(targetDir);
+        Path scratch = targetDir.resolve(".nested-" + UUID.randomUUID() + ".zip");
+        try {
+            ByteBudget budget = new ByteBudget(limits.maxTotalBytes() - progress.totalExtractedBytes);
+            try (InputStream in = zipFile.getInputStream(slot.entry)) {
+                progress.totalExtractedBytes += copyWithLimits(in, scratch, Long.MAX_VALUE, budget);
+            } catch (TotalLimitReachedException e) {
+                progress.stopReason = "max_total_bytes";
+                log.warn("event=zip_extract_stopped requestId={} entry={} reason=max_total_bytes limit={}",
+                        requestId, slot.name, limits.maxTotalBytes());
+                return;
+            }
+
+            ZipFile inner;
+            try {
+                inner = new ZipFile(scratch.toFile());
+            } catch (ZipException e) {
+                progress.skippedCount++;
+                log.info("event=zip_entry_skipped requestId={} entry={} reason=nested_unreadable msg={}",
+                        requestId, slot.name, e.getMessage());
+                return;
+            }
+
+            try (inner) {
+                Level level = nesting.handler().open(slot.name, inner);
+                if (level == null) {
+                    progress.skippedCount++;
+                    log.info("event=zip_entry_skipped requestId={} entry={} reason=nested_declined",
+                            requestId, slot.name);
+                    return;
                 }
 
-                // success: move into place
-                Files.move(tmp, resolved, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                progress.nestedCount++;
+                log.debug("event=zip_nested_open requestId={} entry={} depth={}", requestId, slot.name, depth + 1);
 
-                extracted.add(resolved);
-                extractedCount++;
-                totalExtractedBytes += written;
+                // hand over what precedes the nested archive first, keeping central directory order
+                enclosing.checkpoint();
+
+                InlineSink sink = new InlineSink(nesting.batchMaxBytes(), level.consumer());
+                walkLevel(inner, slot.name, targetDir, limits, level.filter(), true, parallelism,
+                        level.unchanged(), sink, nesting, progress, slot.name + "!/", depth + 1);
+                sink.finish();
             }
+        } finally {
+            deleteQuietly(scratch);
         }
+    }
 
-        log.info("event=zip_extract_complete requestId={} zip={} extractedCount={} skippedCount={} totalExtractedBytes={} stoppedByLimit={}",
-                requestId, zipPath.getFileName(), extractedCount, skippedCount, totalExtractedBytes, stoppedByLimit);
+    private static <T> void inflateParallel(ZipFile zipFile,
+                                            List<Slot<T>> slots,
+                                            long maxEntryBytes,
+                                            ByteBudget budget,
+                                            ExecutorService pool,
+                                            EntrySink<T> sink) throws IOException {
 
-        return extracted;
+        List<Slot<T>> pending = slots.stream()
+                .filter(slot -> slot.outcome == Outcome.PENDING)
+                .toList();
+
+        if (pending.size() < 2) {
+            return;
+        }
+
+        // the pool outlives the window, so every task is awaited before its slots are discarded
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>(pending.size());
+
+        for (Slot<T> slot : pending) {
+            futures.add(pool.submit(() -> {
+                if (failed.get() || budget.exhausted()) {
+                    slot.outcome = Outcome.ABORTED;
+                } else {
+                    inflate(zipFile, slot, maxEntryBytes, budget, sink);
+                }
+                return null;
+            }));
+        }
+
+        Throwable first = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                failed.set(true);
+                if (first == null) first = e.getCause();
+            } catch (InterruptedException e) {
+                failed.set(true);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("zip extraction interrupted");
+            }
+        }
+
+        if (first instanceof IOException io) throw io;
+        if (first instanceof RuntimeException re) throw re;
+        if (first != null) throw new IOException(first);
+    }
+
+    private static <T> void inflate(ZipFile zipFile,
+                                    Slot<T> slot,
+                                    long maxEntryBytes,
+                                    ByteBudget budget,
+                                    EntrySink<T> sink) throws IOException {
+
+        try (InputStream entryIn = zipFile.getInputStream(slot.entry)) {
+            slot.staged = sink.inflate(slot.resolved, entryIn, maxEntryBytes, budget);
+            slot.outcome = Outcome.INFLATED;
+        } catch (EntryTooLargeException e) {
+            slot.outcome = Outcome.TOO_LARGE;
+        } catch (TotalLimitReachedException e) {
+            slot.outcome = Outcome.ABORTED;
+        }
     }
 
     private static List<Path> unzip(InputStream is,
@@ -210,7 +744,7 @@ public final class ZipUtil {
 
                 Path tmp = resolved.getParent().resolve(resolved.getFileName() + ".part-" + UUID.randomUUID());
                 try {
-                    long written = copyWithLimits(zis, tmp, ZipUtil.MAX_ENTRY_BYTES, remainingTotal);
+                    long written = copyWithLimits(zis, tmp, ZipUtil.MAX_ENTRY_BYTES, new ByteBudget(remainingTotal));
                     Files.move(tmp, resolved, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
 
                     extracted.add(resolved);
@@ -238,7 +772,7 @@ public final class ZipUtil {
         return extracted;
     }
 
-    private static String sanitizeEntryName(String name) {
+    static String sanitizeEntryName(String name) {
         if (name == null) return "";
         String n = name.replace('\\', '/');
         while (n.startsWith("/")) n = n.substring(1);
@@ -256,7 +790,7 @@ public final class ZipUtil {
     private static long copyWithLimits(InputStream in,
                                        Path outFile,
                                        long maxEntryBytes,
-                                       long maxTotalBytesRemaining) throws IOException {
+                                       ByteBudget budget) throws IOException {
         long written = 0L;
         byte[] buf = new byte[8192];
 
@@ -266,17 +800,59 @@ public final class ZipUtil {
                 if (written + r > maxEntryBytes) {
                     throw new EntryTooLargeException();
                 }
-                if (written + r > maxTotalBytesRemaining) {
-                    throw new TotalLimitReachedException();
-                }
-                out.write(buf, 0, r);
+                budget.charge(r);
                 written += r;
+                out.write(buf, 0, r);
             }
+        } catch (IOException | RuntimeException e) {
+            budget.refund(written);
+            throw e;
         }
 
         return written;
     }
 
+    private static byte[] readWithLimits(InputStream in,
+                                         long maxEntryBytes,
+                                         ByteBudget budget) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+
+        try {
+            int r;
+            while ((r = in.read(buf)) != -1) {
+                if (out.size() + r > maxEntryBytes) {
+                    throw new EntryTooLargeException();
+                }
+                budget.charge(r);
+                out.write(buf, 0, r);
+            }
+        } catch (IOException | RuntimeException e) {
+            budget.refund(out.size());
+            throw e;
+        }
+
+        return out.toByteArray();
+    }
+
+    /*
+     * UTF-8, or ISO-8859-1 for legacy sources that are not valid UTF-8 (it maps
+     * every byte, so this never fails); NUL cannot be stored in a text column
+     */
+    private static String decodeText(byte[] bytes) {
+        String text;
+        try {
+            text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            text = new String(bytes, StandardCharsets.ISO_8859_1);
+        }
+        return text.indexOf('\0') >= 0 ? text.replace("\0", "") : text;
+    }
+
     private static void drainEntry(InputStream in) throws IOException {
         byte[] buf = new byte[8192];
         while (in.read(buf) != -1) {
@@ -291,6 +867,213 @@ public final class ZipUtil {
         }
     }
 
+    /* unzip/read specific part of walk: stage one entry, then keep or drop it */
+    private interface EntrySink<T> {
+
+        /**
+         * Inflates one entry, charging {@code budget} as bytes are read. May run on
+         * a pool thread; must clean up after itself when it throws.
+         */
+        T inflate(Path resolved, InputStream in, long maxEntryBytes, ByteBudget budget) throws IOException;
+
+        long size(T staged);
+
+        /* called on the caller thread, in central directory order */
+        void commit(ZipEntry entry, String entryName, Path resolved, T staged) throws IOException;
+
+        void discard(T staged);
+
+        /* called before the entries of a nested archive are handed over elsewhere */
+        default void checkpoint() throws IOException {
+        }
+
+        /* called once after the last commit */
+        default void finish() throws IOException {
+        }
+    }
+
+    private static final class FileSink implements EntrySink<FileSink.Part> {
+
+        private record Part(Path tmp, long size) { }
+
+        private final List<Path> extracted = new ArrayList<>();
+
+        @Override
+        public Part inflate(Path resolved, InputStream in, long maxEntryBytes, ByteBudget budget) throws IOException {
+            Files.createDirectories(resolved.getParent());
+
+            Path tmp = resolved.getParent().resolve(resolved.getFileName() + ".part-" + UUID.randomUUID());
+            try {
+                return new Part(tmp, copyWithLimits(in, tmp, maxEntryBytes, budget));
+            } catch (IOException | RuntimeException e) {
+                deleteQuietly(tmp);
+                throw e;
+            }
+        }
+
+        @Override
+        public long size(Part staged) {
+            return staged.size();
+        }
+
+        @Override
+        public void commit(ZipEntry entry, String entryName, Path resolved, Part staged) throws IOException {
+            // success: move into place
+            Files.move(staged.tmp(), resolved, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            extracted.add(resolved);
+        }
+
+        @Override
+        public void discard(Part staged) {
+            deleteQuietly(staged.tmp());
+        }
+    }
+
+    private static final class InlineSink implements EntrySink<InlineSink.Decoded> {
+
+        /* size is the entry's byte count, not the length of the text */
+        private record Decoded(String text, long size) { }
+
+        private final long maxInlineBytes;
+        private final BatchConsumer consumer; // null: keep everything, spill past maxInlineBytes
+        private List<Entry> batch = new ArrayList<>();
+        private long inlineBytes;
+        private int spilledCount;
+        private int flushedBatches;
+
+        InlineSink(long maxInlineBytes, BatchConsumer consumer) {
+            this.maxInlineBytes = maxInlineBytes;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public Decoded inflate(Path resolved, InputStream in, long maxEntryBytes, ByteBudget budget) throws IOException {
+            byte[] bytes = readWithLimits(in, maxEntryBytes, budget);
+            return new Decoded(decodeText(bytes), bytes.length);
+        }
+
+        @Override
+        public long size(Decoded staged) {
+            return staged.size();
+        }
+
+        @Override
+        public void commit(ZipEntry entry, String entryName, Path resolved, Decoded staged) throws IOException {
+            if (consumer != null && inlineBytes + staged.size() > maxInlineBytes) {
+                flush();
+            }
+
+            if (consumer != null || inlineBytes + staged.size() <= maxInlineBytes) {
+                inlineBytes += staged.size();
+                batch.add(new Entry(entryName, staged.text(), null, entry.getCrc(), staged.size()));
+                return;
+            }
+
+            // written as UTF-8 whatever the entry's encoding, as the worker reads it back
+            Files.createDirectories(resolved.getParent());
+            Files.writeString(resolved, staged.text(), StandardCharsets.UTF_8);
+            spilledCount++;
+            batch.add(new Entry(entryName, null, resolved, entry.getCrc(), staged.size()));
+        }
+
+        @Override
+        public void discard(Decoded staged) {
+            // memory only
+        }
+
+        @Override
+        public void checkpoint() throws IOException {
+            flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            flush();
+        }
+
+        private void flush() throws IOException {
+            if (consumer == null || batch.isEmpty()) {
+                return;
+            }
+
+            List<Entry> full = batch;
+            batch = new ArrayList<>();
+            inlineBytes = 0L;
+            flushedBatches++;
+
+            consumer.accept(full);
+        }
+    }
+
+    private enum Outcome {
+        PENDING,
+        UNSUPPORTED,
+        TOO_LARGE,
+        UNCHANGED,
+        /* nested archive, walked on commit */
+        NESTED,
+        /* gave up while the shared budget was exhausted; inflated again on commit if reached */
+        ABORTED,
+        INFLATED
+    }
+
+    /* one file entry of the archive; written by at most one pool thread, read after its future */
+    private static final class Slot<T> {
+
+        private final ZipEntry entry;
+        private final String name;
+        private final Path resolved;
+        private Outcome outcome = Outcome.PENDING;
+        private T staged;
+
+        Slot(ZipEntry entry, String name, Path resolved) {
+            this.entry = entry;
+            this.name = name;
+            this.resolved = resolved;
+        }
+    }
+
+    private record Nesting(NestedArchives handler, long batchMaxBytes) { }
+
+    /* state of one walk, shared by all nesting levels */
+    private static final class Progress {
+        private ExecutorService pool; // inflates entries of every level; null = caller thread only
+        private long totalExtractedBytes;
+        private int extractedCount;
+        private int skippedCount;
+        private int unchangedCount;
+        private int excludedCount;
+        private int nestedCount;
+        private int seen;
+        private String stopReason;
+    }
+
+    /* uncompressed bytes charged while inflating; shared by all workers of one archive */
+    private static final class ByteBudget {
+
+        private final AtomicLong used = new AtomicLong();
+        private final long limit;
+
+        ByteBudget(long limit) {
+            this.limit = limit;
+        }
+
+        void charge(long bytes) {
+            if (used.addAndGet(bytes) > limit) {
+                used.addAndGet(-bytes);
+                throw new TotalLimitReachedException();
+            }
+        }
+
+        void refund(long bytes) {
+            used.addAndGet(-bytes);
+        }
+
+        boolean exhausted() {
+            return used.get() >= limit;
+        }
+    }
+
     private static final class EntryTooLargeException extends RuntimeException { }
     private static final class TotalLimitReachedException extends RuntimeException { }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ create table canonical_files
     repo_ref       varchar(255)             default 'master'::character varying,
     path_in_repo   varchar(1024),
     content        text,
+    content_hash   varchar(64),
     deprecated     boolean                  default false             not null,
     created_at     timestamp with time zone default CURRENT_TIMESTAMP not null,
     updated_at     timestamp with time zone default CURRENT_TIMESTAMP not null
@@ -41,6 +42,7 @@ create table file_embeddings
     created_at        timestamp with time zone default CURRENT_TIMESTAMP,
     chunk_idx         integer,
     chunk_of          integer,
+    chunk_hash        varchar(64),
     module_version    varchar(255),
     canonical_file_id uuid
         constraint fk_file_embeddings_canonical_file
@@ -56,6 +58,82 @@ create index ix_file_embeddings_canonical_file_id
 create unique index uq_canonical_files_mod_ver_path
     on canonical_files (module, COALESCE(module_version, ''::character varying), path);
 
+alter table canonical_files
+    add column if not exists content_hash varchar(64);
+
+alter table file_embeddings
+    add column if not exists chunk_hash varchar(64);
+
+/* embedding cache, keyed by model deployment + sha256 of the exact input */
+create table if not exists embedding_cache
+(
+    deployment varchar(255)                                       not null,
+    input_hash varchar(64)                                        not null,
+    embedding  vector                                             not null,
+    created_at timestamp with time zone default CURRENT_TIMESTAMP not null,
+    primary key (deployment, input_hash)
+);
+
+/* durable ingestion queue, claimed with FOR UPDATE SKIP LOCKED */
+create table if not exists ingestion_jobs
+(
+    id             uuid                     default gen_random_uuid() not null
+        primary key,
+    request_id     varchar(64),
+    status         varchar(16)              default 'PENDING'         not null,
+    kind           varchar(16)              default 'FILE'            not null,
+    lane           varchar(16)              default 'BULK'            not null,
+    file_path      varchar(2048),
+    entry_path     varchar(2048),
+    content        text,
+    entry_crc      bigint,
+    entry_size     bigint,
+    original_name  varchar(1024),
+    zip_profile    varchar(255),
+    note           text,
+    module         varchar(255),
+    module_version varchar(255),
+    repo_clone_url varchar(1024),
+    repo_ref       varchar(255),
+    path_in_repo   varchar(1024),
+    attempts       integer                  default 0                 not null,
+    max_attempts   integer                  default 5                 not null,
+    available_at   timestamp with time zone default CURRENT_TIMESTAMP not null,
+    locked_by      varchar(255),
+    locked_until   timestamp with time zone,
+    last_error     text,
+    created_at     timestamp with time zone default CURRENT_TIMESTAMP not null,
+    updated_at     timestamp with time zone default CURRENT_TIMESTAMP not null
+);
+
+/* central directory CRC-32/size of ingested archive entries, to skip unchanged ones on re-upload */
+create table if not exists zip_entry_fingerprints
+(
+    module         varchar(255)                                       not null,
+    module_version varchar(255)             default ''                not null,
+    entry_path     varchar(2048)                                      not null,
+    crc            bigint                                             not null,
+    size           bigint                                             not null,
+    updated_at     timestamp with time zone default CURRENT_TIMESTAMP not null,
+    primary key (module, module_version, entry_path)
+);
+
+create index if not exists ix_ingestion_jobs_pending
+    on ingestion_jobs (available_at)
+    where status = 'PENDING';
+
+/* claim order within a lane: oldest job of each module first */
+create index if not exists ix_ingestion_jobs_lane_pending
+    on ingestion_jobs (lane, module, available_at)
+    where status = 'PENDING';
+
+create index if not exists ix_ingestion_jobs_running
+    on ingestion_jobs (locked_until)
+    where status = 'RUNNING';
+
+create index if not exists ix_ingestion_jobs_request
+    on ingestion_jobs (request_id);
+
 create index ix_canonical_files_path
     on canonical_files (path);
 
@@ -0,0 +1,90 @@
+package com.sulaksono.fileingestorservice.benchmark;
+
+import com.sulaksono.fileingestorservice.util.TokenChunker;
+import com.sulaksono.fileingestorservice.util.TokenizerUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-window re-encoding ({@code countTokens} + {@code slice}) versus the
+ * single-encode {@link TokenChunker} on SQL-dump-like inputs.
+ *
+ * Run with {@code ./mvnw -Pbenchmark verify -DskipTests -Dbenchmark.include=TokenChunker}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class TokenChunkerBenchmark {
+
+    private static final int WINDOW = 800;
+    private static final int OVERLAP = 100;
+
+    /** Approximate input size in KB. */
+    @Param({"64", "512", "2048"})
+    public int sizeKb;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder(sizeKb * 1024);
+        int row = 0;
+        while (sb.length() < sizeKb * 1024) {
+            sb.append("INSERT INTO orders (id, customer, status, total) VALUES (")
+                    .append(row)
+                    .append(", 'customer-")
+                    .append(row % 97)
+                    .append("', 'SHIPPED', ")
+                    .append(row * 3.25)
+                    .append(");\n");
+            row++;
+        }
+        text = sb.toString();
+    }
+
+    @Benchmark
+    public List<String> legacyPerSlice() {
+        int totalTokens = TokenizerUtil.countTokens(text);
+
+        if (totalTokens <= WINDOW) {
+            return List.of(text);
+        }
+
+        List<String> out = new ArrayList<>();
+        int start = 0;
+
+        while (start < totalTokens) {
+            int end = Math.min(start + WINDOW, totalTokens);
+            out.add(TokenizerUtil.slice(text, start, end));
+
+            if (end == totalTokens) {
+                break;
+            }
+
+            start = end - OVERLAP;
+        }
+
+        return out;
+    }
+
+    @Benchmark
+    public TokenChunker.Result singleEncode() {
+        return TokenChunker.split(text, WINDOW, OVERLAP);
+    }
+}
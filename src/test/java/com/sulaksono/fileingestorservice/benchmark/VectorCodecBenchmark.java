@@ -0,0 +1,82 @@
+package com.sulaksono.fileingestorservice.benchmark;
+
+import com.pgvector.PGvector;
+import com.sulaksono.fileingestorservice.model.converter.FloatArrayVectorConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client-side cost of moving one 1536-dim embedding through the text
+ * {@link FloatArrayVectorConverter} versus pgvector's binary format
+ * ({@link PGvector} as used by {@code PgVectorType}).
+ *
+ * Run with {@code ./mvnw -Pbenchmark verify -DskipTests -Dbenchmark.include=VectorCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorCodecBenchmark {
+
+    private static final int DIMENSIONS = 1536;
+
+    private final FloatArrayVectorConverter converter = new FloatArrayVectorConverter();
+
+    private float[] vector;
+    private String text;
+    private byte[] binary;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = random.nextFloat() * 2f - 1f;
+        }
+
+        text = converter.convertToDatabaseColumn(vector);
+
+        PGvector pg = new PGvector(vector);
+        binary = new byte[pg.lengthInBytes()];
+        pg.toBytes(binary, 0);
+    }
+
+    @Benchmark
+    public String textWrite() {
+        return converter.convertToDatabaseColumn(vector);
+    }
+
+    @Benchmark
+    public float[] textRead() {
+        return converter.convertToEntityAttribute(text);
+    }
+
+    @Benchmark
+    public byte[] binaryWrite() {
+        PGvector pg = new PGvector(vector);
+        byte[] out = new byte[pg.lengthInBytes()];
+        pg.toBytes(out, 0);
+        return out;
+    }
+
+    @Benchmark
+    public float[] binaryRead() throws SQLException {
+        PGvector pg = new PGvector();
+        pg.setByteValue(binary, 0);
+        return pg.toArray();
+    }
+}
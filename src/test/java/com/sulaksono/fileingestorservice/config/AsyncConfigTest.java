@@ -1,10 +1,12 @@
 package com.sulaksono.fileingestorservice.config;
 
 import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
 import org.springframework.boot.autoconfigure.AutoConfigurations;
 import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.test.context.runner.ApplicationContextRunner;
 import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -69,4 +71,26 @@ class AsyncConfigTest {
             assertThat(future.get()).isEqualTo("done");
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void asyncExecutor_virtualMode_shouldRunOnVirtualThreadsWithMdc() {
+        contextRunner
+                .withPropertyValues("ingestion.concurrency.executor-mode=virtual")
+                .run(context -> {
+                    AsyncTaskExecutor executor =
+                            context.getBean("asyncExecutor", AsyncTaskExecutor.class);
+
+                    assertThat(executor).isInstanceOf(SimpleAsyncTaskExecutor.class);
+
+                    MDC.put("requestId", "req-42");
+                    try {
+                        var future = executor.submit(() ->
+                                Thread.currentThread().isVirtual() + ":" + MDC.get("requestId"));
+
+                        assertThat(future.get()).isEqualTo("true:req-42");
+                    } finally {
+                        MDC.clear();
+                    }
+                });
+    }
+}
@@ -2,7 +2,9 @@ package com.sulaksono.fileingestorservice.controller;
 
 import com.sulaksono.fileingestorservice.repository.CanonicalFileRepository;
 import com.sulaksono.fileingestorservice.repository.FileEmbeddingRepository;
-import com.sulaksono.fileingestorservice.service.ReembeddingService;
+import com.sulaksono.fileingestorservice.repository.ZipEntryFingerprintRepository;
+import com.sulaksono.fileingestorservice.service.IngestionJobService;
+import com.sulaksono.fileingestorservice.service.UploadAdmissionService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,7 +44,13 @@ class EmbeddingAdminControllerTest {
     private CanonicalFileRepository cfRepo;
 
     @MockitoBean
-    private ReembeddingService reembed;
+    private IngestionJobService jobs;
+
+    @MockitoBean
+    private ZipEntryFingerprintRepository fingerprints;
+
+    @MockitoBean
+    private UploadAdmissionService admission;   // needed by WebMvcConfig
 
     @TestConfiguration
     @EnableWebSecurity
@@ -88,7 +96,8 @@ class EmbeddingAdminControllerTest {
                 .andExpect(content().string("updated: 3"));
 
         verify(repo).markDeprecatedByModule("demo", true);
-        verify(reembed).reembedModule("demo");
+        verify(cfRepo).markDeprecatedByModule("demo", true);   // re-upload of the same content is not skipped
+        verify(jobs).enqueueReembed("demo");
     }
 
     @Test
@@ -107,7 +116,23 @@ class EmbeddingAdminControllerTest {
                 .andExpect(content().string("updated: 2"));
 
         verify(repo).markDeprecatedByModule("demo", false);
-        verify(reembed).reembedModule("demo");
+        verify(cfRepo).markDeprecatedByModule("demo", false);
+        verify(fingerprints, never()).deleteByModule(any());
+        verify(jobs).enqueueReembed("demo");
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void patchDeprecated_shouldForgetEntryFingerprintsSoAReuploadIsIngestedAgain() throws Exception {
+
+        mvc.perform(
+                        patch("/api/embeddings/module/demo")
+                                .param("deprecated", "true")
+                                .with(csrf())
+                )
+                .andExpect(status().isOk());
+
+        verify(fingerprints).deleteByModule("demo");
     }
 
     @Test
@@ -124,7 +149,8 @@ class EmbeddingAdminControllerTest {
 
         verify(repo).deleteByModule("demo");
         verify(cfRepo).deleteByModule("demo");
-        verifyNoInteractions(reembed);
+        verify(fingerprints).deleteByModule("demo");
+        verifyNoInteractions(jobs);
     }
 
     @Test
@@ -159,7 +185,7 @@ class EmbeddingAdminControllerTest {
                 )
                 .andExpect(status().isForbidden());
 
-        verifyNoInteractions(repo, cfRepo, reembed);
+        verifyNoInteractions(repo, cfRepo, jobs);
     }
 
     @Test
@@ -172,7 +198,7 @@ class EmbeddingAdminControllerTest {
                 )
                 .andExpect(status().isForbidden());
 
-        verifyNoInteractions(repo, cfRepo, reembed);
+        verifyNoInteractions(repo, cfRepo, jobs);
     }
 
     @Test
@@ -189,6 +215,6 @@ class EmbeddingAdminControllerTest {
                 )
                 .andExpect(status().is5xxServerError());
 
-        verify(reembed, never()).reembedModule(any());
+        verify(jobs, never()).enqueueReembed(any());
     }
 }
\ No newline at end of file
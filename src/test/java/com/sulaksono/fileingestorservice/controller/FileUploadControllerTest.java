@@ -1,13 +1,21 @@
 package com.sulaksono.fileingestorservice.controller;
 
+import com.sulaksono.fileingestorservice.config.ZipIngestionProperties;
 import com.sulaksono.fileingestorservice.model.FileType;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
 import com.sulaksono.fileingestorservice.service.FileStorageService;
-import com.sulaksono.fileingestorservice.service.ProcessingService;
+import com.sulaksono.fileingestorservice.service.IngestionJobService;
+import com.sulaksono.fileingestorservice.service.IngestionProgressStore;
+import com.sulaksono.fileingestorservice.exception.UploadSaturatedException;
+import com.sulaksono.fileingestorservice.service.ResumableUploadService;
+import com.sulaksono.fileingestorservice.service.UploadAdmissionService;
 import com.sulaksono.fileingestorservice.util.FileTypeResolver;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.servlet.MultipartProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
@@ -31,22 +39,36 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mockStatic;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(FileUploadController.class)
+@EnableConfigurationProperties({ZipIngestionProperties.class, MultipartProperties.class})
 @Import({
         FileUploadControllerTest.TestSecurityConfig.class,
         FileUploadControllerTest.TestAccessDeniedControllerAdvice.class
@@ -55,16 +77,27 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class FileUploadControllerTest {
 
     private static final String UPLOAD_URL = "/api/files/upload";
+    private static final String STREAM_URL = "/api/files/upload/stream";
+    private static final String BOUNDARY   = "----test-boundary";
 
     @Autowired
     private MockMvc mvc;
 
     @MockitoBean
-    private ProcessingService processor;
+    private IngestionJobService jobs;
 
     @MockitoBean
     private FileStorageService storage;
 
+    @MockitoBean
+    private IngestionProgressStore progress;
+
+    @MockitoBean
+    private ResumableUploadService resumable;
+
+    @MockitoBean
+    private UploadAdmissionService admission;
+
     @TestConfiguration
     @EnableWebSecurity
     @EnableMethodSecurity
@@ -128,7 +161,7 @@ class FileUploadControllerTest {
         MockMultipartFile file = javaFile("Example.java", "class Example {}");
 
         Path stored = Path.of("/tmp/Example.java");
-        when(storage.save(any(MultipartFile.class))).thenReturn(stored);
+        when(storage.store(any(MultipartFile.class))).thenReturn(new FileStorageService.StoredFile(stored, 16));
 
         try (MockedStatic<FileTypeResolver> resolver = mockStatic(FileTypeResolver.class)) {
             resolver.when(() -> FileTypeResolver.resolve("Example.java"))
@@ -147,9 +180,9 @@ class FileUploadControllerTest {
                     .andExpect(jsonPath("$.rejected").isEmpty());
         }
 
-        verify(storage).save(any(MultipartFile.class));
-        verify(processor).processAsync(
-                eq(stored),
+        verify(storage).store(any(MultipartFile.class));
+        verify(jobs).enqueue(
+                eq(List.of(stored)),
                 eq("order-service"),
                 eq("1.0.0"),
                 eq("https://example.com/repo.git"),
@@ -171,7 +204,7 @@ class FileUploadControllerTest {
                 .andExpect(jsonPath("$.accepted").isEmpty())
                 .andExpect(jsonPath("$.rejected[0]").value("Example.java (missing fileVersion)"));
 
-        verifyNoInteractions(storage, processor);
+        verifyNoInteractions(storage, jobs);
     }
 
     @Test
@@ -193,7 +226,7 @@ class FileUploadControllerTest {
                 .andExpect(jsonPath("$.rejected[0]").value("empty.java (empty)"));
 
         verify(storage, never()).save(any(MultipartFile.class));
-        verifyNoInteractions(processor);
+        verifyNoInteractions(jobs);
     }
 
     @Test
@@ -219,7 +252,7 @@ class FileUploadControllerTest {
                     .andExpect(jsonPath("$.rejected[0]").value("notes.xyz (unsupported type)"));
         }
 
-        verifyNoInteractions(storage, processor);
+        verifyNoInteractions(storage, jobs);
     }
 
     @Test
@@ -244,4 +277,232 @@ class FileUploadControllerTest {
                         .with(csrf()))
                 .andExpect(status().isForbidden());
     }
-}
\ No newline at end of file
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void uploadZip_queuesArchiveAndReturnsPending() throws Exception {
+        Path stored = Path.of("/tmp/bundle.zip");
+        when(storage.store(any(MultipartFile.class))).thenReturn(new FileStorageService.StoredFile(stored, 16));
+
+        MockMultipartFile zip = new MockMultipartFile(
+                "files", "bundle.zip", "application/zip", new byte[]{1, 2, 3});
+
+        mvc.perform(multipart(UPLOAD_URL)
+                        .file(zip)
+                        .file(part("module", "from-package"))
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.uploadId").isNotEmpty())
+                .andExpect(jsonPath("$.accepted").isEmpty())
+                .andExpect(jsonPath("$.pending[0]").value("bundle.zip"));
+
+        verify(jobs).enqueueArchive(eq(stored), eq("bundle.zip"), eq("from-package"), isNull(),
+                isNull(), isNull(), isNull(), eq("default"));
+        verify(jobs, never()).enqueueEntries(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void uploadStatus_reportsArchiveOutcomes() throws Exception {
+        when(jobs.archives("upload-1")).thenReturn(List.of(
+                archive("a.zip", IngestionJob.Status.DONE, null),
+                archive("b.zip", IngestionJob.Status.DONE, "truncated at max_entries of zipProfile default"),
+                archive("c.zip", IngestionJob.Status.FAILED, "missing version in package and request"),
+                archive("d.zip", IngestionJob.Status.RUNNING, null)));
+
+        mvc.perform(get("/api/files/uploads/upload-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uploadId").value("upload-1"))
+                .andExpect(jsonPath("$.accepted[0]").value("a.zip"))
+                .andExpect(jsonPath("$.accepted[1]").value("b.zip"))
+                .andExpect(jsonPath("$.warnings[0]").value("b.zip (truncated at max_entries of zipProfile default)"))
+                .andExpect(jsonPath("$.rejected[0]").value("c.zip (missing version in package and request)"))
+                .andExpect(jsonPath("$.pending[0]").value("d.zip"));
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void uploadStatus_unknownUpload_isNotFound() throws Exception {
+        when(jobs.archives("nope")).thenReturn(List.of());
+
+        mvc.perform(get("/api/files/uploads/nope"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void uploadZip_unknownProfile_isRejectedBeforeStoring() throws Exception {
+        MockMultipartFile zip = new MockMultipartFile(
+                "files", "bundle.zip", "application/zip", new byte[]{1, 2, 3});
+
+        mvc.perform(multipart(UPLOAD_URL)
+                        .file(zip)
+                        .file(part("fileVersion", "1.0.0"))
+                        .file(part("zipProfile", "nope"))
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.rejected[0]").value("bundle.zip (unknown zipProfile nope)"));
+
+        verifyNoInteractions(storage, jobs);
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void uploadStream_multipart_storesEachPartFromTheRequestBody() throws Exception {
+        Path storedJava = Path.of("/tmp/Example.java");
+        Path storedZip  = Path.of("/tmp/bundle.zip");
+        when(storage.store(eq("Example.java"), any(InputStream.class), anyLong()))
+                .thenReturn(new FileStorageService.StoredFile(storedJava, 16));
+        when(storage.store(eq("bundle.zip"), any(InputStream.class), anyLong()))
+                .thenReturn(new FileStorageService.StoredFile(storedZip, 3));
+
+        byte[] body = multipartBody(
+                field("module", "order-service"),
+                field("fileVersion", "1.0.0"),
+                filePart("src/Example.java", "class Example {}"),
+                filePart("bundle.zip", "zip"));
+
+        mvc.perform(post(STREAM_URL)
+                        .contentType("multipart/form-data; boundary=" + BOUNDARY)
+                        .content(body)
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted[0]").value("Example.java"))
+                .andExpect(jsonPath("$.pending[0]").value("bundle.zip"));
+
+        verify(jobs).enqueue(eq(List.of(storedJava)), eq("order-service"), eq("1.0.0"),
+                isNull(), isNull(), isNull());
+        verify(jobs).enqueueArchive(eq(storedZip), eq("bundle.zip"), eq("order-service"), eq("1.0.0"),
+                isNull(), isNull(), isNull(), eq("default"));
+        verify(storage, never()).store(any(MultipartFile.class));
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void uploadStream_octetStream_storesBodyAndRejectsEmptyFile() throws Exception {
+        Path stored = Path.of("/tmp/Example.java");
+        when(storage.store(eq("Example.java"), any(InputStream.class), anyLong()))
+                .thenReturn(new FileStorageService.StoredFile(stored, 0));
+
+        mvc.perform(post(STREAM_URL)
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                        .param("fileName", "Example.java")
+                        .param("fileVersion", "1.0.0")
+                        .content("x".getBytes(StandardCharsets.UTF_8))   // length known, size comes from storage
+                        .with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").isEmpty())
+                .andExpect(jsonPath("$.rejected[0]").value("Example.java (empty)"));
+
+        verifyNoInteractions(jobs);
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void finishResumable_completeZip_queuesArchive() throws Exception {
+        ResumableUploadService.Session session = new ResumableUploadService.Session(
+                "9f1c2f64-5d3e-4c52-9f59-0f8a3c1d2b7e", "bundle.zip", 3, Map.of("module", "from-package"),
+                Instant.now(), 3);
+        Path stored = Path.of("/tmp/bundle.zip");
+        when(resumable.find(session.id())).thenReturn(Optional.of(session));
+        when(resumable.finish(session)).thenReturn(new FileStorageService.StoredFile(stored, 3));
+
+        mvc.perform(post("/api/files/resumable/" + session.id() + "/finish").with(csrf()))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.pending[0]").value("bundle.zip"));
+
+        verify(jobs).enqueueArchive(eq(stored), eq("bundle.zip"), eq("from-package"), isNull(),
+                isNull(), isNull(), isNull(), eq("default"));
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void finishResumable_incomplete_isConflict() throws Exception {
+        ResumableUploadService.Session session = new ResumableUploadService.Session(
+                "9f1c2f64-5d3e-4c52-9f59-0f8a3c1d2b7e", "bundle.zip", 10, Map.of(), Instant.now(), 4);
+        when(resumable.find(session.id())).thenReturn(Optional.of(session));
+
+        mvc.perform(post("/api/files/resumable/" + session.id() + "/finish").with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(header().string("Upload-Offset", "4"));
+
+        verify(resumable, never()).finish(any());
+        verifyNoInteractions(jobs);
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void createResumable_unsupportedType_isRejectedBeforeAnyByteIsSent() throws Exception {
+        mvc.perform(post("/api/files/resumable")
+                        .header("Upload-Length", "1024")
+                        .param("fileName", "virus.exe")
+                        .param("fileVersion", "1.0.0")
+                        .with(csrf()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("virus.exe (unsupported type)"));
+
+        verifyNoInteractions(resumable);
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void upload_whenSaturated_isTooManyRequestsBeforeAnythingIsStored() throws Exception {
+        doThrow(new UploadSaturatedException("ingestion queue is full", Duration.ofSeconds(30)))
+                .when(admission).admit(anyLong(), eq(true));
+
+        mvc.perform(multipart(UPLOAD_URL)
+                        .file(javaFile("Example.java", "class Example {}"))
+                        .file(part("fileVersion", "1.0.0"))
+                        .with(csrf()))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.message").value("ingestion queue is full"));
+
+        verifyNoInteractions(storage, jobs);
+        verify(admission, never()).release(anyLong());
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void upload_admitted_releasesItsBytesAfterwards() throws Exception {
+        when(storage.store(any(MultipartFile.class)))
+                .thenReturn(new FileStorageService.StoredFile(Path.of("/tmp/Example.java"), 16));
+
+        mvc.perform(multipart(UPLOAD_URL)
+                        .file(javaFile("Example.java", "class Example {}"))
+                        .file(part("fileVersion", "1.0.0"))
+                        .with(csrf()))
+                .andExpect(status().isAccepted());
+
+        verify(admission).admit(anyLong(), eq(true));
+        verify(admission).release(anyLong());
+        verify(admission, never()).admit(anyLong(), eq(false));
+    }
+
+    private static String field(String name, String value) {
+        return "Content-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value;
+    }
+
+    private static String filePart(String filename, String content) {
+        return "Content-Disposition: form-data; name=\"files\"; filename=\"" + filename + "\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n" + content;
+    }
+
+    private static byte[] multipartBody(String... parts) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (String part : parts) {
+            body.writeBytes(("--" + BOUNDARY + "\r\n" + part + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+        body.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private static IngestionJob archive(String name, IngestionJob.Status status, String note) {
+        IngestionJob job = new IngestionJob("upload-1", "/tmp/" + name, null, null, null, null, null, 5, Instant.now());
+        job.setKind(IngestionJob.Kind.ARCHIVE);
+        job.setOriginalName(name);
+        job.setStatus(status);
+        job.setNote(note);
+        return job;
+    }
+}
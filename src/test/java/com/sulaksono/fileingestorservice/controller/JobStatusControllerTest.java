@@ -0,0 +1,96 @@
+package com.sulaksono.fileingestorservice.controller;
+
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import com.sulaksono.fileingestorservice.service.IngestionJobService;
+import com.sulaksono.fileingestorservice.service.IngestionProgressStore;
+import com.sulaksono.fileingestorservice.service.UploadAdmissionService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(JobStatusController.class)
+@Import(JobStatusControllerTest.TestSecurityConfig.class)
+class JobStatusControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockitoBean
+    private IngestionJobService jobs;
+
+    @MockitoBean
+    private UploadAdmissionService admission;   // needed by WebMvcConfig
+
+    @TestConfiguration
+    @EnableWebSecurity
+    @EnableMethodSecurity
+    static class TestSecurityConfig {
+
+        @Bean
+        SecurityFilterChain testSecurityFilterChain(HttpSecurity http) throws Exception {
+            return http
+                    .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                    .exceptionHandling(ex -> ex
+                            .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+                            .accessDeniedHandler((request, response, accessDeniedException) ->
+                                    response.sendError(HttpServletResponse.SC_FORBIDDEN)))
+                    .build();
+        }
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void status_shouldReportFilesAndStages() throws Exception {
+        IngestionProgressStore.FileProgress file = new IngestionProgressStore.FileProgress(
+                UUID.randomUUID(), "src/A.java", IngestionJob.Kind.FILE, IngestionJob.Status.DONE,
+                3, 1200, 1, Map.of(IngestionProgressStore.Stage.EMBED, 40L), null);
+
+        when(jobs.progressOf("upload-1")).thenReturn(Optional.of(new IngestionProgressStore.Snapshot(
+                "upload-1", IngestionJob.Status.DONE, Instant.now(), Instant.now(),
+                Map.of(IngestionJob.Status.DONE, 1L), 3, 1200, 1,
+                Map.of(IngestionProgressStore.Stage.EMBED, 40L), List.of(file), false)));
+
+        mvc.perform(get("/api/jobs/upload-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("upload-1"))
+                .andExpect(jsonPath("$.status").value("DONE"))
+                .andExpect(jsonPath("$.counts.DONE").value(1))
+                .andExpect(jsonPath("$.tokens").value(1200))
+                .andExpect(jsonPath("$.stageMillis.EMBED").value(40))
+                .andExpect(jsonPath("$.files[0].name").value("src/A.java"))
+                .andExpect(jsonPath("$.files[0].chunks").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "embedding-user")
+    void status_unknownId_isNotFound() throws Exception {
+        when(jobs.progressOf("nope")).thenReturn(Optional.empty());
+
+        mvc.perform(get("/api/jobs/nope"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,93 @@
+package com.sulaksono.fileingestorservice.model.converter;
+
+import com.pgvector.PGvector;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.util.PGobject;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PgVectorTypeTest {
+
+    private final PgVectorType type = new PgVectorType();
+
+    @Test
+    void nullSafeSet_shouldBindPgVector() throws Exception {
+        PreparedStatement st = mock(PreparedStatement.class);
+
+        type.nullSafeSet(st, new float[]{1.5f, -2f}, 3, null);
+
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(st).setObject(eq(3), captor.capture());
+
+        assertThat(captor.getValue()).isInstanceOf(PGvector.class);
+        assertThat(((PGvector) captor.getValue()).toArray()).containsExactly(1.5f, -2f);
+    }
+
+    @Test
+    void nullSafeSet_null_shouldBindNull() throws Exception {
+        PreparedStatement st = mock(PreparedStatement.class);
+
+        type.nullSafeSet(st, null, 1, null);
+
+        verify(st).setNull(1, Types.OTHER);
+    }
+
+    @Test
+    void nullSafeGet_pgVector_shouldReturnArray() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1)).thenReturn(new PGvector(new float[]{0.25f, 4f}));
+
+        assertThat(type.nullSafeGet(rs, 1, null, null)).containsExactly(0.25f, 4f);
+    }
+
+    @Test
+    void nullSafeGet_textPgObject_shouldParse() throws Exception {
+        PGobject text = new PGobject();
+        text.setType("vector");
+        text.setValue("[1,2.5,3]");
+
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1)).thenReturn(text);
+
+        assertThat(type.nullSafeGet(rs, 1, null, null)).containsExactly(1f, 2.5f, 3f);
+    }
+
+    @Test
+    void nullSafeGet_null_shouldReturnNull() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(any(Integer.class))).thenReturn(null);
+
+        assertThat(type.nullSafeGet(rs, 1, null, null)).isNull();
+    }
+
+    @Test
+    void nullSafeGet_unsupportedType_shouldThrow() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1)).thenReturn(42);
+
+        assertThatThrownBy(() -> type.nullSafeGet(rs, 1, null, null))
+                .isInstanceOf(SQLException.class);
+    }
+
+    @Test
+    void deepCopy_shouldNotShareArray() {
+        float[] original = {1f, 2f};
+
+        float[] copy = type.deepCopy(original);
+
+        assertThat(copy).containsExactly(1f, 2f).isNotSameAs(original);
+        assertThat(type.equals(original, copy)).isTrue();
+    }
+}
@@ -0,0 +1,51 @@
+package com.sulaksono.fileingestorservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class FileEmbeddingBulkWriterTest {
+
+    @Test
+    void appendCsv_shouldQuoteAndDoubleEmbeddedQuotes() {
+        StringBuilder sb = new StringBuilder();
+
+        FileEmbeddingBulkWriter.appendCsv(sb, "say \"hi\",\nbye");
+
+        assertThat(sb).hasToString("\"say \"\"hi\"\",\nbye\"");
+    }
+
+    @Test
+    void appendCsv_null_shouldWriteUnquotedEmptyField() {
+        StringBuilder sb = new StringBuilder();
+
+        FileEmbeddingBulkWriter.appendCsv(sb, null);
+
+        assertThat(sb).isEmpty();
+    }
+
+    @Test
+    void appendCsv_emptyString_shouldStayDistinctFromNull() {
+        StringBuilder sb = new StringBuilder();
+
+        FileEmbeddingBulkWriter.appendCsv(sb, "");
+
+        assertThat(sb).hasToString("\"\"");
+    }
+
+    @Test
+    void emptyInput_shouldNotTouchDatabase() {
+        JdbcTemplate jdbc = mock(JdbcTemplate.class);
+        FileEmbeddingBulkWriter writer = new FileEmbeddingBulkWriter(jdbc);
+
+        assertThat(writer.batchInsert(List.of(), 100)).isZero();
+        assertThat(writer.copy(List.of(), 100)).isZero();
+
+        verifyNoInteractions(jdbc);
+    }
+}
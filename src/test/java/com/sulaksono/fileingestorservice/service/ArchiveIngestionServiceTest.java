@@ -0,0 +1,162 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.ZipIngestionProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import com.sulaksono.fileingestorservice.util.ZipUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ArchiveIngestionServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final IngestionJobService jobs = mock(IngestionJobService.class);
+    private final ZipIngestionProperties zipProps = new ZipIngestionProperties();
+
+    private final ArchiveIngestionService service = new ArchiveIngestionService(jobs, zipProps);
+
+    @Test
+    void ingest_shouldStreamEntriesIntoQueueWithPackageMetadata() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("pom.xml", "<project><artifactId>billing</artifactId><version>2.1.0</version></project>");
+        entries.put("src/Invoice.java", "class Invoice {}");
+        Path zip = zip(entries);
+        when(jobs.unchangedEntries("billing", "2.1.0")).thenReturn(ZipUtil.UnchangedFilter.NONE);
+
+        ArchiveIngestionService.Result result = service.ingest(archive("from-package", null), zip);
+
+        ArgumentCaptor<List<ZipUtil.Entry>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jobs).enqueueEntries(batch.capture(), eq("billing"), eq("2.1.0"), any(), any(), any());
+
+        assertThat(batch.getValue())
+                .extracting(ZipUtil.Entry::name)
+                .containsExactly("pom.xml", "src/Invoice.java");
+        assertThat(batch.getValue()).allSatisfy(e -> assertThat(e.inline()).isTrue());
+        assertThat(batch.getValue().get(1).content()).isEqualTo("class Invoice {}");
+        assertThat(result).isEqualTo(new ArchiveIngestionService.Result(true, null, 2));
+        assertThat(tempDir).isDirectoryNotContaining("glob:**/unzipped-*");
+    }
+
+    @Test
+    void ingest_nestedArchive_shouldUseItsOwnManifest() throws Exception {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("pom.xml", "<project><artifactId>app</artifactId><version>1.0.0</version></project>"
+                .getBytes(StandardCharsets.UTF_8));
+        entries.put("libs/billing-2.1.0-sources.jar", zipBytes(Map.of(
+                "META-INF/maven/acme/billing/pom.xml",
+                "<project><artifactId>billing</artifactId><version>2.1.0</version></project>",
+                "com/acme/Invoice.java", "class Invoice {}")));
+        Path zip = zipOf(entries);
+        when(jobs.unchangedEntries(any(), any())).thenReturn(ZipUtil.UnchangedFilter.NONE);
+
+        ArchiveIngestionService.Result result = service.ingest(archive("from-package", null), zip);
+
+        ArgumentCaptor<List<ZipUtil.Entry>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jobs).enqueueEntries(batch.capture(), eq("billing"), eq("2.1.0"), any(), any(), any());
+        assertThat(batch.getValue())
+                .extracting(ZipUtil.Entry::name)
+                .containsExactlyInAnyOrder(
+                        "libs/billing-2.1.0-sources.jar!/META-INF/maven/acme/billing/pom.xml",
+                        "libs/billing-2.1.0-sources.jar!/com/acme/Invoice.java");
+        verify(jobs).enqueueEntries(any(), eq("app"), eq("1.0.0"), any(), any(), any());
+        assertThat(result.jobCount()).isEqualTo(3);
+    }
+
+    @Test
+    void ingest_withoutAnyVersion_shouldRejectWithoutEnqueuing() throws Exception {
+        Path zip = zip(Map.of("src/Invoice.java", "class Invoice {}"));
+
+        ArchiveIngestionService.Result result = service.ingest(archive(null, null), zip);
+
+        assertThat(result.accepted()).isFalse();
+        assertThat(result.note()).isEqualTo("missing version in package and request");
+        verify(jobs, never()).enqueueEntries(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void ingest_truncatedByProfile_shouldAcceptWithWarning() throws Exception {
+        ZipIngestionProperties.LimitProfile tiny = new ZipIngestionProperties.LimitProfile();
+        tiny.setMaxEntries(1);
+        zipProps.getProfiles().put("tiny", tiny);
+
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("A.java", "class A {}");
+        entries.put("B.java", "class B {}");
+        Path zip = zip(entries);
+        when(jobs.unchangedEntries("demo", "1.0.0")).thenReturn(ZipUtil.UnchangedFilter.NONE);
+
+        IngestionJob archive = archive("demo", "1.0.0");
+        archive.setZipProfile("tiny");
+
+        ArchiveIngestionService.Result result = service.ingest(archive, zip);
+
+        assertThat(result.accepted()).isTrue();
+        assertThat(result.jobCount()).isEqualTo(1);
+        assertThat(result.note()).isEqualTo("truncated at max_entries of zipProfile tiny");
+    }
+
+    // -----------------------------------------------------------------
+    // Helpers
+    // -----------------------------------------------------------------
+
+    private static IngestionJob archive(String module, String version) {
+        IngestionJob job = new IngestionJob("req-1", null, module, version, null, null, null, 5, Instant.now());
+        job.setKind(IngestionJob.Kind.ARCHIVE);
+        job.setOriginalName("bundle.zip");
+        return job;
+    }
+
+    private Path zip(Map<String, String> entries) throws IOException {
+        Map<String, byte[]> bytes = new LinkedHashMap<>();
+        entries.forEach((name, content) -> bytes.put(name, content.getBytes(StandardCharsets.UTF_8)));
+        return zipOf(bytes);
+    }
+
+    private Path zipOf(Map<String, byte[]> entries) throws IOException {
+        Path zipPath = tempDir.resolve("bundle.zip");
+        Files.write(zipPath, zipBytesOf(entries));
+        return zipPath;
+    }
+
+    private static byte[] zipBytes(Map<String, String> entries) throws IOException {
+        Map<String, byte[]> bytes = new LinkedHashMap<>();
+        entries.forEach((name, content) -> bytes.put(name, content.getBytes(StandardCharsets.UTF_8)));
+        return zipBytesOf(bytes);
+    }
+
+    private static byte[] zipBytesOf(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (ZipOutputStream zos = new ZipOutputStream(out)) {
+            for (Map.Entry<String, byte[]> e : entries.entrySet()) {
+                zos.putNextEntry(new ZipEntry(e.getKey()));
+                zos.write(e.getValue());
+                zos.closeEntry();
+            }
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,75 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionConcurrencyProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void withEmbeddingPermit_shouldNeverExceedConfiguredLimit() throws Exception {
+        IngestionConcurrencyProperties props = new IngestionConcurrencyProperties();
+        props.setMaxEmbeddingCalls(2);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(props);
+
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Integer>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return limiter.withEmbeddingPermit(() -> {
+                        peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                        sleep(5);
+                        return running.decrementAndGet();
+                    });
+                }));
+            }
+
+            start.countDown();
+
+            for (Future<Integer> f : futures) {
+                f.get(10, TimeUnit.SECONDS);
+            }
+        }
+
+        assertThat(peak.get()).isLessThanOrEqualTo(2);
+        assertThat(limiter.availableEmbeddingPermits()).isEqualTo(2);
+    }
+
+    @Test
+    void withDbWritePermit_actionThrows_shouldReleasePermit() {
+        IngestionConcurrencyProperties props = new IngestionConcurrencyProperties();
+        props.setMaxDbWrites(1);
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(props);
+
+        assertThatThrownBy(() -> limiter.withDbWritePermit(() -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+
+        assertThat(limiter.availableDbWritePermits()).isEqualTo(1);
+        assertThat(limiter.withDbWritePermit(() -> "ok")).isEqualTo("ok");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
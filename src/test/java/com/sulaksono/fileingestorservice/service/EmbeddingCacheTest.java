@@ -0,0 +1,178 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.EmbeddingCacheProperties;
+import com.sulaksono.fileingestorservice.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmbeddingCacheTest {
+
+    private static final String DEPLOYMENT = "text-embedding-3-large";
+
+    private final EmbeddingCacheRepository repository = mock(EmbeddingCacheRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmbeddingCacheProperties props = new EmbeddingCacheProperties();
+
+    private final List<List<String>> loaderCalls = new ArrayList<>();
+
+    @Test
+    void getOrLoad_miss_shouldLoadOnceAndStoreInBothTiers() {
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        List<float[]> first = cache.getOrLoad(DEPLOYMENT, List.of("a", "b", "a"), this::load);
+        List<float[]> second = cache.getOrLoad(DEPLOYMENT, List.of("b"), this::load);
+
+        assertThat(loaderCalls).containsExactly(List.of("a", "b"));
+        assertThat(first.get(0)).isSameAs(first.get(2));
+        assertThat(second.getFirst()).isSameAs(first.get(1));
+
+        verify(repository).saveAll(eq(DEPLOYMENT), anyMap());
+        assertThat(meterRegistry.counter(EmbeddingCache.METRIC_MISSES).count()).isEqualTo(2.0);
+        assertThat(meterRegistry.counter(EmbeddingCache.METRIC_HITS, "tier", "memory").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void getOrLoad_storedInDb_shouldNotCallLoader() {
+        float[] stored = {7f};
+        when(repository.findByHashes(eq(DEPLOYMENT), anyCollection()))
+                .thenReturn(Map.of(EmbeddingCache.hash("a"), stored));
+
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        List<float[]> result = cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);
+
+        assertThat(result.getFirst()).isSameAs(stored);
+        assertThat(loaderCalls).isEmpty();
+        assertThat(meterRegistry.counter(EmbeddingCache.METRIC_HITS, "tier", "db").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void getOrLoad_otherDeployment_shouldMiss() {
+        props.setPersistent(false);
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);
+        cache.getOrLoad("other-deployment", List.of("a"), this::load);
+
+        assertThat(loaderCalls).hasSize(2);
+    }
+
+    @Test
+    void getOrLoad_memoryFull_shouldEvictLeastRecentlyUsed() {
+        props.setPersistent(false);
+        props.setMemoryMaxEntries(2);
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        cache.getOrLoad(DEPLOYMENT, List.of("a", "b"), this::load);
+        cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);    // a is now most recent
+        cache.getOrLoad(DEPLOYMENT, List.of("c"), this::load);    // evicts b
+        cache.getOrLoad(DEPLOYMENT, List.of("a", "b"), this::load);
+
+        assertThat(loaderCalls).containsExactly(List.of("a", "b"), List.of("c"), List.of("b"));
+    }
+
+    @Test
+    void getOrLoad_dbUnavailable_shouldFallBackToLoader() {
+        when(repository.findByHashes(anyString(), anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        List<float[]> result = cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);
+
+        assertThat(result).hasSize(1);
+        assertThat(loaderCalls).hasSize(1);
+    }
+
+    @Test
+    void getOrLoad_loaderFails_shouldPropagateAndNotCache() {
+        props.setPersistent(false);
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        assertThatThrownBy(() -> cache.getOrLoad(DEPLOYMENT, List.of("a"), in -> {
+            throw new IllegalStateException("azure down");
+        })).hasMessage("azure down");
+
+        cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);
+
+        assertThat(loaderCalls).hasSize(1);
+        verify(repository, never()).saveAll(anyString(), anyMap());
+    }
+
+    @Test
+    void getOrLoad_concurrentIdenticalInputs_shouldShareOneLoad() throws Exception {
+        props.setPersistent(false);
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<List<float[]>> owner = CompletableFuture.supplyAsync(() ->
+                cache.getOrLoad(DEPLOYMENT, List.of("a"), in -> {
+                    calls.incrementAndGet();
+                    loading.countDown();
+                    await(release);
+                    return List.of(new float[]{1f});
+                }));
+
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<List<float[]>> waiter = CompletableFuture.supplyAsync(() ->
+                cache.getOrLoad(DEPLOYMENT, List.of("a"), in -> {
+                    calls.incrementAndGet();
+                    return List.of(new float[]{2f});
+                }));
+
+        release.countDown();
+
+        assertThat(owner.get(5, TimeUnit.SECONDS).getFirst()).containsExactly(1f);
+        assertThat(waiter.get(5, TimeUnit.SECONDS).getFirst()).containsExactly(1f);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void getOrLoad_disabled_shouldPassThrough() {
+        props.setEnabled(false);
+        EmbeddingCache cache = new EmbeddingCache(props, repository, meterRegistry);
+
+        cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);
+        cache.getOrLoad(DEPLOYMENT, List.of("a"), this::load);
+
+        assertThat(loaderCalls).hasSize(2);
+        verify(repository, never()).findByHashes(anyString(), anyCollection());
+    }
+
+    private List<float[]> load(List<String> inputs) {
+        loaderCalls.add(List.copyOf(inputs));
+        return inputs.stream().map(i -> new float[]{i.charAt(0)}).toList();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.VectorProperties;
+import com.sulaksono.fileingestorservice.model.CanonicalFile;
+import com.sulaksono.fileingestorservice.model.FileEmbedding;
+import com.sulaksono.fileingestorservice.model.FileType;
+import com.sulaksono.fileingestorservice.repository.CanonicalFileRepository;
+import com.sulaksono.fileingestorservice.repository.FileEmbeddingBulkWriter;
+import com.sulaksono.fileingestorservice.repository.FileEmbeddingRepository;
+import com.sulaksono.fileingestorservice.util.ContentHashUtil;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class EmbeddingPersistenceServiceTest {
+
+    private final CanonicalFileRepository canonicalRepo = mock(CanonicalFileRepository.class);
+    private final FileEmbeddingRepository embeddingRepo = mock(FileEmbeddingRepository.class);
+
+    private final FileEmbeddingBulkWriter bulkWriter = mock(FileEmbeddingBulkWriter.class);
+    private final VectorProperties vecProps = new VectorProperties();
+
+    private final EmbeddingPersistenceService service =
+            new EmbeddingPersistenceService(canonicalRepo, embeddingRepo, bulkWriter, vecProps);
+
+    @Test
+    void persist_newFile_shouldInsertCanonicalAndOneRowPerChunk() {
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.empty());
+        when(canonicalRepo.saveAndFlush(any(CanonicalFile.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        CanonicalFile saved = service.persist(
+                draft("class Demo {}"),
+                List.of(chunk("chunk-a", 1f), chunk("chunk-b", 2f))
+        );
+
+        assertThat(saved.getContent()).isEqualTo("class Demo {}");
+        assertThat(saved.getRepoRef()).isEqualTo("main");
+
+        ArgumentCaptor<List<FileEmbedding>> rows = ArgumentCaptor.forClass(List.class);
+        verify(embeddingRepo).saveAll(rows.capture());
+        verifyNoInteractions(bulkWriter);
+
+        assertThat(rows.getValue())
+                .extracting(FileEmbedding::getContent)
+                .containsExactly("chunk-a", "chunk-b");
+        assertThat(rows.getValue().get(1).getEmbedding()).containsExactly(2f);
+        assertThat(rows.getValue().get(1).getChunkOf()).isEqualTo(2);
+        assertThat(rows.getValue().get(1).getChunkHash()).isEqualTo(ContentHashUtil.sha256("chunk-b"));
+        assertThat(rows.getValue()).allSatisfy(r -> assertThat(r.getCanonicalFile()).isSameAs(saved));
+    }
+
+    @Test
+    void persist_jdbcBatchMode_shouldUseBulkWriter() {
+        vecProps.setWriteMode(VectorProperties.WriteMode.JDBC_BATCH);
+        vecProps.setWriteBatchSize(250);
+
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.empty());
+        when(canonicalRepo.saveAndFlush(any(CanonicalFile.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        service.persist(draft("x"), List.of(chunk("a", 1f), chunk("b", 2f)));
+
+        verify(bulkWriter).batchInsert(anyList(), eq(250));
+        verify(embeddingRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void persist_copyMode_shouldUseBulkWriter() {
+        vecProps.setWriteMode(VectorProperties.WriteMode.COPY);
+
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.empty());
+        when(canonicalRepo.saveAndFlush(any(CanonicalFile.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        service.persist(draft("x"), List.of(chunk("a", 1f)));
+
+        verify(bulkWriter).copy(anyList(), eq(vecProps.getWriteBatchSize()));
+        verify(embeddingRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void persist_existingFile_shouldUpdateInPlace() {
+        CanonicalFile existing = draft("old");
+        existing.setDeprecated(true);
+
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.of(existing));
+        when(canonicalRepo.saveAndFlush(existing))
+                .thenReturn(existing);
+
+        CanonicalFile saved = service.persist(draft("new"), List.of(chunk("new", 1f)));
+
+        assertThat(saved).isSameAs(existing);
+        assertThat(saved.getContent()).isEqualTo("new");
+        assertThat(saved.isDeprecated()).isFalse();
+    }
+
+    @Test
+    void persist_existingFile_shouldKeepUnchangedChunksAndReplaceStaleOnes() {
+        CanonicalFile existing = draft("old");
+        ReflectionTestUtils.setField(existing, "id", UUID.randomUUID());
+
+        FileEmbedding keep = storedRow(existing, "same", 1);
+        FileEmbedding gone = storedRow(existing, "removed", 0);
+        FileEmbedding legacy = storedRow(existing, null, 2);
+
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.of(existing));
+        when(canonicalRepo.saveAndFlush(existing))
+                .thenReturn(existing);
+        when(embeddingRepo.findByCanonicalFile_Id(existing.getId()))
+                .thenReturn(List.of(keep, gone, legacy));
+
+        service.persist(draft("new"), List.of(
+                new EmbeddingPersistenceService.PreparedChunk("same", ContentHashUtil.sha256("same"), null),
+                chunk("added", 5f)
+        ));
+
+        assertThat(keep.getChunkIdx()).isZero();
+        assertThat(keep.getChunkOf()).isEqualTo(2);
+
+        ArgumentCaptor<Collection<UUID>> deleted = ArgumentCaptor.forClass(Collection.class);
+        verify(embeddingRepo).deleteByIdIn(deleted.capture());
+        assertThat(deleted.getValue()).containsExactlyInAnyOrder(gone.getId(), legacy.getId());
+
+        ArgumentCaptor<List<FileEmbedding>> rows = ArgumentCaptor.forClass(List.class);
+        verify(embeddingRepo).saveAll(rows.capture());
+        assertThat(rows.getValue()).singleElement().satisfies(r -> {
+            assertThat(r.getContent()).isEqualTo("added");
+            assertThat(r.getChunkIdx()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void persist_newChunkWithoutVector_shouldThrow() {
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.empty());
+        when(canonicalRepo.saveAndFlush(any(CanonicalFile.class)))
+                .thenAnswer(inv -> inv.getArgument(0));
+
+        List<EmbeddingPersistenceService.PreparedChunk> chunks = List.of(
+                new EmbeddingPersistenceService.PreparedChunk("a", ContentHashUtil.sha256("a"), null));
+
+        assertThatThrownBy(() -> service.persist(draft("x"), chunks))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        verifyNoInteractions(bulkWriter);
+        verify(embeddingRepo, never()).saveAll(any());
+    }
+
+    @Test
+    void findVectorsByChunkHash_shouldMapStoredHashesToVectors() {
+        CanonicalFile existing = draft("old");
+        ReflectionTestUtils.setField(existing, "id", UUID.randomUUID());
+
+        when(canonicalRepo.findByModuleAndModuleVersionAndPathNullSafe("demo", "1.0.0", "src/Demo.java"))
+                .thenReturn(Optional.of(existing));
+        when(embeddingRepo.findByCanonicalFile_Id(existing.getId()))
+                .thenReturn(List.of(storedRow(existing, "a", 0), storedRow(existing, null, 1)));
+
+        Map<String, float[]> vectors = service.findVectorsByChunkHash("demo", "1.0.0", "src/Demo.java");
+
+        assertThat(vectors).containsOnlyKeys(ContentHashUtil.sha256("a"));
+    }
+
+    private static EmbeddingPersistenceService.PreparedChunk chunk(String content, float value) {
+        return new EmbeddingPersistenceService.PreparedChunk(
+                content, ContentHashUtil.sha256(content), new float[]{value});
+    }
+
+    private static FileEmbedding storedRow(CanonicalFile canonical, String content, int idx) {
+        FileEmbedding row = new FileEmbedding(
+                canonical.getFileName(),
+                canonical.getPath(),
+                canonical.getModule(),
+                idx,
+                3,
+                canonical.getFileType(),
+                new float[]{idx},
+                content,
+                canonical.getModuleVersion(),
+                canonical
+        );
+        ReflectionTestUtils.setField(row, "id", UUID.randomUUID());
+        row.setChunkHash(content == null ? null : ContentHashUtil.sha256(content));
+        return row;
+    }
+
+    private static CanonicalFile draft(String content) {
+        return new CanonicalFile(
+                "Demo.java",
+                "src/Demo.java",
+                "demo",
+                "1.0.0",
+                FileType.JAVA,
+                "https://example.com/repo.git",
+                "main",
+                "/src",
+                content
+        );
+    }
+}
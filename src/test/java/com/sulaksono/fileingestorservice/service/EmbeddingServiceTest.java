@@ -5,10 +5,14 @@ import com.azure.ai.openai.models.EmbeddingItem;
 import com.azure.ai.openai.models.Embeddings;
 import com.azure.ai.openai.models.EmbeddingsOptions;
 import com.sulaksono.fileingestorservice.config.AzureOpenAIProperties;
+import com.sulaksono.fileingestorservice.config.EmbeddingCacheProperties;
+import com.sulaksono.fileingestorservice.config.IngestionConcurrencyProperties;
+import com.sulaksono.fileingestorservice.repository.EmbeddingCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
@@ -37,9 +41,25 @@ class EmbeddingServiceTest {
     @Mock
     private EmbeddingItem embeddingItem;
 
-    @InjectMocks
+    @Mock
+    private EmbeddingCacheRepository cacheRepository;
+
+    private final EmbeddingCacheProperties cacheProps = new EmbeddingCacheProperties();
+
     private EmbeddingService service;
 
+    @BeforeEach
+    void setup() {
+        cacheProps.setEnabled(false);
+
+        service = new EmbeddingService(
+                client,
+                props,
+                new EmbeddingCache(cacheProps, cacheRepository, new SimpleMeterRegistry()),
+                new ConcurrencyLimiter(new IngestionConcurrencyProperties())
+        );
+    }
+
     @Test
     void generateEmbedding_returnsVector() {
         when(props.getEmbeddingModelDeployment())
@@ -166,4 +186,181 @@ class EmbeddingServiceTest {
         assertThatThrownBy(() -> service.generateEmbedding("hello"))
                 .isSameAs(ex);
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateEmbeddings_mapsResultsBackByPromptIndex() {
+        when(props.getEmbeddingModelDeployment())
+                .thenReturn(DEPLOYMENT_NAME);
+        when(props.getEmbeddingBatchMaxInputs())
+                .thenReturn(16);
+        when(props.getEmbeddingBatchMaxTokens())
+                .thenReturn(10_000);
+
+        when(client.getEmbeddings(any(), any()))
+                .thenReturn(embeddings);
+
+        // returned out of order on purpose
+        List<EmbeddingItem> items = List.of(item(1, 2.0f), item(0, 1.0f), item(2, 3.0f));
+
+        when(embeddings.getData())
+                .thenReturn(items);
+
+        List<float[]> result = service.generateEmbeddings(List.of("a", "b", "c"));
+
+        assertThat(result).hasSize(3);
+        assertThat(result.get(0)).containsExactly(1.0f);
+        assertThat(result.get(1)).containsExactly(2.0f);
+        assertThat(result.get(2)).containsExactly(3.0f);
+
+        ArgumentCaptor<EmbeddingsOptions> captor =
+                ArgumentCaptor.forClass(EmbeddingsOptions.class);
+
+        verify(client, times(1)).getEmbeddings(eq(DEPLOYMENT_NAME), captor.capture());
+
+        assertThat(captor.getValue().getInput())
+                .containsExactly("a", "b", "c");
+    }
+
+    @Test
+    void generateEmbeddings_splitsByMaxInputs() {
+        when(props.getEmbeddingModelDeployment())
+                .thenReturn(DEPLOYMENT_NAME);
+        when(props.getEmbeddingBatchMaxInputs())
+                .thenReturn(2);
+        when(props.getEmbeddingBatchMaxTokens())
+                .thenReturn(10_000);
+
+        Embeddings first = mock(Embeddings.class);
+        Embeddings second = mock(Embeddings.class);
+
+        List<EmbeddingItem> firstItems = List.of(item(0, 1.0f), item(1, 2.0f));
+        List<EmbeddingItem> secondItems = List.of(item(0, 3.0f));
+
+        when(first.getData()).thenReturn(firstItems);
+        when(second.getData()).thenReturn(secondItems);
+
+        when(client.getEmbeddings(any(), any()))
+                .thenReturn(first, second);
+
+        List<float[]> result = service.generateEmbeddings(List.of("a", "b", "c"));
+
+        assertThat(result.get(2)).containsExactly(3.0f);
+
+        ArgumentCaptor<EmbeddingsOptions> captor =
+                ArgumentCaptor.forClass(EmbeddingsOptions.class);
+
+        verify(client, times(2)).getEmbeddings(eq(DEPLOYMENT_NAME), captor.capture());
+
+        assertThat(captor.getAllValues().get(0).getInput()).containsExactly("a", "b");
+        assertThat(captor.getAllValues().get(1).getInput()).containsExactly("c");
+    }
+
+    @Test
+    void generateEmbeddings_splitsByTokenBudget() {
+        when(props.getEmbeddingModelDeployment())
+                .thenReturn(DEPLOYMENT_NAME);
+        when(props.getEmbeddingBatchMaxInputs())
+                .thenReturn(16);
+        when(props.getEmbeddingBatchMaxTokens())
+                .thenReturn(1);
+
+        Embeddings first = mock(Embeddings.class);
+        Embeddings second = mock(Embeddings.class);
+
+        List<EmbeddingItem> firstItems = List.of(item(0, 1.0f));
+        List<EmbeddingItem> secondItems = List.of(item(0, 2.0f));
+
+        when(first.getData()).thenReturn(firstItems);
+        when(second.getData()).thenReturn(secondItems);
+
+        when(client.getEmbeddings(any(), any()))
+                .thenReturn(first, second);
+
+        List<float[]> result = service.generateEmbeddings(List.of("hello", "world"));
+
+        assertThat(result.get(0)).containsExactly(1.0f);
+        assertThat(result.get(1)).containsExactly(2.0f);
+
+        verify(client, times(2)).getEmbeddings(eq(DEPLOYMENT_NAME), any(EmbeddingsOptions.class));
+    }
+
+    @Test
+    void generateEmbeddings_missingItem_throwsException() {
+        when(props.getEmbeddingModelDeployment())
+                .thenReturn(DEPLOYMENT_NAME);
+        when(props.getEmbeddingBatchMaxInputs())
+                .thenReturn(16);
+        when(props.getEmbeddingBatchMaxTokens())
+                .thenReturn(10_000);
+
+        when(client.getEmbeddings(any(), any()))
+                .thenReturn(embeddings);
+
+        List<EmbeddingItem> items = List.of(item(0, 1.0f));
+
+        when(embeddings.getData())
+                .thenReturn(items);
+
+        assertThatThrownBy(() -> service.generateEmbeddings(List.of("a", "b")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("no embeddings");
+    }
+
+    @Test
+    void generateEmbeddings_emptyInput_returnsEmptyList() {
+        assertThat(service.generateEmbeddings(List.of())).isEmpty();
+
+        verifyNoInteractions(client, props);
+    }
+
+    @Test
+    void generateEmbeddings_blankElement_throwsException() {
+        assertThatThrownBy(() -> service.generateEmbeddings(List.of("a", " ")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("input");
+
+        verifyNoInteractions(client, props);
+    }
+
+    @Test
+    void generateEmbeddings_cacheEnabled_shouldSendRepeatedInputOnce() {
+        cacheProps.setEnabled(true);
+        cacheProps.setPersistent(false);
+        service = new EmbeddingService(
+                client,
+                props,
+                new EmbeddingCache(cacheProps, cacheRepository, new SimpleMeterRegistry()),
+                new ConcurrencyLimiter(new IngestionConcurrencyProperties())
+        );
+
+        when(props.getEmbeddingModelDeployment())
+                .thenReturn(DEPLOYMENT_NAME);
+        when(props.getEmbeddingBatchMaxInputs())
+                .thenReturn(16);
+        when(props.getEmbeddingBatchMaxTokens())
+                .thenReturn(10_000);
+
+        List<EmbeddingItem> items = List.of(item(0, 1.0f));
+
+        when(client.getEmbeddings(any(), any()))
+                .thenReturn(embeddings);
+        when(embeddings.getData())
+                .thenReturn(items);
+
+        List<float[]> first = service.generateEmbeddings(List.of("license", "license"));
+        List<float[]> second = service.generateEmbeddings(List.of("license"));
+
+        assertThat(first).hasSize(2).allSatisfy(v -> assertThat(v).containsExactly(1.0f));
+        assertThat(second.getFirst()).containsExactly(1.0f);
+
+        verify(client, times(1)).getEmbeddings(eq(DEPLOYMENT_NAME), any(EmbeddingsOptions.class));
+        verifyNoInteractions(cacheRepository);
+    }
+
+    private static EmbeddingItem item(int promptIndex, float value) {
+        EmbeddingItem item = mock(EmbeddingItem.class);
+        lenient().when(item.getPromptIndex()).thenReturn(promptIndex);
+        lenient().when(item.getEmbedding()).thenReturn(List.of(value));
+        return item;
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -46,6 +47,55 @@ class FileStorageServiceTest {
                 .isEqualTo("hello world");
     }
 
+    @Test
+    void store_shouldReportSizeWithoutReadingTheStoredCopy() throws Exception {
+
+        MockMultipartFile file =
+                new MockMultipartFile(
+                        "file",
+                        "demo.txt",
+                        "text/plain",
+                        "hello world".getBytes());
+
+        FileStorageService.StoredFile stored = service.store(file);
+
+        assertThat(stored.path()).hasContent("hello world");
+        assertThat(stored.size()).isEqualTo(11);
+    }
+
+    @Test
+    void storeStream_shouldWriteBodyAndReportSize() throws Exception {
+
+        FileStorageService.StoredFile stored = service.store(
+                "demo.txt", new ByteArrayInputStream("hello world".getBytes()), -1);
+
+        assertThat(stored.path()).hasContent("hello world");
+        assertThat(stored.size()).isEqualTo(11);
+    }
+
+    @Test
+    void storeStream_overLimit_shouldThrowAndLeaveNothingBehind() {
+
+        assertThatThrownBy(() -> service.store(
+                "demo.txt", new ByteArrayInputStream("hello world".getBytes()), 5))
+                .isInstanceOf(IOException.class)
+                .hasMessage("larger than 5 bytes");
+
+        assertThat(tempDir).isEmptyDirectory();
+    }
+
+    @Test
+    void init_shouldCreateTempLocation() throws Exception {
+
+        StorageProperties props = new StorageProperties();
+        props.setLocation(tempDir.toString());
+        props.setTempLocation(tempDir.resolve(".spool").toString());
+
+        new FileStorageService(props).init();
+
+        assertThat(tempDir.resolve(".spool")).isDirectory();
+    }
+
     @Test
     void save_shouldPreserveExtension() throws Exception {
 
@@ -113,4 +163,27 @@ class FileStorageServiceTest {
                 .isInstanceOf(IOException.class)
                 .hasMessageContaining("File name");
     }
-}
\ No newline at end of file
+
+    @Test
+    void delete_shouldRemoveFileAndEmptyParentsBelowRoot() throws Exception {
+
+        Path dir = Files.createDirectories(tempDir.resolve("unzipped-1/src/main"));
+        Path keep = Files.writeString(tempDir.resolve("unzipped-1/README.md"), "keep");
+        Path file = Files.writeString(dir.resolve("Demo.java"), "class Demo {}");
+
+        service.delete(file);
+
+        assertThat(file).doesNotExist();
+        assertThat(tempDir.resolve("unzipped-1/src")).doesNotExist();
+        assertThat(keep).exists();
+        assertThat(tempDir).exists();
+    }
+
+    @Test
+    void delete_missingFile_shouldNotThrow() {
+
+        assertThatCode(() -> service.delete(tempDir.resolve("missing.java")))
+                .doesNotThrowAnyException();
+        assertThat(tempDir).exists();
+    }
+}
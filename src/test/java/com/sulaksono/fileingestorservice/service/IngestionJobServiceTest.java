@@ -0,0 +1,374 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionProgressProperties;
+import com.sulaksono.fileingestorservice.config.IngestionQueueProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import com.sulaksono.fileingestorservice.repository.IngestionJobRepository;
+import com.sulaksono.fileingestorservice.repository.ZipEntryFingerprintRepository;
+import com.sulaksono.fileingestorservice.util.ZipUtil;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.MDC;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IngestionJobServiceTest {
+
+    private final IngestionJobRepository repository = mock(IngestionJobRepository.class);
+    private final ZipEntryFingerprintRepository fingerprints = mock(ZipEntryFingerprintRepository.class);
+    private final IngestionQueueProperties props = new IngestionQueueProperties();
+
+    private final IngestionProgressStore progress = new IngestionProgressStore(new IngestionProgressProperties());
+
+    private final IngestionJobService service = new IngestionJobService(repository, props, fingerprints, progress);
+
+    @Test
+    void enqueue_shouldPersistOnePendingJobPerFile() {
+        when(repository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<IngestionJob> jobs = service.enqueue(
+                List.of(Path.of("/data/a.java"), Path.of("/data/b.java")),
+                "demo", "1.0.0", null, "main", null);
+
+        assertThat(jobs).hasSize(2)
+                .allSatisfy(j -> {
+                    assertThat(j.getStatus()).isEqualTo(IngestionJob.Status.PENDING);
+                    assertThat(j.getMaxAttempts()).isEqualTo(props.getMaxAttempts());
+                    assertThat(j.getModule()).isEqualTo("demo");
+                });
+        assertThat(jobs.get(1).getFilePath()).endsWith("b.java");
+    }
+
+    @Test
+    void enqueueEntries_shouldKeepInlineContentAndSpilledPath() {
+        when(repository.saveAll(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        List<IngestionJob> jobs = service.enqueueEntries(
+                List.of(new ZipUtil.Entry("src/A.java", "class A {}", null, 42L, 10L),
+                        new ZipUtil.Entry("src/B.java", null, Path.of("/data/unzipped-1/src/B.java"))),
+                "demo", "1.0.0", null, null, null);
+
+        assertThat(jobs.get(0).getFilePath()).isNull();
+        assertThat(jobs.get(0).getEntryPath()).isEqualTo("src/A.java");
+        assertThat(jobs.get(0).getContent()).isEqualTo("class A {}");
+        assertThat(jobs.get(0).getEntryCrc()).isEqualTo(42L);
+        assertThat(jobs.get(0).getEntrySize()).isEqualTo(10L);
+
+        assertThat(jobs.get(1).getFilePath()).endsWith("B.java");
+        assertThat(jobs.get(1).getEntryPath()).isEqualTo("src/B.java");
+        assertThat(jobs.get(1).getContent()).isNull();
+        assertThat(jobs.get(1).getEntryCrc()).isNull();
+    }
+
+    @Test
+    void enqueueArchive_shouldPersistArchiveJobWithProfile() {
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        IngestionJob job = service.enqueueArchive(
+                Path.of("/data/bundle.zip"), "bundle.zip", "from-package", null, null, null, null, "large");
+
+        assertThat(job.getKind()).isEqualTo(IngestionJob.Kind.ARCHIVE);
+        assertThat(job.getStatus()).isEqualTo(IngestionJob.Status.PENDING);
+        assertThat(job.getFilePath()).endsWith("bundle.zip");
+        assertThat(job.getOriginalName()).isEqualTo("bundle.zip");
+        assertThat(job.getZipProfile()).isEqualTo("large");
+    }
+
+    @Test
+    void unchangedEntries_shouldMatchOnPathCrcAndSize() {
+        when(fingerprints.findByModule("demo", "1.0.0"))
+                .thenReturn(Map.of("src/A.java", new ZipEntryFingerprintRepository.Fingerprint(42L, 10L)));
+
+        ZipUtil.UnchangedFilter filter = service.unchangedEntries("demo", "1.0.0");
+
+        assertThat(filter.unchanged("src/A.java", 42L, 10L)).isTrue();
+        assertThat(filter.unchanged("src/A.java", 43L, 10L)).isFalse();
+        assertThat(filter.unchanged("src/A.java", 42L, 11L)).isFalse();
+        assertThat(filter.unchanged("src/B.java", 42L, 10L)).isFalse();
+    }
+
+    @Test
+    void claim_shouldMarkRunningAndCountAttempt() {
+        IngestionJob job = job(0, 5);
+        job.setLane(IngestionJob.Lane.INTERACTIVE);
+        when(repository.lockClaimable(eq("INTERACTIVE"), any(Instant.class), anyInt())).thenReturn(List.of(job));
+
+        Instant before = Instant.now();
+        List<IngestionJob> claimed = service.claim("node-1", 4);
+
+        assertThat(claimed).containsExactly(job);
+        assertThat(job.getStatus()).isEqualTo(IngestionJob.Status.RUNNING);
+        assertThat(job.getAttempts()).isEqualTo(1);
+        assertThat(job.getLockedBy()).isEqualTo("node-1");
+        assertThat(job.getLockedUntil()).isAfterOrEqualTo(before.plus(props.getVisibilityTimeout()));
+    }
+
+    @Test
+    void claim_expiredAfterLastAttempt_shouldFailInsteadOfRetrying() {
+        IngestionJob poison = job(5, 5);
+        poison.setLane(IngestionJob.Lane.INTERACTIVE);
+        poison.setStatus(IngestionJob.Status.RUNNING);
+        poison.setLockedBy("node-0");
+        IngestionJob expired = job(2, 5);
+        expired.setLane(IngestionJob.Lane.INTERACTIVE);
+        expired.setStatus(IngestionJob.Status.RUNNING);
+        when(repository.lockClaimable(eq("INTERACTIVE"), any(Instant.class), anyInt()))
+                .thenReturn(List.of(poison, expired));
+
+        List<IngestionJob> claimed = service.claim("node-1", 4);
+
+        assertThat(claimed).containsExactly(expired);
+        assertThat(expired.getAttempts()).isEqualTo(3);
+        assertThat(poison.getStatus()).isEqualTo(IngestionJob.Status.FAILED);
+        assertThat(poison.getAttempts()).isEqualTo(5);
+        assertThat(poison.getLockedBy()).isNull();
+        assertThat(poison.getLastError()).contains("claim expired");
+    }
+
+    @Test
+    void fail_withAttemptsLeft_shouldRescheduleWithBackoff() {
+        IngestionJob job = job(2, 5);
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        boolean terminal = service.fail(job, "node-1", new IllegalStateException("azure down"), true);
+
+        ArgumentCaptor<Instant> availableAt = ArgumentCaptor.forClass(Instant.class);
+        verify(repository).transition(eq(job.getId()), eq("node-1"), eq(IngestionJob.Status.PENDING),
+                availableAt.capture(), eq("IllegalStateException: azure down"), any(Instant.class));
+
+        assertThat(terminal).isFalse();
+        assertThat(availableAt.getValue()).isAfter(Instant.now().plus(Duration.ofSeconds(50)));
+    }
+
+    @Test
+    void fail_lastAttempt_shouldMarkFailed() {
+        IngestionJob job = job(5, 5);
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        assertThat(service.fail(job, "node-1", new IllegalStateException("x"), true)).isTrue();
+
+        verify(repository).transition(eq(job.getId()), eq("node-1"), eq(IngestionJob.Status.FAILED),
+                any(Instant.class), any(), any(Instant.class));
+    }
+
+    @Test
+    void fail_notRetryable_shouldMarkFailedImmediately() {
+        IngestionJob job = job(1, 5);
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        assertThat(service.fail(job, "node-1", new IllegalArgumentException("bad"), false)).isTrue();
+    }
+
+    @Test
+    void fail_claimLost_shouldNotReportTerminal() {
+        IngestionJob job = job(5, 5);
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        assertThat(service.fail(job, "node-1", new IllegalStateException("x"), true)).isFalse();
+    }
+
+    @Test
+    void complete_shouldTransitionToDone() {
+        IngestionJob job = job(1, 5);
+
+        service.complete(job, "node-1");
+
+        verify(repository).transition(eq(job.getId()), eq("node-1"), eq(IngestionJob.Status.DONE),
+                any(Instant.class), isNull(), any(Instant.class));
+    }
+
+    @Test
+    void complete_inlineJob_shouldDropContent() {
+        IngestionJob job = job(1, 5);
+        job.setContent("class A {}");
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        service.complete(job, "node-1");
+
+        verify(repository).clearContent(job.getId());
+    }
+
+    @Test
+    void complete_archiveEntryJob_shouldRecordFingerprint() {
+        IngestionJob job = job(1, 5);
+        job.setEntryPath("src/A.java");
+        job.setEntryCrc(42L);
+        job.setEntrySize(10L);
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        service.complete(job, "node-1");
+
+        verify(fingerprints).save("demo", "1.0.0", "src/A.java", 42L, 10L);
+    }
+
+    @Test
+    void complete_claimLost_shouldNotRecordFingerprint() {
+        IngestionJob job = job(1, 5);
+        job.setEntryPath("src/A.java");
+        job.setEntryCrc(42L);
+        job.setEntrySize(10L);
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(0);
+
+        service.complete(job, "node-1");
+
+        verifyNoInteractions(fingerprints);
+    }
+
+    @Test
+    void finishArchive_rejected_shouldFailWithNote() {
+        IngestionJob job = job(1, 5);
+        when(repository.finish(any(), any(), any(), any(), any())).thenReturn(1);
+
+        service.finishArchive(job, "node-1", false, "missing version in package and request");
+
+        verify(repository).finish(eq(job.getId()), eq("node-1"), eq(IngestionJob.Status.FAILED),
+                eq("missing version in package and request"), any(Instant.class));
+    }
+
+    @Test
+    void progressOf_shouldFollowTransitionsWithoutQueryingCounts() {
+        when(repository.saveAll(any())).thenAnswer(inv -> {
+            List<IngestionJob> saved = inv.getArgument(0);
+            saved.forEach(j -> j.setId(UUID.randomUUID()));
+            return saved;
+        });
+        when(repository.transition(any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        List<IngestionJob> jobs;
+        MDC.put("requestId", "req-2");
+        try {
+            jobs = service.enqueue(List.of(Path.of("/data/a.java"), Path.of("/data/b.java")),
+                    "demo", "1.0.0", null, null, null);
+        } finally {
+            MDC.remove("requestId");
+        }
+        service.complete(jobs.get(0), "node-1");
+
+        IngestionProgressStore.Snapshot snapshot = service.progressOf("req-2").orElseThrow();
+
+        assertThat(snapshot.status()).isEqualTo(IngestionJob.Status.RUNNING);
+        assertThat(snapshot.counts())
+                .containsEntry(IngestionJob.Status.DONE, 1L)
+                .containsEntry(IngestionJob.Status.PENDING, 1L);
+        assertThat(snapshot.files())
+                .extracting(IngestionProgressStore.FileProgress::name, IngestionProgressStore.FileProgress::status)
+                .containsExactly(
+                        tuple("a.java", IngestionJob.Status.DONE),
+                        tuple("b.java", IngestionJob.Status.PENDING));
+        verify(repository, never()).countByStatus(any());
+    }
+
+    @Test
+    void progressOf_uploadOfAnotherNode_shouldFallBackToStoredCounts() {
+        when(repository.countByStatus("req-9")).thenReturn(List.of(count(IngestionJob.Status.DONE, 3)));
+
+        IngestionProgressStore.Snapshot snapshot = service.progressOf("req-9").orElseThrow();
+
+        assertThat(snapshot.status()).isEqualTo(IngestionJob.Status.DONE);
+        assertThat(snapshot.counts()).containsEntry(IngestionJob.Status.DONE, 3L);
+        assertThat(snapshot.files()).isEmpty();
+        assertThat(snapshot.filesTruncated()).isTrue();
+        assertThat(service.progressOf("nope")).isEmpty();
+    }
+
+    @Test
+    void backoff_shouldDoublePerAttempt() {
+        props.setRetryBackoff(Duration.ofSeconds(10));
+
+        assertThat(service.backoff(1)).isEqualTo(Duration.ofSeconds(10));
+        assertThat(service.backoff(3)).isEqualTo(Duration.ofSeconds(40));
+    }
+
+    private static IngestionJobRepository.StatusCount count(IngestionJob.Status status, long count) {
+        return new IngestionJobRepository.StatusCount() {
+            @Override
+            public IngestionJob.Status getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getCount() {
+                return count;
+            }
+        };
+    }
+
+    @Test
+    void claim_shouldShareSlotsBetweenLanesWithWorkByWeight() {
+        props.setLaneWeights(Map.of(IngestionJob.Lane.INTERACTIVE, 2, IngestionJob.Lane.BULK, 1,
+                IngestionJob.Lane.REEMBED, 1));
+        when(repository.lockClaimable(eq("INTERACTIVE"), any(Instant.class), anyInt()))
+                .thenAnswer(inv -> jobs(IngestionJob.Lane.INTERACTIVE, inv.getArgument(2)));
+        when(repository.lockClaimable(eq("BULK"), any(Instant.class), anyInt()))
+                .thenAnswer(inv -> jobs(IngestionJob.Lane.BULK, inv.getArgument(2)));
+
+        List<IngestionJob> claimed = new ArrayList<>();
+        for (int poll = 0; poll < 30; poll++) {
+            claimed.addAll(service.claim("node-1", 1));
+        }
+
+        // REEMBED has no work, so INTERACTIVE and BULK split 2:1
+        assertThat(claimed).hasSize(30)
+                .filteredOn(job -> job.getLane() == IngestionJob.Lane.INTERACTIVE)
+                .hasSize(20);
+    }
+
+    @Test
+    void claim_idleLane_shouldLeaveItsShareToTheOthers() {
+        when(repository.lockClaimable(eq("BULK"), any(Instant.class), anyInt()))
+                .thenAnswer(inv -> jobs(IngestionJob.Lane.BULK, inv.getArgument(2)));
+
+        List<IngestionJob> claimed = service.claim("node-1", 8);
+
+        assertThat(claimed).hasSize(8);
+        verify(repository).lockClaimable(eq("INTERACTIVE"), any(Instant.class), anyInt());
+    }
+
+    @Test
+    void enqueueReembed_shouldQueueModuleInReembedLane() {
+        when(repository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        IngestionJob job = service.enqueueReembed("demo");
+
+        assertThat(job.getKind()).isEqualTo(IngestionJob.Kind.REEMBED);
+        assertThat(job.getLane()).isEqualTo(IngestionJob.Lane.REEMBED);
+        assertThat(job.getModule()).isEqualTo("demo");
+        assertThat(job.getFilePath()).isNull();
+    }
+
+    private static List<IngestionJob> jobs(IngestionJob.Lane lane, int count) {
+        List<IngestionJob> jobs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            IngestionJob job = job(0, 5);
+            job.setLane(lane);
+            jobs.add(job);
+        }
+        return jobs;
+    }
+
+    private static IngestionJob job(int attempts, int maxAttempts) {
+        IngestionJob job = new IngestionJob(
+                "req-1", "/data/a.java", "demo", "1.0.0", null, null, null, maxAttempts, Instant.now());
+        job.setId(UUID.randomUUID());
+        job.setAttempts(attempts);
+        return job;
+    }
+}
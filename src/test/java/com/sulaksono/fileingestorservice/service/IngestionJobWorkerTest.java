@@ -0,0 +1,169 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionQueueProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class IngestionJobWorkerTest {
+
+    private final IngestionJobService jobs = mock(IngestionJobService.class);
+    private final ProcessingService processor = mock(ProcessingService.class);
+    private final ArchiveIngestionService archives = mock(ArchiveIngestionService.class);
+    private final ReembeddingService reembed = mock(ReembeddingService.class);
+    private final IngestionProgressStore progress = mock(IngestionProgressStore.class);
+    private final FileStorageService storage = mock(FileStorageService.class);
+    private final AsyncTaskExecutor executor = mock(AsyncTaskExecutor.class);
+    private final IngestionQueueProperties props = new IngestionQueueProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final IngestionJobWorker worker =
+            new IngestionJobWorker(jobs, processor, archives, reembed, progress, storage, executor, props, meterRegistry);
+
+    @Test
+    void poll_shouldClaimUpToBatchSizeAndRunJobs() throws Exception {
+        props.setClaimBatchSize(3);
+        IngestionJob job = job();
+
+        when(jobs.claim(anyString(), eq(3))).thenReturn(List.of(job));
+        doAnswer(inv -> {
+            ((Runnable) inv.getArgument(0)).run();
+            return null;
+        }).when(executor).execute(any(Runnable.class));
+
+        worker.poll();
+
+        verify(processor).process(Path.of("/data/a.java"), "demo", "1.0.0", null, null, null);
+        verify(jobs).complete(job, worker.getWorkerId());
+        verify(storage).delete(Path.of("/data/a.java"));
+        assertThat(worker.inFlight()).isZero();
+    }
+
+    @Test
+    void run_retryableFailure_shouldKeepFile() throws Exception {
+        IngestionJob job = job();
+        doThrow(new IllegalStateException("azure down"))
+                .when(processor).process(any(), any(), any(), any(), any(), any());
+        when(jobs.fail(eq(job), anyString(), any(), eq(true))).thenReturn(false);
+
+        worker.run(job);
+
+        verify(storage, never()).delete(any());
+        assertThat(meterRegistry.counter(IngestionJobWorker.METRIC_JOBS, "outcome", "retry").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void run_invalidInput_shouldFailWithoutRetryAndDeleteFile() throws Exception {
+        IngestionJob job = job();
+        doThrow(new IllegalArgumentException("moduleVersion cannot be blank"))
+                .when(processor).process(any(), any(), any(), any(), any(), any());
+        when(jobs.fail(eq(job), anyString(), any(), eq(false))).thenReturn(true);
+
+        worker.run(job);
+
+        verify(storage).delete(Path.of("/data/a.java"));
+    }
+
+    @Test
+    void run_inlineEntry_shouldProcessContentWithoutTouchingStorage() throws Exception {
+        IngestionJob job = job();
+        job.setFilePath(null);
+        job.setEntryPath("src/main/A.java");
+        job.setContent("class A {}");
+        ProcessingService.Stats stats = new ProcessingService.Stats(1, 4, 0, 1, 30, 2);
+        when(processor.process("src/main/A.java", "class A {}", "demo", "1.0.0", null, null, null))
+                .thenReturn(stats);
+
+        worker.run(job);
+
+        verify(progress).processed(job, stats);
+        verify(jobs).complete(job, worker.getWorkerId());
+        verifyNoInteractions(storage);
+    }
+
+    @Test
+    void run_reembedJob_shouldReembedModuleAndComplete() throws Exception {
+        IngestionJob job = job();
+        job.setFilePath(null);
+        job.setKind(IngestionJob.Kind.REEMBED);
+        job.setLane(IngestionJob.Lane.REEMBED);
+
+        worker.run(job);
+
+        verify(reembed).reembedModule("demo");
+        verify(jobs).complete(job, worker.getWorkerId());
+        verifyNoInteractions(processor, archives, storage);
+    }
+
+    @Test
+    void run_archiveJob_shouldRunExtractionStageAndFinish() throws Exception {
+        IngestionJob job = job();
+        job.setKind(IngestionJob.Kind.ARCHIVE);
+        job.setFilePath("/data/bundle.zip");
+        when(archives.ingest(job, Path.of("/data/bundle.zip")))
+                .thenReturn(new ArchiveIngestionService.Result(true, null, 2));
+
+        worker.run(job);
+
+        verify(progress).stage(eq(job), eq(IngestionProgressStore.Stage.EXTRACT), anyLong());
+        verify(jobs).finishArchive(job, worker.getWorkerId(), true, null);
+        verify(jobs, never()).complete(any(), anyString());
+        verifyNoInteractions(processor);
+        verify(storage).delete(Path.of("/data/bundle.zip"));
+    }
+
+    @Test
+    void poll_executorRejects_shouldReleaseJob() {
+        IngestionJob job = job();
+        when(jobs.claim(anyString(), anyInt())).thenReturn(List.of(job));
+        doThrow(new TaskRejectedException("full")).when(executor).execute(any(Runnable.class));
+
+        worker.poll();
+
+        verify(jobs).release(job, worker.getWorkerId());
+        assertThat(worker.inFlight()).isZero();
+    }
+
+    @Test
+    void poll_noFreeSlots_shouldNotClaim() {
+        props.setMaxInFlight(1);
+        when(jobs.claim(anyString(), anyInt())).thenReturn(List.of(job()));
+
+        worker.poll(); // executor mock never runs the task, so the slot stays taken
+        worker.poll();
+
+        verify(jobs).claim(anyString(), eq(1));
+        verify(jobs).heartbeat(eq(worker.getWorkerId()), any());
+        verify(jobs, never()).fail(any(), anyString(), any(), anyBoolean());
+    }
+
+    private static IngestionJob job() {
+        IngestionJob job = new IngestionJob(
+                "req-1", "/data/a.java", "demo", "1.0.0", null, null, null, 5, Instant.now());
+        job.setId(UUID.randomUUID());
+        job.setAttempts(1);
+        return job;
+    }
+}
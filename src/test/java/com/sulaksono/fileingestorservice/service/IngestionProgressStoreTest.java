@@ -0,0 +1,113 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionProgressProperties;
+import com.sulaksono.fileingestorservice.model.IngestionJob;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IngestionProgressStoreTest {
+
+    private final IngestionProgressProperties props = new IngestionProgressProperties();
+    private final IngestionProgressStore store = new IngestionProgressStore(props);
+
+    @Test
+    void processed_shouldAddUpPerFileAndPerUpload() {
+        IngestionJob a = job("req-1", "src/A.java");
+        IngestionJob b = job("req-1", "src/B.java");
+        store.queued(List.of(a, b));
+
+        store.moved(a, IngestionJob.Status.PENDING, IngestionJob.Status.RUNNING, null);
+        store.processed(a, new ProcessingService.Stats(3, 1200, 1, 5, 40, 7));
+        store.moved(a, IngestionJob.Status.RUNNING, IngestionJob.Status.DONE, null);
+        store.moved(b, IngestionJob.Status.PENDING, IngestionJob.Status.RUNNING, null);
+        store.processed(b, new ProcessingService.Stats(1, 300, 1, 1, 0, 2));
+        store.moved(b, IngestionJob.Status.RUNNING, IngestionJob.Status.FAILED, "IllegalStateException: x");
+
+        IngestionProgressStore.Snapshot snapshot = store.snapshot("req-1", Map::of).orElseThrow();
+
+        assertThat(snapshot.status()).isEqualTo(IngestionJob.Status.FAILED);
+        assertThat(snapshot.chunks()).isEqualTo(4);
+        assertThat(snapshot.tokens()).isEqualTo(1500);
+        assertThat(snapshot.cacheHits()).isEqualTo(2);
+        assertThat(snapshot.stageMillis())
+                .containsEntry(IngestionProgressStore.Stage.TOKENIZE, 6L)
+                .containsEntry(IngestionProgressStore.Stage.EMBED, 40L)
+                .containsEntry(IngestionProgressStore.Stage.PERSIST, 9L)
+                .containsEntry(IngestionProgressStore.Stage.STORE, 0L);
+        assertThat(snapshot.files()).hasSize(2);
+        assertThat(snapshot.files().get(0).stageMillis()).doesNotContainKey(IngestionProgressStore.Stage.STORE);
+        assertThat(snapshot.files().get(1).error()).isEqualTo("IllegalStateException: x");
+    }
+
+    @Test
+    void queued_beyondFileCap_shouldStillCountEveryJob() {
+        props.setMaxFilesPerUpload(1);
+        IngestionJob a = job("req-1", "A.java");
+        IngestionJob b = job("req-1", "B.java");
+        store.queued(List.of(a, b));
+
+        store.moved(b, IngestionJob.Status.PENDING, IngestionJob.Status.RUNNING, null);
+
+        IngestionProgressStore.Snapshot snapshot = store.snapshot("req-1", Map::of).orElseThrow();
+
+        assertThat(snapshot.files()).extracting(IngestionProgressStore.FileProgress::name).containsExactly("A.java");
+        assertThat(snapshot.filesTruncated()).isTrue();
+        assertThat(snapshot.counts())
+                .containsEntry(IngestionJob.Status.PENDING, 1L)
+                .containsEntry(IngestionJob.Status.RUNNING, 1L);
+        assertThat(snapshot.status()).isEqualTo(IngestionJob.Status.RUNNING);
+    }
+
+    @Test
+    void snapshot_staleLocalView_shouldTakeStoredCountsOnceRefreshIsDue() {
+        props.setRefreshInterval(Duration.ZERO);
+        IngestionJob a = job("req-1", "A.java");
+        store.queued(List.of(a));
+
+        // the job ran on another node
+        IngestionProgressStore.Snapshot snapshot = store
+                .snapshot("req-1", () -> Map.of(IngestionJob.Status.DONE, 1L))
+                .orElseThrow();
+
+        assertThat(snapshot.status()).isEqualTo(IngestionJob.Status.DONE);
+        assertThat(snapshot.counts()).containsEntry(IngestionJob.Status.PENDING, 0L);
+    }
+
+    @Test
+    void snapshot_withinRefreshInterval_shouldNotReadStoredCounts() {
+        store.queued(List.of(job("req-1", "A.java")));
+
+        IngestionProgressStore.Snapshot snapshot = store.snapshot("req-1", () -> {
+            throw new AssertionError("database read");
+        }).orElseThrow();
+
+        assertThat(snapshot.status()).isEqualTo(IngestionJob.Status.PENDING);
+    }
+
+    @Test
+    void queued_beyondMaxUploads_shouldDropLeastRecentlyUsed() {
+        props.setMaxUploads(2);
+        store.queued(List.of(job("req-1", "A.java")));
+        store.queued(List.of(job("req-2", "A.java")));
+        store.snapshot("req-1", Map::of);           // req-1 is now the most recently used
+        store.queued(List.of(job("req-3", "A.java")));
+
+        assertThat(store.snapshot("req-1", Map::of)).isPresent();
+        assertThat(store.snapshot("req-2", Map::of)).isEmpty();
+        assertThat(store.snapshot("req-3", Map::of)).isPresent();
+    }
+
+    private static IngestionJob job(String requestId, String entryPath) {
+        IngestionJob job = new IngestionJob(requestId, null, "demo", "1.0.0", null, null, null, 5, Instant.now());
+        job.setId(UUID.randomUUID());
+        job.setEntryPath(entryPath);
+        return job;
+    }
+}
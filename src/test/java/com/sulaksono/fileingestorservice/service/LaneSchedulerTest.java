@@ -0,0 +1,48 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.model.IngestionJob.Lane;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LaneSchedulerTest {
+
+    private static final Map<Lane, Integer> WEIGHTS = Map.of(Lane.INTERACTIVE, 6, Lane.BULK, 3, Lane.REEMBED, 1);
+
+    private final LaneScheduler scheduler = new LaneScheduler();
+
+    @Test
+    void tiedLanes_firstTurnShouldGetItsWeightedShare() {
+        LaneScheduler.Turn turn = scheduler.next(EnumSet.allOf(Lane.class), 10, WEIGHTS);
+
+        assertThat(turn).isEqualTo(new LaneScheduler.Turn(Lane.INTERACTIVE, 6));
+    }
+
+    @Test
+    void turns_shouldSplitAClaimByWeight() {
+        Map<Lane, Integer> claimed = new EnumMap<>(Lane.class);
+        int remaining = 10;
+
+        while (remaining > 0) {
+            LaneScheduler.Turn turn = scheduler.next(EnumSet.allOf(Lane.class), remaining, WEIGHTS);
+            scheduler.served(turn.lane(), turn.jobs(), WEIGHTS);
+            claimed.merge(turn.lane(), turn.jobs(), Integer::sum);
+            remaining -= turn.jobs();
+        }
+
+        assertThat(claimed).containsEntry(Lane.INTERACTIVE, 6)
+                .containsEntry(Lane.BULK, 3)
+                .containsEntry(Lane.REEMBED, 1);
+    }
+
+    @Test
+    void singleOpenLane_shouldGetTheWholeClaim() {
+        LaneScheduler.Turn turn = scheduler.next(EnumSet.of(Lane.BULK), 8, WEIGHTS);
+
+        assertThat(turn).isEqualTo(new LaneScheduler.Turn(Lane.BULK, 8));
+    }
+}
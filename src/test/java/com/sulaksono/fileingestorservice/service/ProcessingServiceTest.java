@@ -0,0 +1,195 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.IngestionConcurrencyProperties;
+import com.sulaksono.fileingestorservice.config.VectorProperties;
+import com.sulaksono.fileingestorservice.model.CanonicalFile;
+import com.sulaksono.fileingestorservice.repository.CanonicalFileRepository;
+import com.sulaksono.fileingestorservice.util.ContentHashUtil;
+import com.sulaksono.fileingestorservice.util.TokenChunker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProcessingServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final EmbeddingService embeddingService = mock(EmbeddingService.class);
+    private final EmbeddingPersistenceService persistence = mock(EmbeddingPersistenceService.class);
+    private final CanonicalFileRepository canonicalRepo = mock(CanonicalFileRepository.class);
+    private final FileStorageService storage = mock(FileStorageService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VectorProperties vecProps = new VectorProperties();
+
+    private ProcessingService service;
+
+    @BeforeEach
+    void setup() {
+        when(storage.getRootDir()).thenReturn(tempDir);
+
+        service = new ProcessingService(
+                embeddingService,
+                persistence,
+                canonicalRepo,
+                meterRegistry,
+                vecProps,
+                storage,
+                new ConcurrencyLimiter(new IngestionConcurrencyProperties())
+        );
+    }
+
+    @Test
+    void process_newContent_shouldEmbedAndPersistWithHash() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("Demo.java"), "class Demo {}");
+
+        when(canonicalRepo.existsUnchanged(anyString(), anyString(), anyString(), anyString()))
+                .thenReturn(false);
+        when(embeddingService.generateEmbeddings(anyList(), any()))
+                .thenReturn(List.<float[]>of(new float[]{1f}));
+
+        service.process(file, "demo", "1.0.0", null, null, null);
+
+        ArgumentCaptor<CanonicalFile> captor = ArgumentCaptor.forClass(CanonicalFile.class);
+        ArgumentCaptor<List<EmbeddingPersistenceService.PreparedChunk>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(persistence).persist(captor.capture(), chunks.capture());
+
+        assertThat(captor.getValue().getContentHash())
+                .isEqualTo(ContentHashUtil.sha256("class Demo {}"));
+        assertThat(chunks.getValue()).singleElement().satisfies(c -> {
+            assertThat(c.content()).isEqualTo("class Demo {}");
+            assertThat(c.hash()).isEqualTo(ContentHashUtil.sha256("class Demo {}"));
+            assertThat(c.vector()).containsExactly(1f);
+        });
+        assertThat(meterRegistry.counter(ProcessingService.METRIC_FILES_PROCESSED).count())
+                .isEqualTo(1.0);
+        assertThat(file).exists(); // deleted by the worker once the job is done
+    }
+
+    @Test
+    void process_unchangedContent_shouldSkipEmbeddingAndPersistence() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("Demo.java"), "class Demo {}");
+
+        when(canonicalRepo.existsUnchanged(
+                "demo", "1.0.0", "Demo.java", ContentHashUtil.sha256("class Demo {}")))
+                .thenReturn(true);
+
+        service.process(file, "demo", "1.0.0", null, null, null);
+
+        verifyNoInteractions(embeddingService, persistence);
+        assertThat(meterRegistry.counter(ProcessingService.METRIC_FILES_SKIPPED, "reason", "unchanged").count())
+                .isEqualTo(1.0);
+        assertThat(file).exists(); // deleted by the worker once the job is done
+    }
+
+    @Test
+    void process_blankContent_shouldSkip() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("Empty.java"), "   ");
+
+        service.process(file, "demo", "1.0.0", null, null, null);
+
+        verifyNoInteractions(embeddingService, persistence, canonicalRepo);
+    }
+
+    @Test
+    void process_inlineContent_shouldUseTrimmedLogicalPath() {
+        vecProps.setIncludePathDepth(2);
+        when(embeddingService.generateEmbeddings(anyList(), any()))
+                .thenReturn(List.<float[]>of(new float[]{1f}));
+
+        service.process("project/src/main/Demo.java", "class Demo {}", "demo", "1.0.0", null, null, null);
+
+        ArgumentCaptor<CanonicalFile> captor = ArgumentCaptor.forClass(CanonicalFile.class);
+        verify(persistence).persist(captor.capture(), anyList());
+
+        assertThat(captor.getValue().getPath()).isEqualTo("main/Demo.java");
+        assertThat(captor.getValue().getFileName()).isEqualTo("Demo.java");
+    }
+
+    @Test
+    void process_embeddingFails_shouldThrowAndNotPersist() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("Demo.java"), "class Demo {}");
+
+        when(embeddingService.generateEmbeddings(anyList(), any()))
+                .thenThrow(new IllegalStateException("azure down"));
+
+        assertThatThrownBy(() -> service.process(file, "demo", "1.0.0", null, null, null))
+                .hasMessage("azure down");
+
+        verify(persistence, never()).persist(any(), anyList());
+        assertThat(file).exists(); // kept for the retry
+    }
+
+    @Test
+    void process_storedChunkHash_shouldReuseVectorAndEmbedOnlyNewChunks() throws Exception {
+        vecProps.setChunkSizeTokens(4);
+        vecProps.setChunkOverlapTokens(0);
+
+        String text = "alpha beta gamma delta epsilon zeta eta theta";
+        Path file = Files.writeString(tempDir.resolve("Demo.java"), text);
+
+        List<String> expected = TokenChunker.split(text, 4, 0).texts();
+        assertThat(expected).hasSizeGreaterThan(1);
+
+        float[] storedVector = {9f};
+        when(persistence.findVectorsByChunkHash("demo", "1.0.0", "Demo.java"))
+                .thenReturn(Map.of(ContentHashUtil.sha256(expected.get(0)), storedVector));
+        when(embeddingService.generateEmbeddings(anyList(), any()))
+                .thenAnswer(inv -> {
+                    List<String> inputs = inv.getArgument(0);
+                    ((IntConsumer) inv.getArgument(1)).accept(inputs.size());
+                    return inputs.stream().map(i -> new float[]{1f}).toList();
+                });
+
+        ProcessingService.Stats stats = service.process(file, "demo", "1.0.0", null, null, null);
+
+        ArgumentCaptor<List<String>> inputs = ArgumentCaptor.forClass(List.class);
+        verify(embeddingService).generateEmbeddings(inputs.capture(), any());
+        assertThat(inputs.getValue()).hasSize(expected.size() - 1);
+        assertThat(inputs.getValue().get(0)).contains("### chunk: 2/" + expected.size());
+
+        ArgumentCaptor<List<EmbeddingPersistenceService.PreparedChunk>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(persistence).persist(any(CanonicalFile.class), chunks.capture());
+        assertThat(chunks.getValue()).hasSize(expected.size());
+        assertThat(chunks.getValue().get(0).vector()).isSameAs(storedVector);
+
+        assertThat(meterRegistry.counter(ProcessingService.METRIC_CHUNKS_REUSED).count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter(ProcessingService.METRIC_CHUNKS_EMBEDDED).count())
+                .isEqualTo(expected.size() - 1.0);
+        assertThat(stats.chunks()).isEqualTo(expected.size());
+        assertThat(stats.cacheHits()).isEqualTo(1);
+        assertThat(stats.tokens()).isEqualTo(TokenChunker.split(text, 4, 0).totalTokens());
+    }
+
+    @Test
+    void process_allChunksStored_shouldNotCallEmbeddingService() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("Demo.java"), "class Demo {}");
+
+        when(persistence.findVectorsByChunkHash("demo", "1.0.0", "Demo.java"))
+                .thenReturn(Map.of(ContentHashUtil.sha256("class Demo {}"), new float[]{3f}));
+
+        service.process(file, "demo", "1.0.0", null, null, null);
+
+        verifyNoInteractions(embeddingService);
+        verify(persistence).persist(any(CanonicalFile.class), anyList());
+    }
+}
@@ -15,7 +15,7 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.any;
-import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.anyList;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -46,17 +46,19 @@ class ReembeddingServiceTest {
         when(repo.findByModule("demo-module"))
                 .thenReturn(List.of(row));
 
-        when(embedSvc.generateEmbedding(anyString()))
-                .thenReturn(new float[]{0.1f, 0.2f});
+        when(embedSvc.generateEmbeddings(anyList()))
+                .thenReturn(List.<float[]>of(new float[]{0.1f, 0.2f}));
 
         service().reembedModule("demo-module");
 
-        ArgumentCaptor<String> embeddingInputCaptor =
-                ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<String>> embeddingInputCaptor =
+                ArgumentCaptor.forClass(List.class);
 
-        verify(embedSvc).generateEmbedding(embeddingInputCaptor.capture());
+        verify(embedSvc).generateEmbeddings(embeddingInputCaptor.capture());
 
         assertThat(embeddingInputCaptor.getValue())
+                .singleElement()
+                .asString()
                 .contains("### path: src/Demo.java")
                 .contains("### type: JAVA")
                 .contains("### module: demo-module")
@@ -90,12 +92,15 @@ class ReembeddingServiceTest {
         when(repo.findByModule("demo-module"))
                 .thenReturn(List.of(first, second));
 
-        when(embedSvc.generateEmbedding(anyString()))
-                .thenReturn(new float[]{1.0f});
+        when(embedSvc.getBatchMaxInputs())
+                .thenReturn(16);
+
+        when(embedSvc.generateEmbeddings(anyList()))
+                .thenReturn(List.of(new float[]{1.0f}, new float[]{1.0f}));
 
         service().reembedModule("demo-module");
 
-        verify(embedSvc, times(2)).generateEmbedding(anyString());
+        verify(embedSvc, times(1)).generateEmbeddings(anyList());
 
         verify(repo).save(first);
         verify(repo).save(second);
@@ -152,13 +157,13 @@ class ReembeddingServiceTest {
         when(repo.findByModule("demo-module"))
                 .thenReturn(List.of(first, second));
 
-        when(embedSvc.generateEmbedding(anyString()))
+        when(embedSvc.generateEmbeddings(anyList()))
                 .thenThrow(new RuntimeException("embedding failed"))
-                .thenReturn(new float[]{2.0f});
+                .thenReturn(List.<float[]>of(new float[]{2.0f}));
 
         service().reembedModule("demo-module");
 
-        verify(embedSvc, times(2)).generateEmbedding(anyString());
+        verify(embedSvc, times(2)).generateEmbeddings(anyList());
 
         verify(repo, never()).save(first);
         verify(repo).save(second);
@@ -215,12 +220,12 @@ class ReembeddingServiceTest {
         when(repo.findByModule("demo-module"))
                 .thenReturn(Arrays.asList(null, valid));
 
-        when(embedSvc.generateEmbedding(anyString()))
-                .thenReturn(new float[]{0.7f});
+        when(embedSvc.generateEmbeddings(anyList()))
+                .thenReturn(List.<float[]>of(new float[]{0.7f}));
 
         service().reembedModule("demo-module");
 
-        verify(embedSvc, times(1)).generateEmbedding(anyString());
+        verify(embedSvc, times(1)).generateEmbeddings(anyList());
         verify(repo).save(valid);
 
         assertThat(valid.getEmbedding())
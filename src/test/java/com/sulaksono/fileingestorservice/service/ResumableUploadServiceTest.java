@@ -0,0 +1,142 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.ResumableUploadProperties;
+import com.sulaksono.fileingestorservice.config.StorageProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ResumableUploadServiceTest {
+
+    private static final String CONTENT = "class Example { int answer = 42; }";
+
+    @TempDir
+    Path tempDir;
+
+    private final ResumableUploadProperties props = new ResumableUploadProperties();
+    private FileStorageService storage;
+    private ResumableUploadService service;
+
+    @BeforeEach
+    void setup() throws Exception {
+        StorageProperties storageProps = new StorageProperties();
+        storageProps.setLocation(tempDir.toString());
+        storage = new FileStorageService(storageProps);
+        storage.init();
+
+        service = new ResumableUploadService(storage, props);
+        service.init();
+    }
+
+    @Test
+    void rangesOutOfOrder_shouldFinishIntoOneStoredFile() throws Exception {
+        ResumableUploadService.Session session = service.create("Example.java", CONTENT.length(),
+                Map.of("fileVersion", "1.0.0"));
+
+        service.write(session, 20, bytes(CONTENT.substring(20)));
+        assertThat(reload(session).offset()).isZero();
+
+        service.write(session, 0, bytes(CONTENT.substring(0, 20)));
+        ResumableUploadService.Session complete = reload(session);
+        assertThat(complete.complete()).isTrue();
+        assertThat(complete.fields()).containsEntry("fileVersion", "1.0.0");
+
+        FileStorageService.StoredFile stored = service.finish(complete);
+
+        assertThat(Files.readString(stored.path())).isEqualTo(CONTENT);
+        assertThat(stored.size()).isEqualTo(CONTENT.length());
+        assertThat(service.find(session.id())).isEmpty();
+    }
+
+    @Test
+    void interruptedRange_shouldKeepReceivedBytesAndAcceptOverlap() throws Exception {
+        ResumableUploadService.Session session = service.create("Example.java", CONTENT.length(), Map.of());
+
+        assertThatThrownBy(() -> service.write(session, 0, failingAfter(CONTENT.substring(0, 10))))
+                .isInstanceOf(IOException.class);
+        assertThat(reload(session).offset()).isEqualTo(10);
+
+        // the client resumes a little before the reported offset
+        service.write(session, 5, bytes(CONTENT.substring(5)));
+
+        FileStorageService.StoredFile stored = service.finish(reload(session));
+        assertThat(Files.readString(stored.path())).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void incompleteSession_shouldNotFinish() throws Exception {
+        ResumableUploadService.Session session = service.create("Example.java", CONTENT.length(), Map.of());
+        service.write(session, 0, bytes(CONTENT.substring(0, 10)));
+
+        assertThatThrownBy(() -> service.finish(reload(session)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("has 10 of " + CONTENT.length());
+        assertThat(service.find(session.id())).isPresent();
+    }
+
+    @Test
+    void rangeBeyondLength_isRejected() throws Exception {
+        ResumableUploadService.Session session = service.create("Example.java", 4, Map.of());
+
+        assertThatThrownBy(() -> service.write(session, 2, bytes("abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.write(session, 5, bytes("")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sweep_shouldDeleteExpiredSessionsOnly() throws Exception {
+        ResumableUploadService.Session session = service.create("Example.java", CONTENT.length(), Map.of());
+
+        service.sweep();
+        assertThat(service.find(session.id())).isPresent();
+
+        props.setExpiry(Duration.ofMillis(-1));
+        service.sweep();
+        assertThat(service.find(session.id())).isEmpty();
+    }
+
+    @Test
+    void find_foreignId_isEmpty() throws Exception {
+        assertThat(service.find("../../etc")).isEmpty();
+    }
+
+    private ResumableUploadService.Session reload(ResumableUploadService.Session session) throws IOException {
+        return service.find(session.id()).orElseThrow();
+    }
+
+    private static InputStream bytes(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /* delivers the given bytes, then fails like a dropped connection */
+    private static InputStream failingAfter(String value) {
+        InputStream delivered = bytes(value);
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                int next = delivered.read();
+                if (next == -1) throw new IOException("connection reset");
+                return next;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int read = delivered.read(b, off, len);
+                if (read == -1) throw new IOException("connection reset");
+                return read;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+package com.sulaksono.fileingestorservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.SimpleStatusAggregator;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UploadAdmissionHealthIndicatorTest {
+
+    private final UploadAdmissionService admission = mock(UploadAdmissionService.class);
+    private final UploadAdmissionHealthIndicator indicator = new UploadAdmissionHealthIndicator(admission);
+
+    @Test
+    void health_saturated_shouldReportSaturatedWithNumbers() {
+        when(admission.saturation()).thenReturn(new UploadAdmissionService.Saturation(100, 100, 0, 1024));
+
+        Health health = indicator.health();
+
+        assertThat(health.getStatus()).isEqualTo(UploadAdmissionHealthIndicator.SATURATED);
+        assertThat(health.getDetails()).containsEntry("queuedJobs", 100L).containsEntry("maxQueuedJobs", 100L);
+    }
+
+    @Test
+    void health_withRoom_shouldBeUp() {
+        when(admission.saturation()).thenReturn(new UploadAdmissionService.Saturation(1, 100, 0, 1024));
+
+        assertThat(indicator.health().getStatus()).isEqualTo(Status.UP);
+    }
+
+    @Test
+    void saturated_shouldOnlyCountInGroupsThatOrderIt() {
+        Set<Status> statuses = Set.of(Status.UP, UploadAdmissionHealthIndicator.SATURATED);
+
+        // default order, as used by /actuator/health and readiness
+        assertThat(new SimpleStatusAggregator().getAggregateStatus(statuses)).isEqualTo(Status.UP);
+        // order of the uploads group
+        assertThat(new SimpleStatusAggregator("saturated", "down", "out-of-service", "up", "unknown")
+                .getAggregateStatus(statuses)).isEqualTo(UploadAdmissionHealthIndicator.SATURATED);
+    }
+}
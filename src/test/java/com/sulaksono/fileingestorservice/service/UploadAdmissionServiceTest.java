@@ -0,0 +1,95 @@
+package com.sulaksono.fileingestorservice.service;
+
+import com.sulaksono.fileingestorservice.config.UploadAdmissionProperties;
+import com.sulaksono.fileingestorservice.exception.UploadSaturatedException;
+import com.sulaksono.fileingestorservice.repository.IngestionJobRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadAdmissionServiceTest {
+
+    private final IngestionJobRepository repository = mock(IngestionJobRepository.class);
+    private final UploadAdmissionProperties props = new UploadAdmissionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UploadAdmissionService admission = new UploadAdmissionService(repository, props, meterRegistry);
+
+    @Test
+    void saturatedGauge_shouldFollowTheQueueLimit() {
+        props.setMaxQueuedJobs(100);
+        when(repository.countByStatusIn(any())).thenReturn(100L);
+
+        assertThat(meterRegistry.get(UploadAdmissionService.METRIC_SATURATED).gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get(UploadAdmissionService.METRIC_QUEUED).gauge().value()).isEqualTo(100);
+    }
+
+    @Test
+    void admit_fullQueue_isRejectedWithRetryAfter() {
+        props.setMaxQueuedJobs(100);
+        props.setRetryAfter(Duration.ofSeconds(45));
+        when(repository.countByStatusIn(any())).thenReturn(100L);
+
+        assertThatThrownBy(() -> admission.admit(10, true))
+                .isInstanceOf(UploadSaturatedException.class)
+                .extracting(e -> ((UploadSaturatedException) e).getRetryAfter())
+                .isEqualTo(Duration.ofSeconds(45));
+        assertThat(meterRegistry.counter(UploadAdmissionService.METRIC_REJECTED, "reason", "queue").count())
+                .isEqualTo(1);
+
+        // resumable ranges add no jobs, so they still get through
+        assertThatCode(() -> admission.admit(10, false)).doesNotThrowAnyException();
+        assertThat(admission.saturation().saturated()).isTrue();
+    }
+
+    @Test
+    void admit_shouldReuseQueueDepthWithinCheckInterval() {
+        when(repository.countByStatusIn(any())).thenReturn(1L);
+
+        admission.admit(1, true);
+        admission.admit(1, true);
+        admission.saturation();
+
+        verify(repository, times(1)).countByStatusIn(any());
+    }
+
+    @Test
+    void admit_beyondInFlightBytes_isRejectedUntilReleased() {
+        props.setMaxInFlightBytes(DataSize.ofBytes(100));
+
+        admission.admit(80, false);
+        assertThatThrownBy(() -> admission.admit(30, false)).isInstanceOf(UploadSaturatedException.class);
+
+        admission.release(80);
+        assertThatCode(() -> admission.admit(30, false)).doesNotThrowAnyException();
+        assertThat(admission.saturation().inFlightBytes()).isEqualTo(30);
+    }
+
+    @Test
+    void admit_singleBodyLargerThanLimit_isAdmittedWhenIdle() {
+        props.setMaxInFlightBytes(DataSize.ofBytes(100));
+
+        assertThatCode(() -> admission.admit(500, false)).doesNotThrowAnyException();
+        assertThat(admission.saturation().saturated()).isTrue();
+    }
+
+    @Test
+    void admit_queueDepthUnreadable_keepsLastKnownCount() {
+        props.setQueueCheckInterval(Duration.ZERO);
+        when(repository.countByStatusIn(any())).thenReturn(5L).thenThrow(new IllegalStateException("db down"));
+
+        admission.admit(1, true);
+        assertThatCode(() -> admission.admit(1, true)).doesNotThrowAnyException();
+        assertThat(admission.saturation().queuedJobs()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,42 @@
+package com.sulaksono.fileingestorservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContentHashUtilTest {
+
+    @Test
+    void sha256_knownValue() {
+        assertThat(ContentHashUtil.sha256("abc"))
+                .isEqualTo("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad");
+    }
+
+    @Test
+    void sha256_lineEndingsAndBom_shouldNotChangeHash() {
+        String unix = "line1\nline2\n";
+
+        assertThat(ContentHashUtil.sha256("line1\r\nline2\r\n")).isEqualTo(ContentHashUtil.sha256(unix));
+        assertThat(ContentHashUtil.sha256("line1\rline2\r")).isEqualTo(ContentHashUtil.sha256(unix));
+        assertThat(ContentHashUtil.sha256("\uFEFF" + unix)).isEqualTo(ContentHashUtil.sha256(unix));
+    }
+
+    @Test
+    void sha256_differentContent_shouldDiffer() {
+        assertThat(ContentHashUtil.sha256("class A {}"))
+                .isNotEqualTo(ContentHashUtil.sha256("class B {}"));
+    }
+
+    @Test
+    void sha256_null_shouldReturnNull() {
+        assertThat(ContentHashUtil.sha256(null)).isNull();
+    }
+
+    @Test
+    void sha256Hex_rawBytes_shouldMatchTextHashForNormalizedInput() {
+        assertThat(ContentHashUtil.sha256Hex("abc".getBytes(StandardCharsets.UTF_8)))
+                .isEqualTo(ContentHashUtil.sha256("abc"));
+    }
+}
@@ -0,0 +1,147 @@
+package com.sulaksono.fileingestorservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenChunkerTest {
+
+    @Test
+    void split_textWithinWindow_shouldReturnOriginalTextAsSingleChunk() {
+        String text = "hello world";
+
+        TokenChunker.Result result = TokenChunker.split(text, 800, 100);
+
+        assertThat(result.texts()).containsExactly(text);
+        assertThat(result.totalWindows()).isEqualTo(1);
+        assertThat(result.truncated()).isFalse();
+    }
+
+    @Test
+    void split_emptyOrNullText_shouldReturnNoChunks() {
+        assertThat(TokenChunker.split("", 10, 2).chunks()).isEmpty();
+        assertThat(TokenChunker.split(null, 10, 2).chunks()).isEmpty();
+    }
+
+    @Test
+    void split_shouldMatchLegacyPerSliceChunking() {
+        String text = largeText(300);
+        int window = 50;
+        int overlap = 10;
+
+        List<String> expected = legacySplit(text, window, overlap);
+
+        TokenChunker.Result result = TokenChunker.split(text, window, overlap);
+
+        assertThat(result.texts()).containsExactlyElementsOf(expected);
+        assertThat(result.totalWindows()).isEqualTo(expected.size());
+        assertThat(result.totalTokens()).isEqualTo(TokenizerUtil.countTokens(text));
+    }
+
+    @Test
+    void split_shouldProduceContiguousOverlappingRanges() {
+        String text = largeText(200);
+
+        List<TokenChunker.Chunk> chunks = TokenChunker.split(text, 40, 8).chunks();
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks.getFirst().beginToken()).isZero();
+        assertThat(chunks.getLast().endToken()).isEqualTo(TokenizerUtil.countTokens(text));
+
+        for (int i = 1; i < chunks.size(); i++) {
+            assertThat(chunks.get(i).index()).isEqualTo(i);
+            assertThat(chunks.get(i).beginToken()).isEqualTo(chunks.get(i - 1).endToken() - 8);
+        }
+    }
+
+    @Test
+    void split_withMaxChunks_shouldStopEarlyAndReportTotal() {
+        String text = largeText(300);
+
+        TokenChunker.Result full = TokenChunker.split(text, 50, 10);
+        TokenChunker.Result limited = TokenChunker.split(text, 50, 10, 2);
+
+        assertThat(limited.chunks()).hasSize(2);
+        assertThat(limited.totalWindows()).isEqualTo(full.totalWindows());
+        assertThat(limited.truncated()).isTrue();
+        assertThat(limited.texts()).containsExactlyElementsOf(full.texts().subList(0, 2));
+    }
+
+    @Test
+    void countWindows_shouldMatchSplit() {
+        String text = largeText(250);
+        int tokens = TokenizerUtil.countTokens(text);
+
+        assertThat(TokenChunker.countWindows(tokens, 60, 15))
+                .isEqualTo(TokenChunker.split(text, 60, 15).chunks().size());
+        assertThat(TokenChunker.countWindows(0, 60, 15)).isZero();
+        assertThat(TokenChunker.countWindows(60, 60, 15)).isEqualTo(1);
+    }
+
+    @Test
+    void split_invalidArguments_shouldThrow() {
+        assertThatThrownBy(() -> TokenChunker.split("text", 0, 0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("window");
+
+        assertThatThrownBy(() -> TokenChunker.split("text", 10, 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("overlap");
+
+        assertThatThrownBy(() -> TokenChunker.split("text", 10, 2, -1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("maxChunks");
+    }
+
+    @Test
+    void constructor_shouldBePrivate() throws Exception {
+        Constructor<TokenChunker> constructor =
+                TokenChunker.class.getDeclaredConstructor();
+
+        assertThat(constructor.canAccess(null)).isFalse();
+    }
+
+    static String largeText(int lines) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            sb.append("INSERT INTO orders (id, customer, total) VALUES (")
+                    .append(i)
+                    .append(", 'customer-")
+                    .append(i % 17)
+                    .append("', ")
+                    .append(i * 3.25)
+                    .append(");\n");
+        }
+        return sb.toString();
+    }
+
+    /** The per-window re-encoding loop TokenChunker replaces. */
+    static List<String> legacySplit(String text, int window, int overlap) {
+        int totalTokens = TokenizerUtil.countTokens(text);
+
+        if (totalTokens <= window) {
+            return List.of(text);
+        }
+
+        List<String> out = new ArrayList<>();
+        int start = 0;
+
+        while (start < totalTokens) {
+            int end = Math.min(start + window, totalTokens);
+            out.add(TokenizerUtil.slice(text, start, end));
+
+            if (end == totalTokens) {
+                break;
+            }
+
+            start = end - overlap;
+        }
+
+        return out;
+    }
+}
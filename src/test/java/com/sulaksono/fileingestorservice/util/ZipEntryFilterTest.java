@@ -0,0 +1,110 @@
+package com.sulaksono.fileingestorservice.util;
+
+import com.sulaksono.fileingestorservice.config.ZipIngestionProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZipEntryFilterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void acceptAll_shouldAcceptEverything() {
+        assertThat(ZipEntryFilter.ACCEPT_ALL.accepts("node_modules/a.js")).isTrue();
+    }
+
+    @Test
+    void excludes_shouldMatchAtAnyDepth() {
+        ZipEntryFilter filter = ZipEntryFilter.of(List.of(), List.of("**/target/**", "**/*.min.js"));
+
+        assertThat(filter.accepts("target/classes/A.class")).isFalse();
+        assertThat(filter.accepts("demo-1.0/target/B.java")).isFalse();
+        assertThat(filter.accepts("web/app.min.js")).isFalse();
+        assertThat(filter.accepts("web/app.js")).isTrue();
+        assertThat(filter.accepts("src/targets/C.java")).isTrue();
+    }
+
+    @Test
+    void defaultExcludes_shouldDropBuildOutputButKeepSourcePackagesOfTheSameName() {
+        ZipEntryFilter filter = ZipEntryFilter.of(List.of(), new ZipIngestionProperties().getExcludes());
+
+        assertThat(filter.accepts("target/classes/A.class")).isFalse();
+        assertThat(filter.accepts("demo-1.0/build/libs/B.java")).isFalse();
+        assertThat(filter.accepts("demo-1.0/node_modules/x/index.js")).isFalse();
+        assertThat(filter.accepts("src/main/java/com/acme/build/Foo.java")).isTrue();
+        assertThat(filter.accepts("demo-1.0/src/main/java/com/acme/target/Bar.java")).isTrue();
+    }
+
+    @Test
+    void includes_shouldRestrictToMatchingEntries() {
+        ZipEntryFilter filter = ZipEntryFilter.of(List.of("**/src/main/**", "*.md"), List.of());
+
+        assertThat(filter.accepts("demo/src/main/java/A.java")).isTrue();
+        assertThat(filter.accepts("README.md")).isTrue();
+        assertThat(filter.accepts("docs/guide.md")).isFalse();
+        assertThat(filter.accepts("demo/src/test/java/ATest.java")).isFalse();
+    }
+
+    @Test
+    void globToRegex_singleStarShouldStayWithinOneSegment() {
+        assertThat("src/A.java").matches(ZipEntryFilter.globToRegex("src/*.java"));
+        assertThat("src/a/A.java").doesNotMatch(ZipEntryFilter.globToRegex("src/*.java"));
+        assertThat("src/a/A.java").matches(ZipEntryFilter.globToRegex("src/**/*.java"));
+        assertThat("src/A.java").matches(ZipEntryFilter.globToRegex("src/**/*.java"));
+        assertThat("v1.2").matches(ZipEntryFilter.globToRegex("v[0-9].?"));
+    }
+
+    @Test
+    void gitignore_shouldApplyBelowItsDirectoryWithNegationAndAnchoring() throws Exception {
+        Path zip = zip(List.of(
+                new String[]{"demo/.gitignore", "# build output\n/build/\n*.log\n!keep.log\nnode_modules\n"},
+                new String[]{"demo/web/.gitignore", "*.js\n!app.js\n"}));
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            ZipEntryFilter filter = ZipEntryFilter.ACCEPT_ALL.withGitignores(zipFile);
+
+            assertThat(filter.accepts("demo/build/A.java")).isFalse();
+            assertThat(filter.accepts("demo/sub/build/B.java")).isTrue();   // anchored to demo/
+            assertThat(filter.accepts("demo/logs/app.log")).isFalse();
+            assertThat(filter.accepts("demo/keep.log")).isTrue();
+            assertThat(filter.accepts("demo/web/node_modules/x/index.md")).isFalse();
+            assertThat(filter.accepts("demo/web/vendor.js")).isFalse();
+            assertThat(filter.accepts("demo/web/app.js")).isTrue();
+            assertThat(filter.accepts("other/build/C.java")).isTrue();      // outside demo/
+        }
+    }
+
+    @Test
+    void gitignore_directoryOnlyPattern_shouldNotMatchFileOfSameName() {
+        List<ZipEntryFilter.Rule> rules = ZipEntryFilter.parseGitignore("dist/\n");
+
+        assertThat(rules).hasSize(1);
+        assertThat(rules.getFirst().matches("dist")).isFalse();
+        assertThat(rules.getFirst().matches("web/dist/app.js")).isTrue();
+    }
+
+    private Path zip(List<String[]> entries) throws Exception {
+        Path zipPath = tempDir.resolve("archive.zip");
+
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            for (String[] e : entries) {
+                zos.putNextEntry(new ZipEntry(e[0]));
+                zos.write(e[1].getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+
+        return zipPath;
+    }
+}
@@ -4,8 +4,10 @@ import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
 import java.lang.reflect.Constructor;
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -128,6 +130,47 @@ class ZipGradleUtilTest {
         assertThat(result).isEqualTo("5.0.0");
     }
 
+    @Test
+    void extractVersion_interpolatingEarlierVariable_shouldResolve() throws Exception {
+        byte[] zip = zipWithEntry(
+                "build.gradle",
+                """
+                def baseVersion = '4.2'
+                version = "${baseVersion}.1"
+                """
+        );
+
+        String result = ZipGradleUtil.extractVersion(
+                new ByteArrayInputStream(zip)
+        );
+
+        assertThat(result).isEqualTo("4.2.1");
+    }
+
+    @Test
+    void version_referencingGradleProperty_shouldResolve() throws Exception {
+        String result = ZipGradleUtil.version(
+                new StringReader("version = projectVersion"),
+                Map.of("projectVersion", "7.0.1")
+        );
+
+        assertThat(result).isEqualTo("7.0.1");
+    }
+
+    @Test
+    void extractVersion_withUnresolvablePlaceholder_shouldReturnNull() throws Exception {
+        byte[] zip = zipWithEntry(
+                "build.gradle",
+                "version = \"$revision\""
+        );
+
+        String result = ZipGradleUtil.extractVersion(
+                new ByteArrayInputStream(zip)
+        );
+
+        assertThat(result).isNull();
+    }
+
     @Test
     void extractRootProjectName_whenSettingsGradleHasNoName_shouldReturnNull() throws Exception {
         byte[] zip = zipWithEntry(
@@ -0,0 +1,117 @@
+package com.sulaksono.fileingestorservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZipManifestScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void scan_rootPomAfterNestedPom_shouldPreferRoot() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("project/sub/pom.xml", pom("sub-module", "9.9.9"));
+        entries.put("project/pom.xml", pom("root-module", "1.2.3"));
+        entries.put("project/src/Demo.java", "class Demo {}");
+
+        ZipManifestScanner.Manifest manifest = scan(entries);
+
+        assertThat(manifest.artifactId()).isEqualTo("root-module");
+        assertThat(manifest.pomVersion()).isEqualTo("1.2.3");
+    }
+
+    @Test
+    void scan_pomWithoutVersion_shouldFallBackToParent() throws Exception {
+        String xml = """
+                <project>
+                  <parent>
+                    <groupId>g</groupId>
+                    <artifactId>parent</artifactId>
+                    <version>2.0.0</version>
+                  </parent>
+                  <artifactId>child</artifactId>
+                </project>
+                """;
+
+        ZipManifestScanner.Manifest manifest = scan(Map.of("pom.xml", xml));
+
+        assertThat(manifest.artifactId()).isEqualTo("child");
+        assertThat(manifest.pomVersion()).isEqualTo("2.0.0");
+    }
+
+    @Test
+    void scan_gradleProject_shouldReadSettingsAndBuild() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("app/lib/build.gradle", "version = '0.0.1-lib'");
+        entries.put("app/settings.gradle.kts", "rootProject.name = \"demo-app\"");
+        entries.put("app/build.gradle.kts", "version = \"3.1.0\"");
+
+        ZipManifestScanner.Manifest manifest = scan(entries);
+
+        assertThat(manifest.artifactId()).isNull();
+        assertThat(manifest.rootProjectName()).isEqualTo("demo-app");
+        assertThat(manifest.gradleVersion()).isEqualTo("3.1.0");
+    }
+
+    @Test
+    void scan_gradleVersionFromProperties_shouldUseFileNextToBuildScript() throws Exception {
+        Map<String, String> entries = new LinkedHashMap<>();
+        entries.put("app/gradle.properties", "projectVersion = 7.0.1");
+        entries.put("app/build.gradle.kts", "version = projectVersion");
+        entries.put("other/gradle.properties", "projectVersion = 0.0.0");
+
+        ZipManifestScanner.Manifest manifest = scan(entries);
+
+        assertThat(manifest.gradleVersion()).isEqualTo("7.0.1");
+    }
+
+    @Test
+    void scan_noManifests_shouldReturnNulls() throws Exception {
+        ZipManifestScanner.Manifest manifest = scan(Map.of("Demo.java", "class Demo {}"));
+
+        assertThat(manifest).isEqualTo(new ZipManifestScanner.Manifest(null, null, null, null));
+    }
+
+    // -----------------------------------------------------------------
+    // Helpers
+    // -----------------------------------------------------------------
+
+    private ZipManifestScanner.Manifest scan(Map<String, String> entries) throws IOException {
+        Path zipPath = tempDir.resolve("archive.zip");
+
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zipPath))) {
+            for (Map.Entry<String, String> e : entries.entrySet()) {
+                zos.putNextEntry(new ZipEntry(e.getKey()));
+                zos.write(e.getValue().getBytes(StandardCharsets.UTF_8));
+                zos.closeEntry();
+            }
+        }
+
+        try (ZipFile zip = new ZipFile(zipPath.toFile())) {
+            return ZipManifestScanner.scan(zip);
+        }
+    }
+
+    private static String pom(String artifactId, String version) {
+        return """
+                <project>
+                  <groupId>g</groupId>
+                  <artifactId>%s</artifactId>
+                  <version>%s</version>
+                </project>
+                """.formatted(artifactId, version);
+    }
+}
@@ -184,6 +184,87 @@ class ZipPomUtilTest {
         assertThat(result).isEqualTo("1.0.0");
     }
 
+    @Test
+    void extractVersion_withRevisionPlaceholder_shouldResolveFromProperties() throws Exception {
+        String pom = """
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <modelVersion>4.0.0</modelVersion>
+                    <artifactId>ci-friendly</artifactId>
+                    <version>${revision}${changelist}</version>
+                    <build><plugins><plugin><artifactId>x</artifactId></plugin></plugins></build>
+                    <properties>
+                        <revision>1.4.0</revision>
+                        <changelist>-SNAPSHOT</changelist>
+                    </properties>
+                </project>
+                """;
+
+        byte[] zip = zipWithEntry("pom.xml", pom);
+
+        String result = ZipPomUtil.extractVersion(
+                new ByteArrayInputStream(zip)
+        );
+
+        assertThat(result).isEqualTo("1.4.0-SNAPSHOT");
+    }
+
+    @Test
+    void extractVersion_withParentVersionPlaceholder_shouldResolve() throws Exception {
+        String pom = """
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <parent>
+                        <artifactId>parent-service</artifactId>
+                        <version>9.9.9</version>
+                    </parent>
+                    <artifactId>child-service</artifactId>
+                    <version>${project.parent.version}</version>
+                </project>
+                """;
+
+        byte[] zip = zipWithEntry("pom.xml", pom);
+
+        String result = ZipPomUtil.extractVersion(
+                new ByteArrayInputStream(zip)
+        );
+
+        assertThat(result).isEqualTo("9.9.9");
+    }
+
+    @Test
+    void extractVersion_withUnresolvablePlaceholder_shouldFallBackToParent() throws Exception {
+        String pom = """
+                <project xmlns="http://maven.apache.org/POM/4.0.0">
+                    <parent>
+                        <artifactId>parent-service</artifactId>
+                        <version>9.9.9</version>
+                    </parent>
+                    <artifactId>child-service</artifactId>
+                    <version>${unknown}</version>
+                </project>
+                """;
+
+        byte[] zip = zipWithEntry("pom.xml", pom);
+
+        String result = ZipPomUtil.extractVersion(
+                new ByteArrayInputStream(zip)
+        );
+
+        assertThat(result).isEqualTo("9.9.9");
+    }
+
+    @Test
+    void extractVersion_shouldStopReadingOnceCoordinatesAreKnown() throws Exception {
+        // the broken tail is never reached
+        byte[] zip = zipWithEntry("pom.xml",
+                "<project><artifactId>demo</artifactId><version>3.0.0</version><dependencies><<<");
+
+        String result = ZipPomUtil.extractVersion(
+                new ByteArrayInputStream(zip)
+        );
+
+        assertThat(result).isEqualTo("3.0.0");
+    }
+
     @Test
     void extractArtifactId_whenNoPomInZip_shouldReturnNull() throws Exception {
         byte[] zip = zipWithEntry("README.md", "# demo");
@@ -10,8 +10,12 @@ import java.lang.reflect.Constructor;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -297,10 +301,298 @@ class ZipUtilTest {
                 .hasMessageContaining("Zip-Slip");
     }
 
+    // -----------------------------------------------------------------
+    // In-memory read
+    // -----------------------------------------------------------------
+
+    @Test
+    void read_shouldDecodeSupportedEntriesWithoutTouchingDisk() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            entries.add(entry("src/Demo.java", "class Demo {}"));
+            entries.add(entry("image.png", "not text"));
+        });
+
+        Path spillDir = tempDir.resolve("spill");
+
+        List<ZipUtil.Entry> read;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            read = ZipUtil.read(zipFile, spillDir, 1024);
+        }
+
+        assertThat(read).containsExactly(
+                new ZipUtil.Entry("src/Demo.java", "class Demo {}", null, crc("class Demo {}"), 13));
+        assertThat(spillDir).doesNotExist();
+    }
+
+    @Test
+    void read_overInlineBudget_shouldSpillRemainingEntries() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            entries.add(entry("A.java", "class A {}"));
+            entries.add(entry("B.java", "class B {}"));
+        });
+
+        Path spillDir = tempDir.resolve("spill");
+
+        List<ZipUtil.Entry> read;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            read = ZipUtil.read(zipFile, spillDir, 15);
+        }
+
+        assertThat(read.get(0).inline()).isTrue();
+        assertThat(read.get(1).inline()).isFalse();
+        assertThat(read.get(1).name()).isEqualTo("B.java");
+        assertThat(read.get(1).spilled()).hasContent("class B {}");
+    }
+
+    @Test
+    void read_invalidUtf8_shouldFallBackToLatin1AndStayInline() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries ->
+                entries.add(new ZipEntrySpec("Legacy.txt", false, new byte[]{'c', 'a', 'f', (byte) 0xE9})));
+
+        List<ZipUtil.Entry> read;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            read = ZipUtil.read(zipFile, tempDir.resolve("spill"), 1024);
+        }
+
+        assertThat(read).singleElement().satisfies(e -> {
+            assertThat(e.inline()).isTrue();
+            assertThat(e.content()).isEqualTo("caf\u00e9");
+        });
+        assertThat(tempDir.resolve("spill")).doesNotExist();
+    }
+
+    @Test
+    void read_nulCharacters_shouldBeDropped() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries ->
+                entries.add(new ZipEntrySpec("Nul.txt", false, new byte[]{'a', 0, 'b', 0})));
+
+        List<ZipUtil.Entry> read;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            read = ZipUtil.read(zipFile, tempDir.resolve("spill"), 1024);
+        }
+
+        assertThat(read).singleElement().satisfies(e -> {
+            assertThat(e.content()).isEqualTo("ab");
+            assertThat(e.size()).isEqualTo(4);
+        });
+    }
+
+    // -----------------------------------------------------------------
+    // Parallel extraction
+    // -----------------------------------------------------------------
+
+    @Test
+    void unzip_parallel_shouldMatchSequentialResultUnderTotalLimit() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            for (int i = 0; i < 200; i++) {
+                entries.add(entry("src/F" + i + ".java", "x".repeat(100 + i)));
+            }
+            entries.add(entry("Huge.txt", "y".repeat(2048)));
+        });
+
+        List<Path> sequential;
+        List<Path> parallel;
+        Path seqDir = tempDir.resolve("seq");
+        Path parDir = tempDir.resolve("par");
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            sequential = ZipUtil.unzip(zipFile, seqDir, 1024, 10_000, 1000, true, 1);
+            parallel = ZipUtil.unzip(zipFile, parDir, 1024, 10_000, 1000, true, 8);
+        }
+
+        assertThat(sequential).hasSizeBetween(1, 199);
+        assertThat(parallel.stream().map(parDir::relativize).toList())
+                .isEqualTo(sequential.stream().map(seqDir::relativize).toList());
+
+        try (var files = Files.walk(parDir)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSameSizeAs(parallel); // no .part leftovers
+        }
+    }
+
+    @Test
+    void read_parallel_shouldKeepCentralDirectoryOrder() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            for (int i = 0; i < 50; i++) {
+                entries.add(entry("F" + i + ".java", "class F" + i + " {}"));
+            }
+        });
+
+        List<ZipUtil.Entry> read;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            read = ZipUtil.read(zipFile, tempDir.resolve("spill"), 1024 * 1024, 4);
+        }
+
+        assertThat(read).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            String content = "class F" + i + " {}";
+            assertThat(read.get(i)).isEqualTo(
+                    new ZipUtil.Entry("F" + i + ".java", content, null, crc(content), content.length()));
+        }
+    }
+
     // -----------------------------------------------------------------
     // Constructor coverage
     // -----------------------------------------------------------------
 
+    @Test
+    void read_batched_shouldHandOffIncrementallyAndReportStopReason() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            for (int i = 0; i < 30; i++) {
+                entries.add(entry(String.format("F%02d.java", i), "x".repeat(100)));
+            }
+        });
+
+        List<List<ZipUtil.Entry>> batches = new ArrayList<>();
+        ZipUtil.Summary summary;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            summary = ZipUtil.read(zipFile, tempDir.resolve("spill"),
+                    new ZipUtil.Limits(1024, 1024 * 1024, 25), 350, 2, batches::add);
+        }
+
+        assertThat(summary.extractedCount()).isEqualTo(25);
+        assertThat(summary.stopReason()).isEqualTo("max_entries");
+        assertThat(batches).hasSizeGreaterThan(1);
+        assertThat(batches).allSatisfy(b -> assertThat(b).hasSizeLessThanOrEqualTo(3));
+        assertThat(batches.stream().flatMap(List::stream).map(ZipUtil.Entry::name))
+                .containsExactlyElementsOf(IntStream.range(0, 25).mapToObj(i -> String.format("F%02d.java", i)).toList());
+        assertThat(tempDir.resolve("spill")).doesNotExist();
+    }
+
+    @Test
+    void read_unchangedFilter_shouldSkipMatchingEntriesWithoutInflating() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            entries.add(entry("src/Same.java", "class Same {}"));
+            entries.add(entry("src/Changed.java", "class Changed { int v = 2; }"));
+        });
+
+        List<ZipUtil.Entry> handedOver = new ArrayList<>();
+        ZipUtil.Summary summary;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            summary = ZipUtil.read(zipFile, tempDir.resolve("spill"), ZipUtil.Limits.DEFAULT, 1024 * 1024, 1,
+                    (name, crc, size) -> name.equals("src/Same.java") && crc == crc("class Same {}") && size == 13,
+                    handedOver::addAll);
+        }
+
+        assertThat(handedOver).extracting(ZipUtil.Entry::name).containsExactly("src/Changed.java");
+        assertThat(handedOver.getFirst().crc()).isEqualTo(crc("class Changed { int v = 2; }"));
+        assertThat(summary.unchangedCount()).isEqualTo(1);
+        assertThat(summary.extractedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void read_entryFilter_shouldDropExcludedEntriesBeforeCountingThem() throws Exception {
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            entries.add(entry("app/.gitignore", "*.log\ngen/\n"));
+            entries.add(entry("app/node_modules/lib/index.js", "module.exports = 1;"));
+            entries.add(entry("app/gen/Stub.java", "class Stub {}"));
+            entries.add(entry("app/debug.log", "noise"));
+            entries.add(entry("app/src/Main.java", "class Main {}"));
+        });
+
+        List<ZipUtil.Entry> handedOver = new ArrayList<>();
+        ZipUtil.Summary summary;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            ZipEntryFilter filter = ZipEntryFilter.of(List.of(), List.of("**/node_modules/**"))
+                    .withGitignores(zipFile);
+
+            summary = ZipUtil.read(zipFile, tempDir.resolve("spill"), new ZipUtil.Limits(1024, 1024 * 1024, 2),
+                    1024 * 1024, 1, filter, ZipUtil.UnchangedFilter.NONE, handedOver::addAll);
+        }
+
+        // .gitignore itself is seen (and skipped as unsupported), so max-entries 2 still leaves room for Main.java
+        assertThat(handedOver).extracting(ZipUtil.Entry::name).containsExactly("app/src/Main.java");
+        assertThat(summary.excludedCount()).isEqualTo(3);
+        assertThat(summary.stoppedByLimit()).isFalse();
+    }
+
+    @Test
+    void read_nestedArchives_shouldWalkInnerEntriesInPlaceUpToMaxDepth() throws Exception {
+        byte[] innermost = zipBytes(entries -> entries.add(entry("Deep.java", "class Deep {}")));
+        byte[] inner = zipBytes(entries -> {
+            entries.add(entry("com/acme/Lib.java", "class Lib {}"));
+            entries.add(new ZipEntrySpec("deeper.zip", false, innermost));
+        });
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            entries.add(entry("A.java", "class A {}"));
+            entries.add(new ZipEntrySpec("libs/lib-1.0-sources.jar", false, inner));
+            entries.add(entry("Z.java", "class Z {}"));
+        });
+
+        List<String> opened = new ArrayList<>();
+        List<ZipUtil.Entry> handedOver = new ArrayList<>();
+        ZipUtil.Level level = new ZipUtil.Level(ZipEntryFilter.ACCEPT_ALL, ZipUtil.UnchangedFilter.NONE, handedOver::addAll);
+
+        ZipUtil.Summary summary;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            summary = ZipUtil.read(zipFile, tempDir.resolve("spill"), new ZipUtil.Limits(1024, 1024 * 1024, 100, 1),
+                    1024 * 1024, 1, level, (name, archive) -> {
+                        opened.add(name);
+                        return level;
+                    });
+        }
+
+        // depth 1: the sources jar is walked, the zip inside it is not
+        assertThat(opened).containsExactly("libs/lib-1.0-sources.jar");
+        assertThat(handedOver).extracting(ZipUtil.Entry::name)
+                .containsExactly("A.java", "libs/lib-1.0-sources.jar!/com/acme/Lib.java", "Z.java");
+        assertThat(summary.extractedCount()).isEqualTo(3);
+        assertThat(summary.skippedCount()).isEqualTo(1);
+        assertThat(tempDir.resolve("spill")).isEmptyDirectory();
+    }
+
+    @Test
+    void read_nestedArchives_shouldShareEntryLimitWithOuterArchive() throws Exception {
+        byte[] inner = zipBytes(entries -> {
+            entries.add(entry("B.java", "class B {}"));
+            entries.add(entry("C.java", "class C {}"));
+        });
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            entries.add(new ZipEntrySpec("inner.zip", false, inner));
+            entries.add(entry("D.java", "class D {}"));
+        });
+
+        List<ZipUtil.Entry> handedOver = new ArrayList<>();
+        ZipUtil.Level level = new ZipUtil.Level(ZipEntryFilter.ACCEPT_ALL, ZipUtil.UnchangedFilter.NONE, handedOver::addAll);
+
+        ZipUtil.Summary summary;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            summary = ZipUtil.read(zipFile, tempDir.resolve("spill"), new ZipUtil.Limits(1024, 1024 * 1024, 2),
+                    1024 * 1024, 1, level, (name, archive) -> level);
+        }
+
+        // inner.zip and inner.zip!/B.java use up max-entries 2
+        assertThat(handedOver).extracting(ZipUtil.Entry::name).containsExactly("inner.zip!/B.java");
+        assertThat(summary.stopReason()).isEqualTo("max_entries");
+    }
+
+    @Test
+    void read_nestedArchives_shouldChargeTheirScratchCopyToTheTotalLimit() throws Exception {
+        byte[] inner = zipBytes(entries -> entries.add(entry("node_modules/x/index.js", "x".repeat(400))));
+        Path zip = zipInTempDir("archive.zip", entries -> {
+            for (int i = 0; i < 20; i++) {
+                entries.add(new ZipEntrySpec("inner-" + i + ".zip", false, inner));
+            }
+        });
+
+        List<String> opened = new ArrayList<>();
+        ZipUtil.Level level = new ZipUtil.Level(ZipEntryFilter.of(List.of(), List.of("**/node_modules/**")),
+                ZipUtil.UnchangedFilter.NONE, batch -> { });
+
+        ZipUtil.Summary summary;
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            summary = ZipUtil.read(zipFile, tempDir.resolve("spill"), new ZipUtil.Limits(1024, 4 * inner.length, 100),
+                    1024 * 1024, 1, level, (name, archive) -> {
+                        opened.add(name);
+                        return level;
+                    });
+        }
+
+        // every inner entry is excluded, yet only four scratch copies fit the total
+        assertThat(opened).hasSize(4);
+        assertThat(summary.extractedCount()).isZero();
+        assertThat(summary.stopReason()).isEqualTo("max_total_bytes");
+    }
+
     @Test
     void constructor_shouldBePrivate() throws Exception {
         Constructor<ZipUtil> constructor =
@@ -369,6 +661,12 @@ class ZipUtilTest {
         return bytes.toByteArray();
     }
 
+    private static long crc(String content) {
+        CRC32 crc = new CRC32();
+        crc.update(content.getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
     private static void writeSpec(ZipOutputStream zos, ZipEntrySpec spec) throws IOException {
         ZipEntry entry = new ZipEntry(spec.name());
         zos.putNextEntry(entry);